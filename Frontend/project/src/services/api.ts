@@ -9,8 +9,12 @@ interface ApiResponse<T> {
   status?: number;
   message?: string;
   success?: boolean
+  headers?: Headers;
 }
 
+// Taille de page maximale acceptée par les listes paginées par curseur (X-Next-Cursor)
+const CURSOR_PAGE_SIZE = 200;
+
 
 interface UserProfile {
   id: number;
@@ -72,7 +76,7 @@ class ApiService {
       }
       
      
-      return { data };
+      return { data, headers: response.headers };
     } catch (error) {
       console.error(`💥 [API] Erreur réseau ou fetch sur ${url}`, error);
       return {
@@ -457,7 +461,7 @@ async getAllStops(token: string): Promise<ApiResponse<any>> {
   }
 
   async validateQrCode(qrCode: string, token: string) {
-    return this.fetchWithFallback<{
+    type ValidationResult = {
       valid: boolean;
       message: string;
       ticketType?: string;
@@ -465,14 +469,27 @@ async getAllStops(token: string): Promise<ApiResponse<any>> {
       purchaseDate?: string;
       expirationDate?: string;
       ownerName?: string;
+    };
+    // One round trip for tickets and subscriptions: the service classifies the QR code
+    const response = await this.fetchWithFallback<{
+      kind: 'TICKET' | 'SUBSCRIPTION';
+      result: ValidationResult & { planName?: string; endDate?: string };
     }>(
-      `${API_BASE_URL}/api/tickets/validate-qr/${encodeURIComponent(qrCode)}`,
+      `${API_BASE_URL}/api/scan/${encodeURIComponent(qrCode)}`,
       {
         headers: {
           Authorization: `Bearer ${token}`,
         },
       }
     );
+    if (!response.data) {
+      return { ...response, data: undefined };
+    }
+    const { result } = response.data;
+    const data: ValidationResult = response.data.kind === 'SUBSCRIPTION'
+      ? { ...result, ticketType: result.planName, expirationDate: result.endDate }
+      : result;
+    return { ...response, data };
   }
 
   async getValidationStats(token: string) {
@@ -644,8 +661,27 @@ async getSubscriptionPlans(token: string) {
     );
   }
 
+  // Suit l'en-tête X-Next-Cursor jusqu'à la dernière page et renvoie la liste complète
+  private async fetchAllPages<T>(url: string, options?: RequestInit): Promise<ApiResponse<T[]>> {
+    const items: T[] = [];
+    let cursor: string | null = null;
+    do {
+      const params = new URLSearchParams({ limit: String(CURSOR_PAGE_SIZE) });
+      if (cursor) {
+        params.set('cursor', cursor);
+      }
+      const page = await this.fetchWithFallback<T[]>(`${url}?${params}`, options);
+      if (page.error) {
+        return page;
+      }
+      items.push(...(page.data ?? []));
+      cursor = page.headers?.get('X-Next-Cursor') ?? null;
+    } while (cursor);
+    return { data: items };
+  }
+
   async getTransferHistory(token: string) {
-    return this.fetchWithFallback<any[]>(
+    return this.fetchAllPages<any>(
       `${API_BASE_URL}/api/tickets/transfer-history`,
       {
         headers: {
@@ -656,7 +692,7 @@ async getSubscriptionPlans(token: string) {
   }
 
   async getTransferHistorySent(token: string) {
-    return this.fetchWithFallback<any[]>(
+    return this.fetchAllPages<any>(
       `${API_BASE_URL}/api/tickets/transfer-history/sent`,
       {
         headers: {
@@ -667,7 +703,7 @@ async getSubscriptionPlans(token: string) {
   }
 
   async getTransferHistoryReceived(token: string) {
-    return this.fetchWithFallback<any[]>(
+    return this.fetchAllPages<any>(
       `${API_BASE_URL}/api/tickets/transfer-history/received`,
       {
         headers: {
@@ -729,6 +765,33 @@ async getSubscriptionPlans(token: string) {
     );
   }
 
+  // refundIds null : toutes les demandes en attente
+  async processRefunds(refundIds: number[] | null, approved: boolean, adminNotes: string, token: string) {
+    return this.fetchWithFallback<any>(
+      `${API_BASE_URL}/api/tickets/refunds/bulk-process`,
+      {
+        method: 'POST',
+        headers: {
+          Authorization: `Bearer ${token}`,
+          'Content-Type': 'application/json',
+        },
+        body: JSON.stringify({ refundIds, approved, adminNotes }),
+      }
+    );
+  }
+
+  // Notifications manquées depuis afterSeq ; complete à false : recharger l'historique
+  async replayNotifications(afterSeq: number, token: string) {
+    return this.fetchWithFallback<{ notifications: any[]; lastSeq: number; complete: boolean }>(
+      `${API_BASE_URL}/api/tickets/notifications/replay?afterSeq=${afterSeq}`,
+      {
+        headers: {
+          Authorization: `Bearer ${token}`,
+        },
+      }
+    );
+  }
+
   async testFallback() {
     return this.fetchWithFallback<any>(`${API_BASE_URL}/fallback/test`);
   }
@@ -25,7 +25,7 @@ public class CorsConfig {
         config.setAllowedHeaders(Arrays.asList("*"));
         
        
-        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        config.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Next-Cursor"));
         
        
         config.setAllowCredentials(true);
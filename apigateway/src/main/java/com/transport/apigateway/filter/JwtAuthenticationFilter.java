@@ -33,6 +33,8 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             "/actuator/**"
     );
 
+    private static final String WEBSOCKET_ROUTE = "/ws/**";
+
     public JwtAuthenticationFilter(JwtUtil jwtUtil) {
         this.jwtUtil = jwtUtil;
         this.pathMatcher = new AntPathMatcher();
@@ -50,16 +52,14 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
             return chain.filter(exchange);
         }
 
-        String authHeader = request.getHeaders().getFirst("Authorization");
+        String token = extractToken(request, path);
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (token == null) {
             log.warn("❌ Token JWT manquant pour: {}", path);
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
 
-        String token = authHeader.substring(7);
-
         try {
             if (!jwtUtil.validateToken(token)) {
                 log.warn("❌ Token JWT invalide ou expiré");
@@ -108,6 +108,18 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         }
     }
 
+    // Handshake WebSocket/SockJS : le navigateur ne peut pas poser d'en-tête, le jeton vient de la query
+    private String extractToken(ServerHttpRequest request, String path) {
+        String authHeader = request.getHeaders().getFirst("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        if (pathMatcher.match(WEBSOCKET_ROUTE, path)) {
+            return request.getQueryParams().getFirst("access_token");
+        }
+        return null;
+    }
+
     private boolean isPublicRoute(String path) {
         return PUBLIC_ROUTES.stream().anyMatch(route -> pathMatcher.match(route, path));
     }
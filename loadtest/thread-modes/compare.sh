@@ -0,0 +1,58 @@
+#!/bin/bash
+
+# Compare le débit et le p99 d'un service Spring MVC entre le pool Tomcat classique
+# et le mode threads virtuels (spring.threads.virtual.enabled).
+#
+# Usage : ./compare.sh tickets|users
+# Prérequis : k6, un JDK 21, les bases et RabbitMQ démarrés (docker compose up -d mysql-db postgres-db rabbitmq-service)
+# et les variables d'environnement du service (DB_*, SPRING_RABBITMQ_*, JWT_SECRET...) exportées.
+
+set -euo pipefail
+
+SERVICE="${1:-tickets}"
+ROOT="$(cd "$(dirname "$0")/../.." && pwd)"
+OUT="$ROOT/loadtest/thread-modes/results/$(date +%Y%m%d-%H%M%S)-$SERVICE"
+mkdir -p "$OUT"
+
+case "$SERVICE" in
+  tickets) DIR="$ROOT/tickets-service"; PORT=8083; SCRIPT=tickets.js ;;
+  users)   DIR="$ROOT/user-service";    PORT=8080; SCRIPT=users.js ;;
+  *) echo "Service inconnu : $SERVICE (tickets|users)"; exit 1 ;;
+esac
+
+(cd "$DIR" && ./mvnw -q -DskipTests package)
+JAR="$(ls "$DIR"/target/*.jar | grep -v original | head -1)"
+
+run_mode() {
+  local mode="$1" virtual="$2"
+  echo "=== $SERVICE - mode $mode ==="
+  # jdk.tracePinnedThreads signale dans le journal tout thread virtuel épinglé pendant une attente bloquante
+  VIRTUAL_THREADS_ENABLED="$virtual" java -Djdk.tracePinnedThreads=short -jar "$JAR" --server.port="$PORT" \
+    > "$OUT/$mode-app.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+  k6 run --quiet -e BASE_URL="http://localhost:$PORT" --summary-export "$OUT/$mode-summary.json" \
+    "$ROOT/loadtest/thread-modes/$SCRIPT"
+
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+run_mode platform false
+run_mode virtual true
+
+echo
+printf "%-10s %12s %12s %12s\n" "mode" "req/s" "p95 (ms)" "p99 (ms)"
+for mode in platform virtual; do
+  summary="$OUT/$mode-summary.json"
+  printf "%-10s %12.1f %12.1f %12.1f\n" "$mode" \
+    "$(jq '.metrics.http_reqs.rate' "$summary")" \
+    "$(jq '.metrics.http_req_duration["p(95)"]' "$summary")" \
+    "$(jq '.metrics.http_req_duration["p(99)"]' "$summary")"
+done
+
+echo
+echo "Threads virtuels épinglés : $(grep -c 'VirtualThread' "$OUT/virtual-app.log" || true) (détails dans $OUT/virtual-app.log)"
@@ -0,0 +1,47 @@
+// Charge mixte sur tickets-service : validation QR (lecture + écriture), historique, statistiques et achat.
+// Usage : k6 run -e BASE_URL=http://localhost:8083 -e USER_ID=1 -e USER_EMAIL=user@example.com tickets.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8083';
+const USER_ID = __ENV.USER_ID || '1';
+const USER_EMAIL = __ENV.USER_EMAIL || 'loadtest@kowihantransit.ma';
+
+export const options = {
+  scenarios: {
+    ramp: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: Number(__ENV.VUS || 400) },
+        { duration: __ENV.HOLD || '2m', target: Number(__ENV.VUS || 400) },
+        { duration: '15s', target: 0 },
+      ],
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const headers = { 'X-User-Id': USER_ID, 'X-User-Email': USER_EMAIL, 'Content-Type': 'application/json' };
+
+export function setup() {
+  const res = http.post(`${BASE_URL}/api/tickets/purchase`, JSON.stringify({ userId: Number(USER_ID), ticketType: 'MENSUEL' }), { headers });
+  check(res, { 'ticket de référence créé': (r) => r.status === 200 });
+  return { qrCode: encodeURIComponent(res.json('qrCodeData')) };
+}
+
+export default function (data) {
+  const roll = Math.random();
+  let res;
+  if (roll < 0.6) {
+    res = http.get(`${BASE_URL}/api/tickets/validate-qr/${data.qrCode}`, { tags: { name: 'validate-qr' } });
+  } else if (roll < 0.8) {
+    res = http.get(`${BASE_URL}/api/tickets/history/me`, { headers, tags: { name: 'history' } });
+  } else if (roll < 0.95) {
+    res = http.get(`${BASE_URL}/api/tickets/stats/me`, { headers, tags: { name: 'stats' } });
+  } else {
+    res = http.post(`${BASE_URL}/api/tickets/purchase`, JSON.stringify({ userId: Number(USER_ID), ticketType: 'SIMPLE' }),
+      { headers, tags: { name: 'purchase' } });
+  }
+  check(res, { 'status 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
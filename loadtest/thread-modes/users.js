@@ -0,0 +1,37 @@
+// Charge sur user-service : profil courant, fidélité et statistiques (authentification via les en-têtes de la Gateway).
+// Usage : k6 run -e BASE_URL=http://localhost:8080 -e USER_EMAIL=user@example.com users.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const USER_EMAIL = __ENV.USER_EMAIL || 'loadtest@kowihantransit.ma';
+
+export const options = {
+  scenarios: {
+    ramp: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: Number(__ENV.VUS || 400) },
+        { duration: __ENV.HOLD || '2m', target: Number(__ENV.VUS || 400) },
+        { duration: '15s', target: 0 },
+      ],
+    },
+  },
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const headers = { 'X-User-Email': USER_EMAIL };
+
+export default function () {
+  const roll = Math.random();
+  let res;
+  if (roll < 0.6) {
+    res = http.get(`${BASE_URL}/api/users/me`, { headers, tags: { name: 'me' } });
+  } else if (roll < 0.9) {
+    res = http.get(`${BASE_URL}/api/users/me/loyalty`, { headers, tags: { name: 'loyalty' } });
+  } else {
+    res = http.get(`${BASE_URL}/api/users/stats`, { headers, tags: { name: 'stats' } });
+  }
+  check(res, { 'status 2xx': (r) => r.status >= 200 && r.status < 300 });
+}
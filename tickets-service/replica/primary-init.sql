@@ -0,0 +1,5 @@
+-- Compte de réplication, et droit REPLICATION CLIENT pour que tickets-service lise SHOW REPLICA STATUS
+CREATE USER IF NOT EXISTS 'replicator'@'%' IDENTIFIED WITH mysql_native_password BY 'replicator_password';
+GRANT REPLICATION SLAVE ON *.* TO 'replicator'@'%';
+GRANT REPLICATION CLIENT ON *.* TO 'tickets_user'@'%';
+FLUSH PRIVILEGES;
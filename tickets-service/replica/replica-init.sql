@@ -0,0 +1,12 @@
+-- Le compte applicatif et la base sont répliqués depuis le primaire (GTID, position automatique)
+CHANGE REPLICATION SOURCE TO
+    SOURCE_HOST = 'mysql-primary',
+    SOURCE_PORT = 3306,
+    SOURCE_USER = 'replicator',
+    SOURCE_PASSWORD = 'replicator_password',
+    SOURCE_AUTO_POSITION = 1,
+    GET_SOURCE_PUBLIC_KEY = 1;
+START REPLICA;
+
+-- Lecture seule persistée (appliquée après l'initialisation du conteneur, qui doit encore pouvoir écrire)
+SET PERSIST super_read_only = ON;
@@ -21,6 +21,8 @@ public class CorsConfig {
         config.addAllowedOriginPattern("*");
         config.addAllowedHeader("*");
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
+        // Pagination par curseur des historiques
+        config.addExposedHeader("X-Next-Cursor");
 
         source.registerCorsConfiguration("/api/**", config);
         source.registerCorsConfiguration("/**", config);
@@ -3,16 +3,20 @@ package com.example.ticketsservice.config;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper; 
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration; 
 
@@ -23,6 +27,7 @@ public class RabbitMQConfig {
     public static final String EXCHANGE_NAME = "transport_events";
     public static final String QUEUE_NAME = "tickets_user_registered_queue";
     public static final String ROUTING_KEY = "user.registered";
+    public static final String CACHE_INVALIDATION_ROUTING_KEY = "tickets.cache.invalidate";
 
     @Bean
     public TopicExchange exchange() {
@@ -39,6 +44,35 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY);
     }
 
+    // Une file exclusive par réplica : chaque instance reçoit toutes les invalidations, comme un fanout
+    @Bean
+    public Queue cacheInvalidationQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("tickets.cache.invalidation."));
+    }
+
+    @Bean
+    public Binding cacheInvalidationBinding(Queue cacheInvalidationQueue, TopicExchange exchange) {
+        return BindingBuilder.bind(cacheInvalidationQueue).to(exchange).with(CACHE_INVALIDATION_ROUTING_KEY);
+    }
+
+    // Import massif d'inscriptions : un upsert multi-lignes par lot au lieu d'un SELECT + INSERT par message
+    @Bean
+    public SimpleRabbitListenerContainerFactory userEventsBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            UserSyncProperties properties) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(properties.getBatchSize());
+        factory.setReceiveTimeout(properties.getReceiveTimeout().toMillis());
+        factory.setPrefetchCount(Math.max(properties.getPrefetch(), properties.getBatchSize()));
+        factory.setConcurrentConsumers(properties.getConcurrency());
+        factory.setMaxConcurrentConsumers(Math.max(properties.getConcurrency(), properties.getMaxConcurrency()));
+        return factory;
+    }
+
     @Bean
     public MessageConverter jsonMessageConverter() {
         Jackson2JsonMessageConverter converter = new Jackson2JsonMessageConverter();
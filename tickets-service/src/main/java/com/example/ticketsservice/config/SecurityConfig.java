@@ -26,6 +26,7 @@ public class SecurityConfig {
                         .requestMatchers("/ws/**").permitAll()
                         .requestMatchers("/api/tickets/validate-qr/**").permitAll()  // Public validation endpoint
                         .requestMatchers("/api/subscriptions/validate-qr/**").permitAll()  // Subscription validation proxy
+                        .requestMatchers("/api/scan/**").permitAll()  // Unified scanner endpoint
                         .requestMatchers("/scanner", "/").permitAll()  // Scanner interface
                         .requestMatchers("/*.html", "/css/**", "/js/**", "/images/**").permitAll()  // Static resources
                         .anyRequest().authenticated()
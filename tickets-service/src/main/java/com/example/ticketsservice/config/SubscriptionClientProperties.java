@@ -0,0 +1,46 @@
+package com.example.ticketsservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Appels à subscription-service pour la validation des QR codes d'abonnement : pool de connexions
+ * borné, délais courts et cache des réponses. Le disjoncteur se règle sous
+ * {@code resilience4j.circuitbreaker.instances.subscriptionService}.
+ */
+@Data
+@ConfigurationProperties(prefix = "tickets.subscriptions")
+public class SubscriptionClientProperties {
+
+    private String url = "http://localhost:3002";
+
+    private Duration connectTimeout = Duration.ofMillis(500);
+
+    /** Attente de la réponse une fois la requête envoyée. */
+    private Duration responseTimeout = Duration.ofSeconds(2);
+
+    /** Attente d'une connexion libre dans le pool. */
+    private Duration connectionRequestTimeout = Duration.ofMillis(250);
+
+    private int maxConnections = 50;
+
+    /** Connexions inactives au-delà de ce délai fermées par le pool. */
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    private Cache cache = new Cache();
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Durée de vie d'une validation positive : un abonnement résilié reste valide au plus ce délai.
+         * Les refus ne sont pas gardés.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        private long maximumSize = 10_000;
+    }
+}
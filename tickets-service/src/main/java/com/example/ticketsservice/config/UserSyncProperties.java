@@ -0,0 +1,50 @@
+package com.example.ticketsservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Consommation par lots des événements user.registered (copie locale de la table users).
+ * Un lot part dès qu'il atteint {@code batchSize} messages, ou quand aucun message n'arrive
+ * pendant {@code receiveTimeout}. L'amorçage charge d'abord l'export de user-service, pour les
+ * utilisateurs antérieurs à la file.
+ */
+@Data
+@ConfigurationProperties(prefix = "tickets.users.sync")
+public class UserSyncProperties {
+
+    private int batchSize = 100;
+
+    private Duration receiveTimeout = Duration.ofMillis(200);
+
+    /** Messages non acquittés par consommateur ; jamais inférieur à la taille de lot. */
+    private int prefetch = 250;
+
+    private int concurrency = 1;
+
+    private int maxConcurrency = 4;
+
+    private Bootstrap bootstrap = new Bootstrap();
+
+    public enum BootstrapMode { IF_EMPTY, ALWAYS, NEVER }
+
+    @Data
+    public static class Bootstrap {
+
+        /** IF_EMPTY : seulement sur une table users vide (nouvel environnement ou nouveau shard 0). */
+        private BootstrapMode mode = BootstrapMode.IF_EMPTY;
+
+        private String userServiceUrl = "http://user-service:8080";
+
+        /** Jeton partagé avec user-service (USERS_SNAPSHOT_TOKEN). */
+        private String token = "";
+
+        private int pageSize = 10_000;
+
+        /** Lignes par INSERT multi-lignes. */
+        private int writeBatchSize = 1_000;
+    }
+}
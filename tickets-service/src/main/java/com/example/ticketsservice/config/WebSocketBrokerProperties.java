@@ -0,0 +1,58 @@
+package com.example.ticketsservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Broker STOMP des notifications WebSocket. SIMPLE garde les abonnements dans la mémoire du réplica :
+ * un message ne touche que les clients connectés à ce réplica. RELAY les confie au plugin STOMP de
+ * RabbitMQ, partagé par tous les réplicas derrière la gateway.
+ */
+@Data
+@ConfigurationProperties(prefix = "tickets.websocket.broker")
+public class WebSocketBrokerProperties {
+
+    public enum Mode { SIMPLE, RELAY }
+
+    private Mode mode = Mode.SIMPLE;
+
+    /** Battements STOMP proposés aux clients du broker simple (envoi et réception). */
+    private Duration clientHeartbeat = Duration.ofSeconds(10);
+
+    private Relay relay = new Relay();
+
+    @Data
+    public static class Relay {
+
+        private String host = "localhost";
+
+        private int port = 61613;
+
+        private String virtualHost = "/";
+
+        /** Identifiants de la connexion système et des sessions clients relayées. */
+        private String login = "guest";
+
+        private String passcode = "guest";
+
+        /** Battements de la connexion système : une coupure du broker est détectée en deux intervalles. */
+        private Duration systemHeartbeatSend = Duration.ofSeconds(10);
+
+        private Duration systemHeartbeatReceive = Duration.ofSeconds(10);
+
+        /**
+         * Connexions TCP simultanées vers le broker (une par session WebSocket, plus la connexion système).
+         * Au-delà, les connexions attendent {@code pendingAcquireTimeout} puis la session est refusée.
+         */
+        private int maxConnections = 2_000;
+
+        private int pendingAcquireMaxCount = 500;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+        private Duration connectTimeout = Duration.ofSeconds(5);
+    }
+}
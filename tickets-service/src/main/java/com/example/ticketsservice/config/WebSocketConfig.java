@@ -1,30 +1,163 @@
 package com.example.ticketsservice.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompReactorNettyCodec;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpClient;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import com.example.ticketsservice.config.websocket.DestinationIndexedSubscriptionRegistry;
+import com.example.ticketsservice.config.websocket.GatewayHandshakeHandler;
+import com.example.ticketsservice.config.websocket.SlowConsumerGuard;
+import com.example.ticketsservice.config.websocket.SubscriptionGuard;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.TcpClient;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    /** Messages pour un utilisateur sans session sur ce réplica : repris par celui qui la porte. */
+    public static final String USER_DESTINATION_BROADCAST = "/topic/unresolved-user";
+    /** Diffusion périodique des sessions de chaque réplica, pour un registre d'utilisateurs commun. */
+    public static final String USER_REGISTRY_BROADCAST = "/topic/simp-user-registry";
+
+    private final WebSocketBrokerProperties properties;
+    private final WebSocketTransportProperties transport;
+    private final TaskScheduler heartbeatScheduler;
+    private final SlowConsumerGuard slowConsumerGuard;
+
+    // Lazy : le planificateur du broker est lui-même déclaré par la configuration WebSocket
+    public WebSocketConfig(WebSocketBrokerProperties properties,
+                           WebSocketTransportProperties transport,
+                           @Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler heartbeatScheduler,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transport = transport;
+        this.heartbeatScheduler = heartbeatScheduler;
+        this.slowConsumerGuard = new SlowConsumerGuard(transport.getMaxQueuedFramesPerSession(), meterRegistry);
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker
-        config.enableSimpleBroker("/topic", "/queue");
+        if (properties.getMode() == WebSocketBrokerProperties.Mode.RELAY) {
+            configureRelay(config);
+        } else {
+            // Broker en mémoire : abonnements locaux au réplica
+            long heartbeat = properties.getClientHeartbeat().toMillis();
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[] {heartbeat, heartbeat})
+                    .setTaskScheduler(heartbeatScheduler);
+        }
         // Set prefix for messages bound for @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
         // Set prefix for user-specific messages
         config.setUserDestinationPrefix("/user");
     }
 
+    /**
+     * Relais vers le plugin STOMP de RabbitMQ : tous les réplicas partagent les abonnements, un message
+     * envoyé par l'un atteint les clients connectés aux autres. RabbitMQ n'accepte qu'un segment après
+     * /topic/ ou /queue/ : pas de '/' dans les noms de destination.
+     */
+    private void configureRelay(MessageBrokerRegistry config) {
+        WebSocketBrokerProperties.Relay relay = properties.getRelay();
+        config.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relay.getHost())
+                .setRelayPort(relay.getPort())
+                .setVirtualHost(relay.getVirtualHost())
+                .setSystemLogin(relay.getLogin())
+                .setSystemPasscode(relay.getPasscode())
+                .setClientLogin(relay.getLogin())
+                .setClientPasscode(relay.getPasscode())
+                .setSystemHeartbeatSendInterval(relay.getSystemHeartbeatSend().toMillis())
+                .setSystemHeartbeatReceiveInterval(relay.getSystemHeartbeatReceive().toMillis())
+                .setUserDestinationBroadcast(USER_DESTINATION_BROADCAST)
+                .setUserRegistryBroadcast(USER_REGISTRY_BROADCAST)
+                .setTcpClient(relayTcpClient(relay));
+    }
+
+    /**
+     * STOMP lie une session à sa connexion TCP : le pool ne réutilise rien, il borne le nombre de
+     * connexions vers le broker et met en attente (puis refuse) les sessions au-delà.
+     */
+    private static ReactorNettyTcpClient<byte[]> relayTcpClient(WebSocketBrokerProperties.Relay relay) {
+        ConnectionProvider provider = ConnectionProvider.builder("stomp-relay")
+                .maxConnections(relay.getMaxConnections())
+                .pendingAcquireMaxCount(relay.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(relay.getPendingAcquireTimeout())
+                .build();
+        TcpClient tcpClient = TcpClient.create(provider)
+                .host(relay.getHost())
+                .port(relay.getPort())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) relay.getConnectTimeout().toMillis());
+        return new ReactorNettyTcpClient<>(tcpClient, new StompReactorNettyCodec());
+    }
+
+    /**
+     * Le broker simple ne permet pas de choisir son registre à la configuration : on remplace le registre
+     * par défaut avant son démarrage (sans effet en mode relais, où le bean n'existe pas).
+     */
+    @Bean
+    static BeanPostProcessor destinationIndexedSubscriptions() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof SimpleBrokerMessageHandler broker) {
+                    broker.setSubscriptionRegistry(new DestinationIndexedSubscriptionRegistry());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new SubscriptionGuard());
+    }
+
+    /**
+     * Canal sortant borné : un pool saturé refuse la trame (comptée) au lieu d'empiler sans limite,
+     * et SlowConsumerGuard ferme la session qui accumule trop de trames.
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        WebSocketTransportProperties.Outbound outbound = transport.getOutbound();
+        registration.interceptors(slowConsumerGuard);
+        registration.taskExecutor()
+                .corePoolSize(outbound.getCorePoolSize())
+                .maxPoolSize(outbound.getMaxPoolSize())
+                .queueCapacity(outbound.getQueueCapacity());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) transport.getSendTimeLimit().toMillis())
+                .setSendBufferSizeLimit((int) transport.getSendBufferSizeLimit().toBytes())
+                .setMessageSizeLimit((int) transport.getMessageSizeLimit().toBytes())
+                .setTimeToFirstMessage((int) transport.getTimeToFirstMessage().toMillis())
+                .addDecoratorFactory(slowConsumerGuard);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        // Register STOMP endpoint with SockJS fallback
+        // Register STOMP endpoint with SockJS fallback ; principal = utilisateur authentifié par la gateway
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
+                .setHandshakeHandler(new GatewayHandshakeHandler())
                 .withSockJS();
     }
 }
@@ -0,0 +1,46 @@
+package com.example.ticketsservice.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Limites des sessions WebSocket et du canal sortant. Un client lent (mobile sur un mauvais réseau)
+ * ne garde en mémoire qu'un tampon borné : au-delà, ou si un envoi dure trop, sa session est fermée
+ * et il se reconnecte.
+ */
+@Data
+@ConfigurationProperties(prefix = "tickets.websocket.transport")
+public class WebSocketTransportProperties {
+
+    /** Durée maximale d'un envoi vers une session avant sa fermeture. */
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+    /** Trames en attente pendant un envoi en cours, par session. */
+    private DataSize sendBufferSizeLimit = DataSize.ofKilobytes(256);
+
+    /** Taille maximale d'une trame reçue d'un client. */
+    private DataSize messageSizeLimit = DataSize.ofKilobytes(64);
+
+    /** Délai accordé au client pour envoyer CONNECT après la poignée de main. */
+    private Duration timeToFirstMessage = Duration.ofSeconds(30);
+
+    /** Trames d'une session dans la file du canal sortant : au-delà, la session est fermée. */
+    private int maxQueuedFramesPerSession = 200;
+
+    private Outbound outbound = new Outbound();
+
+    @Data
+    public static class Outbound {
+
+        private int corePoolSize = Runtime.getRuntime().availableProcessors() * 2;
+
+        private int maxPoolSize = Runtime.getRuntime().availableProcessors() * 4;
+
+        /** File bornée : une trame refusée est perdue (et comptée) plutôt que de remplir le tas. */
+        private int queueCapacity = 10_000;
+    }
+}
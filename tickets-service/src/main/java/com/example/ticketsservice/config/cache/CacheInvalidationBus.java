@@ -0,0 +1,199 @@
+package com.example.ticketsservice.config.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ticketsservice.config.RabbitMQConfig;
+import com.example.ticketsservice.event.CacheInvalidationEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Invalidation des caches locaux entre réplicas, via l'exchange transport_events.
+ * Chaque instance lie sa propre file anonyme et ne purge que ses copies locales : Redis est partagé
+ * et déjà écrit par l'émetteur. Les clés sont regroupées par lots numérotés (génération) ; un trou dans
+ * la suite d'un émetteur connu — lot perdu, file recréée après une coupure — vide tout le cache local
+ * plutôt que de servir une validité périmée. Le premier lot d'un émetteur inconnu sert de point de
+ * départ. Un lot vide part à chaque battement pour que la perte du dernier lot soit elle aussi détectée.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private record OriginState(long generation, long seenAt) {}
+
+    private final RabbitTemplate rabbitTemplate;
+    private final TicketCacheProperties properties;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, LocalCache> caches = new ConcurrentHashMap<>();
+    // Verrous plutôt que synchronized : un thread virtuel qui publie vers RabbitMQ n'épingle pas son porteur
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<String, Set<String>> pending = new HashMap<>();
+    private final Map<String, OriginState> origins = new ConcurrentHashMap<>();
+
+    private final Counter publishedBatches;
+    private final Counter publishFailures;
+    private final Counter receivedKeys;
+    private final Counter gapFlushes;
+
+    private long generation;
+    private long lastPublishedAt = System.nanoTime();
+
+    public CacheInvalidationBus(RabbitTemplate rabbitTemplate, TicketCacheProperties properties, MeterRegistry registry) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.properties = properties;
+        this.publishedBatches = Counter.builder("tickets.cache.invalidation.published")
+                .description("Lots d'invalidation publiés (battements compris)")
+                .register(registry);
+        this.publishFailures = Counter.builder("tickets.cache.invalidation.publish.errors")
+                .register(registry);
+        this.receivedKeys = Counter.builder("tickets.cache.invalidation.received")
+                .description("Clés purgées sur demande d'un autre réplica")
+                .register(registry);
+        this.gapFlushes = Counter.builder("tickets.cache.invalidation.gaps")
+                .description("Purges complètes du cache local après un lot manquant")
+                .register(registry);
+    }
+
+    public void register(LocalCache cache) {
+        caches.put(cache.name(), cache);
+    }
+
+    /**
+     * Annonce aux autres réplicas qu'une entrée a changé. À appeler après le commit, une fois
+     * Redis à jour : un réplica qui relit juste après la purge doit y trouver la nouvelle valeur.
+     */
+    public void invalidate(LocalCache cache, String key) {
+        pendingLock.lock();
+        try {
+            pending.computeIfAbsent(cache.name(), name -> new LinkedHashSet<>()).add(key);
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.cache.invalidation.flush-interval:50ms}")
+    public void flush() {
+        if (caches.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushPending() {
+        Map<String, Set<String>> batch;
+        pendingLock.lock();
+        try {
+            batch = new HashMap<>(pending);
+            pending.clear();
+        } finally {
+            pendingLock.unlock();
+        }
+        TicketCacheProperties.Invalidation settings = properties.getInvalidation();
+        if (batch.isEmpty()) {
+            if (System.nanoTime() - lastPublishedAt >= settings.getHeartbeatInterval().toNanos()) {
+                publish(Map.of());
+            }
+            forgetSilentOrigins(settings);
+            return;
+        }
+        Map<String, List<String>> chunk = new HashMap<>();
+        int size = 0;
+        for (Map.Entry<String, Set<String>> entry : batch.entrySet()) {
+            for (String key : entry.getValue()) {
+                chunk.computeIfAbsent(entry.getKey(), name -> new ArrayList<>()).add(key);
+                if (++size == settings.getMaxBatchSize()) {
+                    publish(chunk);
+                    chunk = new HashMap<>();
+                    size = 0;
+                }
+            }
+        }
+        if (size > 0) {
+            publish(chunk);
+        }
+    }
+
+    @RabbitListener(queues = "#{cacheInvalidationQueue.name}")
+    public void handle(CacheInvalidationEvent event) {
+        if (instanceId.equals(event.getOrigin()) || caches.isEmpty()) {
+            return;
+        }
+        // Émetteur inconnu (démarré avant nous, ou oublié après un long silence) : son lot sert de référence
+        OriginState previous = origins.get(event.getOrigin());
+        long expected = previous == null ? event.getGeneration() : previous.generation() + 1;
+        origins.put(event.getOrigin(), new OriginState(Math.max(event.getGeneration(), expected - 1), System.nanoTime()));
+        if (event.getGeneration() > expected) {
+            gapFlushes.increment();
+            log.warn("Invalidation : lots {} à {} de {} manquants, purge complète du cache local",
+                    expected, event.getGeneration() - 1, event.getOrigin());
+            caches.values().forEach(LocalCache::clearLocal);
+            return;
+        }
+        if (event.getKeys() == null) {
+            return;
+        }
+        event.getKeys().forEach((name, keys) -> {
+            LocalCache cache = caches.get(name);
+            if (cache != null) {
+                keys.forEach(cache::evictLocal);
+                receivedKeys.increment(keys.size());
+            }
+        });
+    }
+
+    // Un lot non publié ne consomme pas sa génération : ses clés repartent au prochain flush, sans trou
+    // côté récepteurs ni purge complète
+    private void publish(Map<String, List<String>> keys) {
+        CacheInvalidationEvent event = CacheInvalidationEvent.builder()
+                .origin(instanceId)
+                .generation(generation + 1)
+                .keys(keys)
+                .build();
+        lastPublishedAt = System.nanoTime();
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, RabbitMQConfig.CACHE_INVALIDATION_ROUTING_KEY, event);
+            generation = event.getGeneration();
+            publishedBatches.increment();
+        } catch (AmqpException e) {
+            publishFailures.increment();
+            log.warn("Invalidation : publication du lot {} impossible, nouvel essai au prochain flush: {}",
+                    event.getGeneration(), e.getMessage());
+            pendingLock.lock();
+            try {
+                keys.forEach((name, names) -> pending.computeIfAbsent(name, cache -> new LinkedHashSet<>()).addAll(names));
+            } finally {
+                pendingLock.unlock();
+            }
+        }
+    }
+
+    private void forgetSilentOrigins(TicketCacheProperties.Invalidation settings) {
+        long silence = settings.getOriginExpiry().toNanos();
+        long now = System.nanoTime();
+        origins.values().removeIf(state -> now - state.seenAt() > silence);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ticketsservice.config.cache;
+
+/**
+ * Copie locale à une instance, purgée par le bus d'invalidation quand un autre réplica écrit.
+ */
+public interface LocalCache {
+
+    String name();
+
+    void evictLocal(String key);
+
+    /** Appelée après un lot d'invalidation manqué : plus aucune entrée locale n'est sûre. */
+    void clearLocal();
+}
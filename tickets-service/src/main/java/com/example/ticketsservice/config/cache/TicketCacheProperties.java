@@ -0,0 +1,57 @@
+package com.example.ticketsservice.config.cache;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Cache de lecture à deux niveaux (Caffeine local, Redis partagé) des tickets et des utilisateurs.
+ * Les autres réplicas purgent leur niveau local via le bus d'invalidation ; la durée locale reste
+ * une borne de secours si RabbitMQ est injoignable.
+ */
+@Data
+@ConfigurationProperties(prefix = "tickets.cache")
+public class TicketCacheProperties {
+
+    private boolean enabled = true;
+
+    private Duration localTtl = Duration.ofSeconds(30);
+
+    private long localMaximumSize = 10_000;
+
+    private Duration redisTtl = Duration.ofMinutes(10);
+
+    /** Pause du niveau Redis après une erreur : les lectures retombent sur MySQL sans attendre le timeout. */
+    private Duration redisErrorBackoff = Duration.ofSeconds(5);
+
+    /**
+     * Durée du marqueur posé par une purge, pendant laquelle aucune écriture n'est acceptée : doit dépasser
+     * le temps d'un chargement depuis la base, pour qu'un lecteur parti avant la purge n'y remette pas
+     * l'ancienne valeur.
+     */
+    private Duration tombstoneTtl = Duration.ofSeconds(30);
+
+    private String keyPrefix = "tickets:";
+
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Invalidation {
+
+        /** Délai de regroupement des clés invalidées avant publication. */
+        private Duration flushInterval = Duration.ofMillis(50);
+
+        /** Lot vide publié en l'absence d'écriture : la perte du dernier lot est détectée sous ce délai. */
+        private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+        private int maxBatchSize = 500;
+
+        /**
+         * Silence au-delà duquel un émetteur est oublié ; son lot suivant servira de nouvelle référence.
+         * Bien plus long que le battement, pour qu'une coupure RabbitMQ soit encore vue comme un trou.
+         */
+        private Duration originExpiry = Duration.ofMinutes(10);
+    }
+}
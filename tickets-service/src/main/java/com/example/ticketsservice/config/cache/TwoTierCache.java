@@ -0,0 +1,243 @@
+package com.example.ticketsservice.config.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache local Caffeine devant un cache Redis partagé, puis la base.
+ * Les deux niveaux gardent la forme JSON : chaque lecture renvoie une instance neuve, qu'un appelant
+ * peut modifier sans corrompre le cache. Une panne Redis dégrade en lecture directe, jamais en erreur.
+ *
+ * Chaque entrée porte la version de sa valeur (@Version) et une écriture n'écrase jamais une version plus
+ * récente : un lecteur qui a chargé la ligne avant le commit d'un écrivain ne peut pas la remettre en cache
+ * après lui. Une purge, dont la version suivante est inconnue (UPDATE en masse, suppression), pose un
+ * marqueur qui refuse toute écriture pendant tombstoneTtl ; les lectures vont alors en base.
+ */
+public class TwoTierCache<V> implements LocalCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private static final String TOMBSTONE = "-";
+
+    // Valeur Redis "version:json" ; refus si la clé porte une version plus récente ou le marqueur de purge
+    private static final RedisScript<Long> PUT_IF_NOT_OLDER = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current then
+                if current == ARGV[4] then
+                    return 0
+                end
+                local separator = string.find(current, ':', 1, true)
+                local version = separator and tonumber(string.sub(current, 1, separator - 1))
+                if version and version > tonumber(ARGV[1]) then
+                    return 0
+                end
+            end
+            redis.call('SET', KEYS[1], ARGV[1] .. ':' .. ARGV[2], 'PX', ARGV[3])
+            return 1
+            """, Long.class);
+
+    private final String name;
+    private final Class<V> type;
+    private final ToLongFunction<V> versionOf;
+    private final Cache<String, Entry> local;
+    private final StringRedisTemplate redis;
+    private final ObjectMapper objectMapper;
+    private final TicketCacheProperties properties;
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+    private final Counter redisErrors;
+
+    private volatile long redisSuspendedUntil;
+
+    public TwoTierCache(String name, Class<V> type, ToLongFunction<V> versionOf, StringRedisTemplate redis,
+                        ObjectMapper objectMapper, TicketCacheProperties properties, MeterRegistry registry) {
+        this.name = name;
+        this.type = type;
+        this.versionOf = versionOf;
+        this.redis = redis;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getLocalTtl())
+                .maximumSize(properties.getLocalMaximumSize())
+                .build();
+        this.localHits = requests(registry, "local", "hit");
+        this.redisHits = requests(registry, "redis", "hit");
+        this.misses = requests(registry, "redis", "miss");
+        this.redisErrors = Counter.builder("tickets.cache.redis.errors")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("tickets.cache.hit.ratio", this, TwoTierCache::hitRatio)
+                .description("Part des lectures servies par le cache (local ou Redis)")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    public Optional<V> get(String key, Supplier<Optional<V>> loader) {
+        Entry entry = local.getIfPresent(key);
+        if (entry != null) {
+            localHits.increment();
+            return Optional.of(read(entry.json()));
+        }
+        entry = Entry.parse(redisGet(key));
+        if (entry != null) {
+            redisHits.increment();
+            putLocal(key, entry);
+            return Optional.of(read(entry.json()));
+        }
+        misses.increment();
+        Optional<V> loaded = loader.get();
+        loaded.ifPresent(value -> put(key, value));
+        return loaded;
+    }
+
+    /**
+     * Écrit la valeur sauf si le cache en porte une version plus récente ; le niveau local ne suit
+     * que les écritures acceptées par Redis.
+     */
+    public void put(String key, V value) {
+        Entry entry;
+        try {
+            entry = new Entry(versionOf.applyAsLong(value), objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            log.warn("Cache {} : sérialisation impossible pour {}: {}", name, key, e.getMessage());
+            evict(key);
+            return;
+        }
+        if (!redisAvailable()) {
+            putLocal(key, entry);
+            return;
+        }
+        try {
+            Long stored = redis.execute(PUT_IF_NOT_OLDER, List.of(redisKey(key)), String.valueOf(entry.version()),
+                    entry.json(), String.valueOf(properties.getRedisTtl().toMillis()), TOMBSTONE);
+            if (Long.valueOf(1).equals(stored)) {
+                putLocal(key, entry);
+            } else {
+                log.debug("Cache {} : version {} de {} plus ancienne que l'entrée en place, ignorée", name, entry.version(), key);
+                local.invalidate(key);
+            }
+        } catch (RuntimeException e) {
+            redisFailed(e);
+            putLocal(key, entry);
+        }
+    }
+
+    public void evict(String key) {
+        local.invalidate(key);
+        if (redisAvailable()) {
+            try {
+                redis.opsForValue().set(redisKey(key), TOMBSTONE, properties.getTombstoneTtl());
+            } catch (RuntimeException e) {
+                redisFailed(e);
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /** Purge le seul niveau local : Redis est partagé et déjà à jour chez l'émetteur. */
+    @Override
+    public void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    @Override
+    public void clearLocal() {
+        local.invalidateAll();
+    }
+
+    // Deux écritures concurrentes sur le même réplica : la version la plus récente reste
+    private void putLocal(String key, Entry entry) {
+        local.asMap().merge(key, entry, (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+
+    private String redisGet(String key) {
+        if (!redisAvailable()) {
+            return null;
+        }
+        try {
+            return redis.opsForValue().get(redisKey(key));
+        } catch (RuntimeException e) {
+            redisFailed(e);
+            return null;
+        }
+    }
+
+    private V read(String json) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Entrée de cache " + name + " illisible", e);
+        }
+    }
+
+    private boolean redisAvailable() {
+        return redisSuspendedUntil == 0 || System.nanoTime() - redisSuspendedUntil > 0;
+    }
+
+    private void redisFailed(RuntimeException e) {
+        redisErrors.increment();
+        Duration backoff = properties.getRedisErrorBackoff();
+        redisSuspendedUntil = System.nanoTime() + backoff.toNanos();
+        log.warn("Cache {} : Redis indisponible, lectures directes pendant {}: {}", name, backoff, e.getMessage());
+    }
+
+    private String redisKey(String key) {
+        return properties.getKeyPrefix() + name + ":" + key;
+    }
+
+    private double hitRatio() {
+        double hits = localHits.count() + redisHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private record Entry(long version, String json) {
+
+        /** Entrée Redis "version:json" ; le marqueur de purge et l'ancien format sans version valent un échec. */
+        static Entry parse(String stored) {
+            int separator = stored != null ? stored.indexOf(':') : -1;
+            if (separator <= 0) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(stored, 0, separator, 10), stored.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private Counter requests(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("tickets.cache.gets")
+                .description("Lectures du cache par niveau")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.ticketsservice.config.datasource;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,37 @@
+package com.example.ticketsservice.config.datasource;
+
+import java.util.function.BooleanSupplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Envoie les transactions {@code @Transactional(readOnly = true)} vers le réplica tant qu'il est à jour,
+ * et tout le reste vers le primaire. À placer derrière un LazyConnectionDataSourceProxy pour que
+ * l'attribut readOnly soit connu au moment où la connexion est réellement ouverte.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final BooleanSupplier replicaAvailable;
+
+    public ReadWriteRoutingDataSource(BooleanSupplier replicaAvailable) {
+        this.replicaAvailable = replicaAvailable;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRole();
+    }
+
+    DataSourceRole currentRole() {
+        if (ReplicaRouting.isPrimaryForced()) {
+            return DataSourceRole.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && replicaAvailable.getAsBoolean()) {
+            return DataSourceRole.REPLICA;
+        }
+        return DataSourceRole.PRIMARY;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ticketsservice.config.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Garantit la lecture de ses propres écritures : un utilisateur qui vient d'acheter, de transférer
+ * ou de demander un remboursement relit sur le primaire pendant la fenêtre configurée,
+ * le temps que le réplica rattrape l'écriture.
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private final long windowNanos;
+    private final Map<Long, Long> lastWriteByUser = new ConcurrentHashMap<>();
+
+    public ReadYourWritesGuard(@Value("${tickets.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId != null) {
+            lastWriteByUser.put(userId, System.nanoTime());
+        }
+    }
+
+    public boolean mustReadPrimary(Long userId) {
+        Long lastWrite = userId != null ? lastWriteByUser.get(userId) : null;
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    /**
+     * Exécute une lecture pour un utilisateur, sur le primaire s'il a écrit récemment.
+     */
+    public <T> T readFor(Long userId, Supplier<T> query) {
+        if (!mustReadPrimary(userId)) {
+            return query.get();
+        }
+        try (var ignored = ReplicaRouting.forcePrimary()) {
+            return query.get();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.datasource.replica.read-your-writes-window:5s}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWriteByUser.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+}
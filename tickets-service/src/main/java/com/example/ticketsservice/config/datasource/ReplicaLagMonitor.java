@@ -0,0 +1,71 @@
+package com.example.ticketsservice.config.datasource;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Mesure périodiquement le retard du réplica MySQL (Seconds_Behind_Source).
+ * Au-delà du retard toléré, ou si la réplication est arrêtée, les lectures repartent sur le primaire.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replicaJdbc;
+    private final long maxLagSeconds;
+    private volatile long lagSeconds = -1;
+    private volatile boolean available;
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this(replica, maxLag, meterRegistry, Tags.empty());
+    }
+
+    public ReplicaLagMonitor(DataSource replica, Duration maxLag, MeterRegistry meterRegistry, Tags tags) {
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.maxLagSeconds = maxLag.toSeconds();
+        Gauge.builder("tickets.datasource.replica.lag", () -> lagSeconds)
+                .description("Retard du réplica MySQL en secondes (-1 si inconnu)")
+                .baseUnit("seconds")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("tickets.datasource.replica.available", () -> available ? 1 : 0)
+                .description("1 si les lectures sont routées vers le réplica")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.datasource.replica.lag-check-interval:5s}", initialDelay = 0)
+    public void refresh() {
+        boolean wasAvailable = available;
+        try {
+            List<Long> lags = replicaJdbc.query("SHOW REPLICA STATUS",
+                    (rs, rowNum) -> rs.getObject("Seconds_Behind_Source") == null ? null : rs.getLong("Seconds_Behind_Source"));
+            Long lag = lags.isEmpty() ? null : lags.get(0);
+            lagSeconds = lag != null ? lag : -1;
+            available = lag != null && lag <= maxLagSeconds;
+        } catch (Exception e) {
+            lagSeconds = -1;
+            available = false;
+            log.warn("Impossible de lire l'état du réplica: {}", e.getMessage());
+        }
+        if (wasAvailable != available) {
+            log.warn("Lectures du réplica {} (retard: {}s, toléré: {}s)",
+                    available ? "réactivées" : "suspendues", lagSeconds, maxLagSeconds);
+        }
+    }
+}
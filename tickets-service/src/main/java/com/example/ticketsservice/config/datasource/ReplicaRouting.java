@@ -0,0 +1,45 @@
+package com.example.ticketsservice.config.datasource;
+
+/**
+ * Forçage ponctuel du primaire pour le thread courant.
+ * Le drapeau doit être posé avant la première requête de la transaction : la connexion
+ * physique n'est choisie qu'à ce moment-là (LazyConnectionDataSourceProxy).
+ *
+ * <pre>
+ * try (var ignored = ReplicaRouting.forcePrimary()) {
+ *     return ticketRepository.findById(id);
+ * }
+ * </pre>
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Integer> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static Scope forcePrimary() {
+        Integer depth = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(depth == null ? 1 : depth + 1);
+        return ReplicaRouting::release;
+    }
+
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+
+    private static void release() {
+        Integer depth = PRIMARY_FORCED.get();
+        if (depth == null || depth <= 1) {
+            PRIMARY_FORCED.remove();
+        } else {
+            PRIMARY_FORCED.set(depth - 1);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.ticketsservice.config.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Filtre Logback qui ne laisse passer qu'une fraction des événements des catégories bavardes
+ * (typiquement {@code org.hibernate.SQL}) avant qu'ils n'entrent dans la file de l'appender asynchrone.
+ */
+public class CategorySamplingFilter extends Filter<ILoggingEvent> {
+
+    private final List<String> categories = new ArrayList<>();
+    private double rate = 0.01;
+
+    public void addCategory(String category) {
+        categories.add(category);
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        String loggerName = event.getLoggerName();
+        for (String category : categories) {
+            if (loggerName.startsWith(category)) {
+                return ThreadLocalRandom.current().nextDouble() < rate ? FilterReply.NEUTRAL : FilterReply.DENY;
+            }
+        }
+        return FilterReply.NEUTRAL;
+    }
+}
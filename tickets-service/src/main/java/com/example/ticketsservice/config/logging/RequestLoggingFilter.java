@@ -0,0 +1,84 @@
+package com.example.ticketsservice.config.logging;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pose un identifiant de corrélation dans le MDC et écrit une ligne structurée par requête.
+ * Les lignes sont échantillonnées par endpoint ; les erreurs et les requêtes lentes sont toujours conservées.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    public static final String CORRELATION_HEADER = "X-Correlation-Id";
+    public static final String MDC_CORRELATION_ID = "correlationId";
+    public static final String MDC_USER_ID = "userId";
+
+    private final RequestLoggingProperties properties;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String correlationId = request.getHeader(CORRELATION_HEADER);
+        if (correlationId == null || correlationId.isBlank()) {
+            correlationId = UUID.randomUUID().toString();
+        }
+        MDC.put(MDC_CORRELATION_ID, correlationId);
+        String userId = request.getHeader("X-User-Id");
+        if (userId != null) {
+            MDC.put(MDC_USER_ID, userId);
+        }
+        response.setHeader(CORRELATION_HEADER, correlationId);
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long durationMs = (System.nanoTime() - start) / 1_000_000;
+            if (properties.isEnabled()) {
+                logRequest(request, response.getStatus(), durationMs);
+            }
+            MDC.remove(MDC_CORRELATION_ID);
+            MDC.remove(MDC_USER_ID);
+        }
+    }
+
+    private void logRequest(HttpServletRequest request, int status, long durationMs) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "UNMAPPED";
+
+        boolean forced = status >= 500 || durationMs >= properties.getSlowThresholdMs();
+        if (!forced && !sampled(properties.sampleRateFor(route))) {
+            return;
+        }
+        log.info("http_request method={} route={} status={} duration_ms={}",
+                request.getMethod(), route, status, durationMs);
+    }
+
+    private static boolean sampled(double rate) {
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ticketsservice.config.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Réglages du journal des requêtes HTTP.
+ * Les taux par endpoint sont indexés par motif de route, par exemple
+ * {@code logging.request.sample-rates[/api/tickets/validate-qr/{qrCode}]=0.05}.
+ */
+@Data
+@ConfigurationProperties(prefix = "logging.request")
+public class RequestLoggingProperties {
+
+    private boolean enabled = true;
+
+    /** Taux d'échantillonnage appliqué aux endpoints sans réglage dédié (0.0 à 1.0). */
+    private double defaultSampleRate = 1.0;
+
+    private Map<String, Double> sampleRates = new HashMap<>();
+
+    /** Les requêtes plus lentes que ce seuil sont toujours journalisées. */
+    private long slowThresholdMs = 1000;
+
+    public double sampleRateFor(String pattern) {
+        return sampleRates.getOrDefault(pattern, defaultSampleRate);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ticketsservice.config.sharding;
+
+/**
+ * Shard du thread courant. Comme pour le routage réplica, il doit être positionné avant la
+ * première requête de la transaction : c'est à ce moment que la connexion physique est choisie.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Scope use(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /** Shard courant, ou 0 (base historique) si aucun n'a été positionné. */
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ticketsservice.config.sharding;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Identifiants globalement uniques qui portent leur shard.
+ *
+ * <pre>
+ * | 40 bits : ms depuis 2025-01-01 | 5 bits : shard | 4 bits : worker | 4 bits : séquence |
+ * </pre>
+ *
+ * Les 53 bits restent exacts en JavaScript (Number.MAX_SAFE_INTEGER). Les identifiants
+ * AUTO_INCREMENT d'avant le sharding sont tous inférieurs à {@link #LEGACY_ID_CEILING} et
+ * appartiennent au shard 0, la base historique.
+ */
+public final class ShardIdGenerator {
+
+    public static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    public static final int SHARD_BITS = 5;
+    public static final int WORKER_BITS = 4;
+    public static final int SEQUENCE_BITS = 4;
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+    public static final int MAX_WORKERS = 1 << WORKER_BITS;
+    public static final long LEGACY_ID_CEILING = 1L << 40;
+
+    private static final int WORKER_SHIFT = SEQUENCE_BITS;
+    private static final int SHARD_SHIFT = WORKER_SHIFT + WORKER_BITS;
+    private static final int TIME_SHIFT = SHARD_SHIFT + SHARD_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static volatile ShardIdGenerator installed = new ShardIdGenerator(0);
+
+    private final int workerId;
+    /** (ms << SEQUENCE_BITS) | séquence du dernier identifiant émis. */
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    public ShardIdGenerator(int workerId) {
+        if (workerId < 0 || workerId >= MAX_WORKERS) {
+            throw new IllegalArgumentException("worker-id doit être compris entre 0 et " + (MAX_WORKERS - 1));
+        }
+        this.workerId = workerId;
+    }
+
+    /**
+     * Le générateur Hibernate n'est pas un bean Spring : la configuration installe ici l'instance du nœud.
+     */
+    public static void install(ShardIdGenerator generator) {
+        installed = generator;
+    }
+
+    public static ShardIdGenerator installed() {
+        return installed;
+    }
+
+    public long nextId(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard hors limites: " + shard);
+        }
+        while (true) {
+            long previous = lastTimeAndSequence.get();
+            long previousTime = previous >>> SEQUENCE_BITS;
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+
+            long time;
+            long sequence;
+            if (now > previousTime) {
+                time = now;
+                sequence = 0;
+            } else {
+                // Même milliseconde (ou horloge qui recule) : on reste sur le temps précédent
+                time = previousTime;
+                sequence = (previous & SEQUENCE_MASK) + 1;
+                if (sequence > SEQUENCE_MASK) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+            }
+
+            if (lastTimeAndSequence.compareAndSet(previous, (time << SEQUENCE_BITS) | sequence)) {
+                return (time << TIME_SHIFT)
+                        | ((long) shard << SHARD_SHIFT)
+                        | ((long) workerId << WORKER_SHIFT)
+                        | sequence;
+            }
+        }
+    }
+
+    /**
+     * Instant de création porté par l'identifiant ; vide pour un identifiant d'avant le sharding.
+     */
+    public static Optional<Instant> createdAt(long id) {
+        if (id < LEGACY_ID_CEILING) {
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochMilli(EPOCH_MILLIS + (id >>> TIME_SHIFT)));
+    }
+
+    public static int shardOf(long id) {
+        if (id < LEGACY_ID_CEILING) {
+            return 0;
+        }
+        return (int) ((id >>> SHARD_SHIFT) & (MAX_SHARDS - 1));
+    }
+}
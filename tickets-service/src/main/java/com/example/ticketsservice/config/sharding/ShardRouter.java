@@ -0,0 +1,77 @@
+package com.example.ticketsservice.config.sharding;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.cloud.CloudPlatform;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.example.ticketsservice.exception.TicketNotFoundException;
+
+/**
+ * Calcule le shard d'un utilisateur ou d'un identifiant. Un ticket vit toujours sur le shard
+ * de son propriétaire ; l'identifiant du ticket porte donc aussi ce shard.
+ */
+@Component
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(ShardingProperties properties) {
+        this(properties, null);
+    }
+
+    /**
+     * Les identifiants sont générés par l'application même sans sharding : deux réplicas avec le même
+     * worker-id émettraient les mêmes IDs dans la même milliseconde. Sur Kubernetes, où tourne plus
+     * d'une instance, un worker-id absent empêche donc le démarrage.
+     */
+    @Autowired
+    public ShardRouter(ShardingProperties properties, Environment environment) {
+        this.shardCount = properties.shardCount();
+        if (shardCount > ShardIdGenerator.MAX_SHARDS) {
+            throw new IllegalStateException("Au plus " + ShardIdGenerator.MAX_SHARDS + " shards sont supportés");
+        }
+        Integer workerId = properties.getWorkerId();
+        if (workerId == null && environment != null && CloudPlatform.KUBERNETES.isActive(environment)) {
+            throw new IllegalStateException(
+                    "tickets.sharding.worker-id (TICKETS_WORKER_ID) est obligatoire sur Kubernetes : un par pod");
+        }
+        ShardIdGenerator.install(new ShardIdGenerator(workerId != null ? workerId : 0));
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardForUser(Long userId) {
+        return (int) Math.floorMod(userId, (long) shardCount);
+    }
+
+    /**
+     * Un identifiant qui désigne un shard non déclaré n'a jamais été émis par ce déploiement
+     * (identifiant forgé ou d'un autre environnement) : il n'existe nulle part.
+     */
+    public int shardForId(Long id) {
+        int shard = ShardIdGenerator.shardOf(id);
+        if (shard >= shardCount) {
+            throw new TicketNotFoundException("Identifiant inconnu: " + id);
+        }
+        return shard;
+    }
+
+    public boolean routes(Long id) {
+        return ShardIdGenerator.shardOf(id) < shardCount;
+    }
+
+    public ShardContext.Scope forUser(Long userId) {
+        return ShardContext.use(shardForUser(userId));
+    }
+
+    public ShardContext.Scope forId(Long id) {
+        return ShardContext.use(shardForId(id));
+    }
+
+    public long nextId(int shard) {
+        return ShardIdGenerator.installed().nextId(shard);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ticketsservice.config.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Choisit la base du shard courant ({@link ShardContext}). Comme pour la séparation lecture/écriture,
+ * elle doit être placée derrière un LazyConnectionDataSourceProxy.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ticketsservice.config.sharding;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Identifiant généré par {@link ShardIdGenerator} pour le shard courant ({@link ShardContext}).
+ */
+@IdGeneratorType(ShardedIdentifierGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface ShardedId {
+}
@@ -0,0 +1,123 @@
+package com.example.ticketsservice.config.sharding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Exécution sur un shard donné ou sur tous les shards.
+ * Avec un seul shard, tout s'exécute dans le thread (et la transaction) de l'appelant.
+ */
+@Component
+public class ShardedQueries {
+
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate newTransaction;
+    private final Duration scatterTimeout;
+    private final ExecutorService executor;
+
+    public ShardedQueries(ShardRouter shardRouter,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${tickets.sharding.scatter-timeout:5s}") Duration scatterTimeout) {
+        this.shardRouter = shardRouter;
+        this.scatterTimeout = scatterTimeout;
+        if (shardRouter.shardCount() > 1) {
+            this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+            this.readOnlyTransaction.setReadOnly(true);
+            this.newTransaction = new TransactionTemplate(transactionManager);
+            this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(shardRouter.shardCount() * 2, runnable -> {
+                Thread thread = new Thread(runnable, "tickets-shard-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.readOnlyTransaction = null;
+            this.newTransaction = null;
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Exécute la requête sur chaque shard en parallèle, chacune dans sa transaction en lecture seule,
+     * et renvoie les résultats dans l'ordre des shards.
+     */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        int shardCount = shardRouter.shardCount();
+        if (shardCount == 1) {
+            try (var ignored = ShardContext.use(0)) {
+                return List.of(query.apply(0));
+            }
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try (var ignored = ShardContext.use(target)) {
+                    return readOnlyTransaction.execute(status -> query.apply(target));
+                }
+            }, executor));
+        }
+
+        long deadline = System.nanoTime() + scatterTimeout.toNanos();
+        List<T> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            try {
+                results.add(futures.get(shard).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw new IllegalStateException("Le shard " + shard + " n'a pas répondu dans les temps", e);
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Échec de la requête sur le shard " + shard, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Requête multi-shards interrompue", e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Exécute le travail sur un autre shard dans une transaction indépendante, validée immédiatement.
+     * La transaction en cours de l'appelant est suspendue le temps de l'appel.
+     */
+    public <T> T inShard(int shard, Supplier<T> work) {
+        try (var ignored = ShardContext.use(shard)) {
+            if (newTransaction == null) {
+                return work.get();
+            }
+            return newTransaction.execute(status -> work.get());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
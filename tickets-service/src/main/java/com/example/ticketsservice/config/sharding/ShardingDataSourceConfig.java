@@ -0,0 +1,113 @@
+package com.example.ticketsservice.config.sharding;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.example.ticketsservice.config.datasource.DataSourceRole;
+import com.example.ticketsservice.config.datasource.ReadWriteRoutingDataSource;
+import com.example.ticketsservice.config.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Une base MySQL par shard, déclarées dans {@code tickets.sharding.shards[n].*}.
+ * Chaque shard peut avoir son réplica ; le routage lecture/écriture s'applique alors à l'intérieur du shard.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tickets.sharding", name = "enabled", havingValue = "true")
+public class ShardingDataSourceConfig {
+
+    private final List<ReplicaLagMonitor> lagMonitors = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardingProperties properties,
+                                 @Value("${spring.datasource.username}") String defaultUsername,
+                                 @Value("${spring.datasource.password}") String defaultPassword,
+                                 @Value("${tickets.datasource.replica.max-lag:5s}") Duration maxLag,
+                                 MeterRegistry meterRegistry) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("tickets.sharding.enabled=true mais aucun shard n'est déclaré");
+        }
+
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < properties.getShards().size(); shard++) {
+            ShardingProperties.Shard config = properties.getShards().get(shard);
+            String username = config.getUsername() != null ? config.getUsername() : defaultUsername;
+            String password = config.getPassword() != null ? config.getPassword() : defaultPassword;
+
+            HikariDataSource primary = pool("tickets-shard" + shard, config.getUrl(), username, password, config.getMaximumPoolSize());
+            if (config.getReplicaUrl() == null || config.getReplicaUrl().isBlank()) {
+                targets.put(shard, primary);
+                continue;
+            }
+
+            HikariDataSource replica = pool("tickets-shard" + shard + "-replica", config.getReplicaUrl(), username, password, config.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica, maxLag, meterRegistry, Tags.of("shard", String.valueOf(shard)));
+            lagMonitors.add(lagMonitor);
+
+            ReadWriteRoutingDataSource readWrite = new ReadWriteRoutingDataSource(lagMonitor::isAvailable);
+            readWrite.setTargetDataSources(Map.of(
+                    DataSourceRole.PRIMARY, primary,
+                    DataSourceRole.REPLICA, replica));
+            readWrite.setDefaultTargetDataSource(primary);
+            readWrite.afterPropertiesSet();
+            targets.put(shard, readWrite);
+        }
+
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        // Hors contexte (démarrage Hibernate, health checks), la base historique sert de défaut
+        routing.setDefaultTargetDataSource(targets.get(0));
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Flyway ne voit que la source de données routée : chaque shard est migré à son tour.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigration(ShardingProperties properties) {
+        return flyway -> {
+            for (int shard = 0; shard < properties.getShards().size(); shard++) {
+                try (var ignored = ShardContext.use(shard)) {
+                    flyway.migrate();
+                }
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.datasource.replica.lag-check-interval:5s}", initialDelay = 0)
+    public void refreshReplicaLag() {
+        lagMonitors.forEach(ReplicaLagMonitor::refresh);
+    }
+
+    private static HikariDataSource pool(String name, String url, String username, String password, int maximumPoolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setConnectionTimeout(5000);
+        return dataSource;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ticketsservice.config.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Shards MySQL de tickets-service. Le shard 0 doit être la base historique :
+ * les identifiants antérieurs au sharding y sont rattachés.
+ */
+@Data
+@ConfigurationProperties(prefix = "tickets.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Identifiant du nœud (0 à 15), distinct pour chaque réplica de tickets-service : sur Kubernetes,
+     * l'index du pod du StatefulSet. Absent, il vaut 0, sauf sur Kubernetes où le démarrage échoue.
+     */
+    private Integer workerId;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    public int shardCount() {
+        return enabled ? Math.max(1, shards.size()) : 1;
+    }
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 20;
+        /** Réplica en lecture optionnel, routé comme tickets.datasource.replica. */
+        private String replicaUrl;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.ticketsservice.config.websocket;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.broker.AbstractSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+
+/**
+ * Registre d'abonnements du broker simple, indexé par destination exacte.
+ * DefaultSubscriptionRegistry ne garde en cache que 1024 destinations et parcourt tous les abonnements
+ * à chaque défaut de cache : avec une file par session (/queue/notifications-user{session}), chaque envoi
+ * à un utilisateur devenait un parcours de toutes les sessions connectées. Ici, une destination exacte
+ * se résout en une lecture de map ; seuls les abonnements à motif (rares) passent par le registre par défaut.
+ * Les en-têtes selector ne sont pas évalués sur les destinations exactes.
+ */
+public class DestinationIndexedSubscriptionRegistry extends AbstractSubscriptionRegistry {
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final DefaultSubscriptionRegistry patterns = new DefaultSubscriptionRegistry();
+    private final AtomicInteger patternSubscriptions = new AtomicInteger();
+
+    // destination -> session -> abonnements
+    private final Map<String, Map<String, Set<String>>> byDestination = new ConcurrentHashMap<>();
+    // session -> abonnement -> destination
+    private final Map<String, Map<String, String>> bySession = new ConcurrentHashMap<>();
+
+    @Override
+    protected void addSubscriptionInternal(String sessionId, String subscriptionId, String destination, Message<?> message) {
+        bySession.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+        if (pathMatcher.isPattern(destination)) {
+            patterns.registerSubscription(message);
+            patternSubscriptions.incrementAndGet();
+            return;
+        }
+        byDestination.compute(destination, (key, sessions) -> {
+            Map<String, Set<String>> target = sessions != null ? sessions : new ConcurrentHashMap<>();
+            target.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(subscriptionId);
+            return target;
+        });
+    }
+
+    @Override
+    protected void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
+        Map<String, String> subscriptions = bySession.get(sessionId);
+        String destination = subscriptions != null ? subscriptions.remove(subscriptionId) : null;
+        if (destination == null) {
+            return;
+        }
+        if (pathMatcher.isPattern(destination)) {
+            patterns.unregisterSubscription(message);
+            patternSubscriptions.decrementAndGet();
+        } else {
+            removeFromDestination(destination, sessionId, subscriptionId);
+        }
+    }
+
+    @Override
+    public void unregisterAllSubscriptions(String sessionId) {
+        Map<String, String> subscriptions = bySession.remove(sessionId);
+        if (subscriptions == null) {
+            return;
+        }
+        boolean hadPattern = false;
+        for (Map.Entry<String, String> subscription : subscriptions.entrySet()) {
+            if (pathMatcher.isPattern(subscription.getValue())) {
+                hadPattern = true;
+                patternSubscriptions.decrementAndGet();
+            } else {
+                removeFromDestination(subscription.getValue(), sessionId, subscription.getKey());
+            }
+        }
+        if (hadPattern) {
+            patterns.unregisterAllSubscriptions(sessionId);
+        }
+    }
+
+    @Override
+    protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+        MultiValueMap<String, String> result = new LinkedMultiValueMap<>();
+        Map<String, Set<String>> sessions = byDestination.get(destination);
+        if (sessions != null) {
+            sessions.forEach((sessionId, subscriptionIds) -> result.addAll(sessionId, new ArrayList<>(subscriptionIds)));
+        }
+        if (patternSubscriptions.get() > 0) {
+            patterns.findSubscriptions(message).forEach(result::addAll);
+        }
+        return result;
+    }
+
+    private void removeFromDestination(String destination, String sessionId, String subscriptionId) {
+        byDestination.computeIfPresent(destination, (key, sessions) -> {
+            sessions.computeIfPresent(sessionId, (id, subscriptionIds) -> {
+                subscriptionIds.remove(subscriptionId);
+                return subscriptionIds.isEmpty() ? null : subscriptionIds;
+            });
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+}
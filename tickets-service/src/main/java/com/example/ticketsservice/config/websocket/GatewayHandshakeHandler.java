@@ -0,0 +1,27 @@
+package com.example.ticketsservice.config.websocket;
+
+import java.security.Principal;
+import java.util.Map;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+/**
+ * Identité de la session WebSocket : l'utilisateur authentifié par la gateway (en-tête X-User-Id posé
+ * après validation du JWT). Le nom du principal est l'ID utilisateur, celui que NotificationController
+ * passe à convertAndSendToUser. Sans en-tête, la session est anonyme et ne reçoit que les diffusions.
+ */
+public class GatewayHandshakeHandler extends DefaultHandshakeHandler {
+
+    private record UserPrincipal(String getName) implements Principal {}
+
+    @Override
+    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String userId = request.getHeaders().getFirst("X-User-Id");
+        if (userId == null || userId.isBlank() || !userId.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return new UserPrincipal(userId);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.ticketsservice.config.websocket;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.ticketsservice.controller.NotificationController;
+import com.example.ticketsservice.dto.NotificationMessage;
+import com.example.ticketsservice.service.TicketMetrics;
+
+/**
+ * Étage de regroupement devant SimpMessagingTemplate pour les notifications personnelles.
+ * Chaque utilisateur a son tampon : il part après {@code window} sans nouvelle notification, au plus tard
+ * {@code maxDelay} après la première, ou dès qu'il atteint {@code maxBatchSize}. Une notification seule
+ * part telle quelle ; plusieurs partent dans une trame BATCH dont {@code data} porte la liste, dans l'ordre,
+ * et dont {@code seq} est celui de la dernière.
+ */
+@Component
+public class NotificationCoalescer {
+
+    public static final String BATCH_TYPE = "BATCH";
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationCoalescer.class);
+
+    private static final class Pending {
+
+        private final long firstAt;
+        private long lastAt;
+        private final List<NotificationMessage> notifications = new ArrayList<>();
+
+        private Pending(long now) {
+            this.firstAt = now;
+        }
+    }
+
+    private record Ready(Long userId, List<NotificationMessage> notifications) {}
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationCoalescingProperties properties;
+    private final TicketMetrics ticketMetrics;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    public NotificationCoalescer(SimpMessagingTemplate messagingTemplate, NotificationCoalescingProperties properties,
+                                 TicketMetrics ticketMetrics) {
+        this.messagingTemplate = messagingTemplate;
+        this.properties = properties;
+        this.ticketMetrics = ticketMetrics;
+    }
+
+    public void submit(Long userId, NotificationMessage notification) {
+        if (!properties.isEnabled()) {
+            send(userId, List.of(notification));
+            return;
+        }
+        long now = System.nanoTime();
+        List<Ready> full = new ArrayList<>(1);
+        pending.compute(userId, (id, buffer) -> {
+            Pending target = buffer != null ? buffer : new Pending(now);
+            target.lastAt = now;
+            target.notifications.add(notification);
+            if (target.notifications.size() >= properties.getMaxBatchSize()) {
+                full.add(new Ready(id, target.notifications));
+                return null;
+            }
+            return target;
+        });
+        full.forEach(ready -> send(ready.userId(), ready.notifications()));
+    }
+
+    @Scheduled(fixedDelayString = "${tickets.websocket.coalescing.flush-interval:10ms}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long window = properties.getWindow().toNanos();
+        long maxDelay = properties.getMaxDelay().toNanos();
+        List<Ready> due = new ArrayList<>();
+        for (Long userId : pending.keySet()) {
+            pending.computeIfPresent(userId, (id, buffer) -> {
+                if (now - buffer.lastAt < window && now - buffer.firstAt < maxDelay) {
+                    return buffer;
+                }
+                due.add(new Ready(id, buffer.notifications));
+                return null;
+            });
+        }
+        due.forEach(ready -> send(ready.userId(), ready.notifications()));
+    }
+
+    private void send(Long userId, List<NotificationMessage> notifications) {
+        NotificationMessage frame = notifications.size() == 1 ? notifications.get(0) : batch(userId, notifications);
+        try {
+            ticketMetrics.recordWebSocketSend("user",
+                    () -> messagingTemplate.convertAndSendToUser(String.valueOf(userId), NotificationController.USER_QUEUE, frame));
+            ticketMetrics.recordNotificationsPerFrame(notifications.size());
+        } catch (MessagingException e) {
+            log.error("Échec de l'envoi de {} notification(s) à l'utilisateur {}: {}", notifications.size(), userId, e.getMessage());
+        }
+    }
+
+    private static NotificationMessage batch(Long userId, List<NotificationMessage> notifications) {
+        return NotificationMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .type(BATCH_TYPE)
+                .title(notifications.size() + " nouvelles notifications")
+                .message(notifications.get(notifications.size() - 1).getMessage())
+                .userId(userId)
+                .timestamp(LocalDateTime.now())
+                .read(false)
+                .seq(notifications.get(notifications.size() - 1).getSeq())
+                .data(List.copyOf(notifications))
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ticketsservice.config.websocket;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Regroupement des notifications personnelles : les envois rapprochés vers un même utilisateur
+ * (achat groupé, traitement de remboursements en masse) partent en une seule trame STOMP.
+ */
+@Data
+@ConfigurationProperties(prefix = "tickets.websocket.coalescing")
+public class NotificationCoalescingProperties {
+
+    private boolean enabled = true;
+
+    /** Silence après la dernière notification d'un utilisateur avant l'envoi de son lot. */
+    private Duration window = Duration.ofMillis(50);
+
+    /** Attente maximale d'une notification, même si les envois vers l'utilisateur continuent. */
+    private Duration maxDelay = Duration.ofMillis(250);
+
+    /** Un lot plein part sans attendre la fin de la fenêtre. */
+    private int maxBatchSize = 50;
+}
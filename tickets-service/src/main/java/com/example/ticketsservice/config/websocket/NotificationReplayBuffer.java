@@ -0,0 +1,153 @@
+package com.example.ticketsservice.config.websocket;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+import com.example.ticketsservice.config.WebSocketBrokerProperties;
+import com.example.ticketsservice.dto.NotificationMessage;
+import com.example.ticketsservice.dto.NotificationReplay;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tampon circulaire des dernières notifications personnelles de chaque utilisateur, pour le rattrapage
+ * après reconnexion (« depuis le numéro N »). Chaque notification reçoit un numéro croissant, partagé par
+ * tous les utilisateurs du réplica et amorcé sur l'horloge au démarrage : un numéro antérieur au démarrage
+ * ou à une perte (tampon plein, utilisateur évincé) donne une réponse incomplète, jamais un trou silencieux.
+ * En mode relais, les notifications d'un utilisateur partent de plusieurs réplicas : la réponse est
+ * toujours marquée incomplète.
+ */
+@Component
+public class NotificationReplayBuffer {
+
+    private static final class Ring {
+
+        // Pas de synchronized : les envois se font sur des threads virtuels quand ils sont activés
+        private final ReentrantLock lock = new ReentrantLock();
+        private final NotificationMessage[] slots;
+        private int next;
+        private int size;
+        // Toute notification de numéro supérieur est encore présente
+        private long floor;
+
+        private Ring(int capacity, long floor) {
+            this.slots = new NotificationMessage[capacity];
+            this.floor = floor;
+        }
+
+        private void add(NotificationMessage notification) {
+            lock.lock();
+            try {
+                NotificationMessage overwritten = slots[next];
+                if (overwritten != null) {
+                    floor = Math.max(floor, overwritten.getSeq());
+                }
+                slots[next] = notification;
+                next = (next + 1) % slots.length;
+                size = Math.min(size + 1, slots.length);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private List<NotificationMessage> after(long afterSeq) {
+            lock.lock();
+            try {
+                List<NotificationMessage> missed = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    NotificationMessage notification = slots[(next - size + i + slots.length) % slots.length];
+                    if (notification.getSeq() > afterSeq) {
+                        missed.add(notification);
+                    }
+                }
+                return missed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long floor() {
+            lock.lock();
+            try {
+                return floor;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long lastSeq() {
+            lock.lock();
+            try {
+                return size == 0 ? floor : slots[(next - 1 + slots.length) % slots.length].getSeq();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private final NotificationReplayProperties properties;
+    private final boolean relayed;
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    // Plus haut numéro perdu avec un tampon évincé : plancher des tampons créés ensuite
+    private final AtomicLong evictedFloor = new AtomicLong(sequence.get());
+    private final Cache<Long, Ring> rings;
+    private final MeterRegistry registry;
+
+    public NotificationReplayBuffer(NotificationReplayProperties properties, WebSocketBrokerProperties brokerProperties,
+                                    MeterRegistry registry) {
+        this.properties = properties;
+        this.relayed = brokerProperties.getMode() == WebSocketBrokerProperties.Mode.RELAY;
+        this.registry = registry;
+        this.rings = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, properties.getMaxEntries() / properties.getPerUserCapacity()))
+                .expireAfterAccess(properties.getIdleTimeout())
+                // Synchrone : le plancher est relevé avant qu'un nouveau tampon puisse être créé
+                .evictionListener((Long userId, Ring ring, RemovalCause cause) -> {
+                    if (ring != null) {
+                        evictedFloor.accumulateAndGet(ring.lastSeq(), Math::max);
+                    }
+                })
+                .build();
+        Gauge.builder("tickets.websocket.replay.users", rings, Cache::estimatedSize)
+                .description("Utilisateurs dont les dernières notifications sont gardées pour le rattrapage")
+                .register(registry);
+    }
+
+    /**
+     * Numérote la notification et la garde pour le rattrapage.
+     */
+    public void record(Long userId, NotificationMessage notification) {
+        notification.setSeq(sequence.incrementAndGet());
+        if (properties.isEnabled()) {
+            // Ajout sous le verrou de l'entrée : une éviction concurrente voit la notification dans lastSeq()
+            rings.asMap().compute(userId, (id, ring) -> {
+                Ring target = ring != null ? ring : new Ring(properties.getPerUserCapacity(), evictedFloor.get());
+                target.add(notification);
+                return target;
+            });
+        }
+    }
+
+    public NotificationReplay since(Long userId, long afterSeq) {
+        Ring ring = properties.isEnabled() ? rings.getIfPresent(userId) : null;
+        NotificationReplay replay;
+        if (ring == null) {
+            long floor = properties.isEnabled() ? evictedFloor.get() : sequence.get();
+            replay = new NotificationReplay(List.of(), Math.max(afterSeq, floor), !relayed && afterSeq >= floor);
+        } else {
+            replay = new NotificationReplay(ring.after(afterSeq), Math.max(afterSeq, ring.lastSeq()),
+                    !relayed && afterSeq >= ring.floor());
+        }
+        registry.counter("tickets.websocket.replay.requests", "outcome", replay.complete() ? "complete" : "incomplete")
+                .increment();
+        return replay;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.ticketsservice.config.websocket;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Dernières notifications de chaque utilisateur, gardées pour les clients qui se reconnectent.
+ * Mémoire bornée : au plus {@code maxEntries} notifications au total, soit maxEntries / perUserCapacity
+ * utilisateurs ; les moins récemment servis sont évincés d'abord.
+ */
+@Data
+@ConfigurationProperties(prefix = "tickets.websocket.replay")
+public class NotificationReplayProperties {
+
+    private boolean enabled = true;
+
+    private int perUserCapacity = 20;
+
+    private long maxEntries = 100_000;
+
+    /** Tampon d'un utilisateur sans nouvelle notification ni relecture pendant ce délai : libéré. */
+    private Duration idleTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,146 @@
+package com.example.ticketsservice.config.websocket;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Trames de chaque session en attente dans le canal sortant (de l'envoi par le broker à l'écriture sur la
+ * socket). Une session qui accumule plus de {@code maxQueuedFrames} trames est fermée (SESSION_NOT_RELIABLE)
+ * et ses trames suivantes abandonnées : un client lent ne retient pas de messages dans le tas. Les limites
+ * de Spring (durée d'envoi, tampon par session) ferment la session avec le même statut, compté ici aussi.
+ */
+public class SlowConsumerGuard implements ExecutorChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowConsumerGuard.class);
+
+    private final int maxQueuedFrames;
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> queued = new ConcurrentHashMap<>();
+
+    private final DistributionSummary queuedPerSession;
+    private final Counter rejectedFrames;
+    private final Counter droppedFrames;
+    private final Counter slowConsumerDisconnects;
+
+    public SlowConsumerGuard(int maxQueuedFrames, MeterRegistry registry) {
+        this.maxQueuedFrames = maxQueuedFrames;
+        this.queuedPerSession = DistributionSummary.builder("tickets.websocket.outbound.queued.per.session")
+                .description("Trames en attente pour la session, relevées à chaque envoi")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue((double) Math.max(maxQueuedFrames, 2))
+                .register(registry);
+        Gauge.builder("tickets.websocket.outbound.queued", queued,
+                        counts -> counts.values().stream().mapToInt(AtomicInteger::get).sum())
+                .description("Trames en attente dans le canal sortant, toutes sessions")
+                .register(registry);
+        this.rejectedFrames = Counter.builder("tickets.websocket.outbound.rejected")
+                .description("Trames refusées par le pool du canal sortant saturé")
+                .register(registry);
+        this.droppedFrames = Counter.builder("tickets.websocket.outbound.dropped")
+                .description("Trames abandonnées pour une session trop lente")
+                .register(registry);
+        this.slowConsumerDisconnects = Counter.builder("tickets.websocket.slow.consumer.disconnects")
+                .description("Sessions fermées pour lenteur (file, tampon ou durée d'envoi)")
+                .register(registry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        AtomicInteger count = counter(message);
+        if (count == null) {
+            return message;
+        }
+        int pending = count.incrementAndGet();
+        if (pending > maxQueuedFrames) {
+            count.decrementAndGet();
+            droppedFrames.increment();
+            disconnect(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()), pending);
+            return null;
+        }
+        queuedPerSession.record(pending);
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Pool saturé : la trame n'atteindra jamais afterMessageHandled
+        if (!sent || ex != null) {
+            rejectedFrames.increment();
+            release(message);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message);
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                queued.put(session.getId(), new AtomicInteger());
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                queued.remove(session.getId());
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    slowConsumerDisconnects.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private AtomicInteger counter(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null ? queued.get(sessionId) : null;
+    }
+
+    private void release(Message<?> message) {
+        AtomicInteger count = counter(message);
+        if (count != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    private void disconnect(String sessionId, int pending) {
+        WebSocketSession session = sessions.remove(sessionId);
+        if (session == null) {
+            return;
+        }
+        log.warn("Session WebSocket {} fermée : {} trames en attente (limite {})", sessionId, pending, maxQueuedFrames);
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Fermeture de la session {} : {}", sessionId, e.getMessage());
+        }
+    }
+}
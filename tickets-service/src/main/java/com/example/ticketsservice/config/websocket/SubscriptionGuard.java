@@ -0,0 +1,45 @@
+package com.example.ticketsservice.config.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import com.example.ticketsservice.controller.NotificationController;
+
+/**
+ * Filtre des trames entrantes des clients. Un client ne s'abonne qu'à sa propre file de notifications
+ * (/user/queue/notifications, résolue sur sa session) et aux diffusions ; les destinations internes du
+ * broker (/queue/notifications-user{session}, anciens /topic/user.{id}) lui sont fermées, tout comme
+ * l'envoi direct au broker : un client ne publie que vers /app.
+ */
+public class SubscriptionGuard implements ChannelInterceptor {
+
+    public static final String USER_NOTIFICATIONS = "/user" + NotificationController.USER_QUEUE;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+        String destination = accessor.getDestination();
+        if (StompCommand.SUBSCRIBE.equals(accessor.getCommand()) && !canSubscribe(accessor, destination)) {
+            throw new MessageDeliveryException(message, "Abonnement refusé : " + destination);
+        }
+        if (StompCommand.SEND.equals(accessor.getCommand()) && (destination == null || !destination.startsWith("/app/"))) {
+            throw new MessageDeliveryException(message, "Envoi refusé : " + destination);
+        }
+        return message;
+    }
+
+    private static boolean canSubscribe(StompHeaderAccessor accessor, String destination) {
+        if (NotificationController.BROADCAST_TOPIC.equals(destination)) {
+            return true;
+        }
+        return USER_NOTIFICATIONS.equals(destination) && accessor.getUser() != null;
+    }
+}
@@ -1,42 +1,143 @@
 package com.example.ticketsservice.consumer;
 
+import com.example.ticketsservice.config.RabbitMQConfig;
+import com.example.ticketsservice.config.sharding.ShardContext;
+import com.example.ticketsservice.config.sharding.ShardRouter;
 import com.example.ticketsservice.event.UserRegisteredEvent;
 import com.example.ticketsservice.model.User;
-import com.example.ticketsservice.repository.UserRepository;
+import com.example.ticketsservice.repository.UserBulkRepository;
+import com.example.ticketsservice.service.TicketMetrics;
+import com.example.ticketsservice.service.UserDirectory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 public class UserEventConsumer {
 
-    private final UserRepository userRepository;
+    private final UserBulkRepository userBulkRepository;
+    private final ShardRouter shardRouter;
+    private final UserDirectory userDirectory;
+    private final TicketMetrics ticketMetrics;
     private static final Logger log = LoggerFactory.getLogger(UserEventConsumer.class);
 
-    @RabbitListener(queues = {"tickets_user_registered_queue"})
-    public void handleUserRegistered(UserRegisteredEvent event) {
-        log.info("Événement user.registered reçu pour l'email : {}", event.getEmail());
+    // Taille des colonnes de la table users (V1)
+    private static final int MAX_COLUMN_LENGTH = 255;
 
-        try {
-            User user = User.builder()
+    /**
+     * Reçoit les user.registered par lots (voir tickets.users.sync.*) et les écrit en un seul upsert
+     * par shard. Un événement invalide est écarté avant l'écriture ; si une contrainte rejette malgré
+     * tout le lot, il est repris ligne par ligne et seules les lignes fautives sont écartées. Une autre
+     * erreur SQL (base injoignable) rejette tout le lot, rejoué sans risque puisque l'upsert est idempotent.
+     */
+    @RabbitListener(queues = {RabbitMQConfig.QUEUE_NAME}, containerFactory = "userEventsBatchContainerFactory")
+    public void handleUserRegistered(List<Message<UserRegisteredEvent>> messages) {
+        log.info("Lot de {} événements user.registered reçu", messages.size());
+        ticketMetrics.recordUserSyncBatch(messages.size());
+
+        // Dernier événement gagnant pour un même utilisateur
+        Map<Long, User> users = new LinkedHashMap<>();
+        for (Message<UserRegisteredEvent> message : messages) {
+            UserRegisteredEvent event = message.getPayload();
+            // Rejeter le message rejouerait tout le lot indéfiniment : on l'écarte
+            String problem = validate(event);
+            if (problem != null) {
+                log.error("Événement user.registered ignoré ({}): userId={}", problem, event.getUserId());
+                ticketMetrics.recordUserSyncRejected("invalid");
+                continue;
+            }
+            users.put(Long.parseLong(event.getUserId()), User.builder()
                     .id(Long.parseLong(event.getUserId()))
                     .email(event.getEmail())
                     .firstName(event.getFirstName())
                     .lastName(event.getLastName())
-                    .build();
-
-            userRepository.save(user);
-            log.info("Utilisateur {} sauvegardé dans la base de données tickets.", user.getId());
+                    .build());
+        }
 
-        } catch (NumberFormatException e) {
-            log.error("Échec de la conversion de l'ID utilisateur '{}' en Long.", event.getUserId(), e);
-            throw new RuntimeException("Format d'ID utilisateur invalide", e);
+        Set<Long> rejected = new HashSet<>();
+        try {
+            // Table de référence : chaque shard en garde une copie pour ses jointures locales
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                try (var ignored = ShardContext.use(shard)) {
+                    upsert(users.values(), rejected);
+                }
+            }
         } catch (Exception e) {
-            log.error("Échec de la sauvegarde de l'utilisateur {}: {}", event.getEmail(), e.getMessage());
+            log.error("Échec de la sauvegarde de {} utilisateurs: {}", users.size(), e.getMessage());
             throw e;
         }
+
+        users.values().stream()
+                .filter(user -> !rejected.contains(user.getId()))
+                .forEach(userDirectory::userSaved);
+        recordLag(messages);
+        log.info("{} utilisateurs sauvegardés dans la base de données tickets.", users.size() - rejected.size());
+    }
+
+    private void upsert(Collection<User> users, Set<Long> rejected) {
+        try {
+            userBulkRepository.upsert(users);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Upsert du lot refusé ({}), reprise ligne par ligne", e.getMostSpecificCause().getMessage());
+            for (User user : users) {
+                try {
+                    userBulkRepository.upsert(List.of(user));
+                } catch (DataIntegrityViolationException rowError) {
+                    if (rejected.add(user.getId())) {
+                        log.error("Utilisateur {} ignoré: {}", user.getId(), rowError.getMostSpecificCause().getMessage());
+                        ticketMetrics.recordUserSyncRejected("constraint");
+                    }
+                }
+            }
+        }
+    }
+
+    // Mêmes contraintes que la table users : un événement qui les viole ne passera jamais
+    private static String validate(UserRegisteredEvent event) {
+        if (event == null || event.getUserId() == null) {
+            return "identifiant absent";
+        }
+        try {
+            Long.parseLong(event.getUserId());
+        } catch (NumberFormatException e) {
+            return "identifiant non numérique";
+        }
+        if (event.getEmail() == null || event.getEmail().isBlank()) {
+            return "email absent";
+        }
+        if (tooLong(event.getEmail()) || tooLong(event.getFirstName()) || tooLong(event.getLastName())) {
+            return "champ trop long";
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_COLUMN_LENGTH;
+    }
+
+    // Horodatage posé par user-service à la publication ; absent des messages plus anciens
+    private void recordLag(List<Message<UserRegisteredEvent>> messages) {
+        long now = System.currentTimeMillis();
+        for (Message<UserRegisteredEvent> message : messages) {
+            Date publishedAt = message.getHeaders().get(AmqpHeaders.TIMESTAMP, Date.class);
+            if (publishedAt != null) {
+                ticketMetrics.recordUserSyncLag(Duration.ofMillis(Math.max(0, now - publishedAt.getTime())));
+            }
+        }
     }
-}
\ No newline at end of file
+}
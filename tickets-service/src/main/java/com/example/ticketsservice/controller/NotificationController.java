@@ -1,23 +1,50 @@
 package com.example.ticketsservice.controller;
 
+import com.example.ticketsservice.config.websocket.NotificationCoalescer;
+import com.example.ticketsservice.config.websocket.NotificationReplayBuffer;
 import com.example.ticketsservice.dto.NotificationMessage;
+import com.example.ticketsservice.dto.NotificationReplayRequest;
+import com.example.ticketsservice.model.Refund;
+import com.example.ticketsservice.service.TicketMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Controller
 public class NotificationController {
 
+    /** File personnelle, résolue par le broker sur chaque session du principal (/user/queue/notifications côté client). */
+    public static final String USER_QUEUE = "/queue/notifications";
+    public static final String BROADCAST_TOPIC = "/topic/broadcast";
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationController.class);
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private TicketMetrics ticketMetrics;
+
+    @Autowired
+    private NotificationCoalescer notificationCoalescer;
+
+    @Autowired
+    private NotificationReplayBuffer replayBuffer;
+
     /**
-     * Send notification to a specific user
+     * Send notification to a specific user : uniquement aux sessions de ce principal (ID utilisateur),
+     * trouvées par le registre des utilisateurs sans parcourir les autres abonnements. Les envois rapprochés
+     * vers un même utilisateur sont regroupés en une trame par NotificationCoalescer
      */
     public void sendUserNotification(Long userId, NotificationMessage notification) {
         notification.setId(UUID.randomUUID().toString());
@@ -25,7 +52,8 @@ public class NotificationController {
         notification.setUserId(userId);
         notification.setRead(false);
 
-        messagingTemplate.convertAndSend("/topic/user/" + userId, notification);
+        replayBuffer.record(userId, notification);
+        notificationCoalescer.submit(userId, notification);
     }
 
     /**
@@ -36,22 +64,48 @@ public class NotificationController {
         notification.setTimestamp(LocalDateTime.now());
         notification.setRead(false);
 
-        messagingTemplate.convertAndSend("/topic/broadcast", notification);
+        ticketMetrics.recordWebSocketSend("broadcast",
+                () -> messagingTemplate.convertAndSend(BROADCAST_TOPIC, notification));
     }
 
     /**
-     * Handle incoming messages from clients
+     * Handle incoming messages from clients : un client ne peut viser que son propre utilisateur
      */
     @MessageMapping("/notification.send")
-    public void handleNotification(@Payload NotificationMessage notification) {
+    public void handleNotification(@Payload NotificationMessage notification, Principal principal) {
         // Process incoming notification from client if needed
         if (notification.getUserId() != null) {
+            if (principal == null || !principal.getName().equals(String.valueOf(notification.getUserId()))) {
+                log.warn("Notification client ignorée : destinataire {} différent de la session", notification.getUserId());
+                return;
+            }
             sendUserNotification(notification.getUserId(), notification);
         } else {
             sendBroadcastNotification(notification);
         }
     }
 
+    /**
+     * Rattrapage après reconnexion : les notifications manquées depuis afterSeq, renvoyées à la seule
+     * session qui le demande (trame REPLAY, {@code data} = NotificationReplay)
+     */
+    @MessageMapping("/notifications.replay")
+    @SendToUser(destinations = USER_QUEUE, broadcast = false)
+    public NotificationMessage replay(@Payload NotificationReplayRequest request, Principal principal) {
+        if (principal == null) {
+            return null;
+        }
+        long afterSeq = request.afterSeq() != null ? request.afterSeq() : 0L;
+        return NotificationMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .type("REPLAY")
+                .title("Notifications manquées")
+                .userId(Long.valueOf(principal.getName()))
+                .timestamp(LocalDateTime.now())
+                .data(replayBuffer.since(Long.valueOf(principal.getName()), afterSeq))
+                .build();
+    }
+
     /**
      * Helper methods to create specific notification types
      */
@@ -106,6 +160,25 @@ public class NotificationController {
         sendUserNotification(userId, notification);
     }
 
+    /**
+     * Traitement en masse : un seul message par utilisateur, quel que soit le nombre de ses demandes du lot
+     */
+    public void notifyRefundStatuses(Long userId, String status, List<Refund> refunds, String adminNotes) {
+        if (refunds.size() == 1) {
+            Refund refund = refunds.get(0);
+            String message = "COMPLETED".equals(status)
+                ? "Votre remboursement de " + refund.getRefundAmount() + "€ a été approuvé"
+                : "Votre demande de remboursement a été refusée. " + (adminNotes != null ? adminNotes : "");
+            notifyRefundStatus(userId, refund.getTicketId(), status, message);
+            return;
+        }
+        double total = refunds.stream().mapToDouble(Refund::getRefundAmount).sum();
+        String message = "COMPLETED".equals(status)
+            ? "Vos " + refunds.size() + " remboursements (" + total + "€ au total) ont été approuvés"
+            : "Vos " + refunds.size() + " demandes de remboursement ont été refusées. " + (adminNotes != null ? adminNotes : "");
+        notifyRefundStatus(userId, null, status, message);
+    }
+
     public void notifySystemMessage(String title, String message) {
         NotificationMessage notification = NotificationMessage.builder()
                 .type("SYSTEM")
@@ -0,0 +1,84 @@
+package com.example.ticketsservice.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.ticketsservice.dto.QrCodePayload;
+import com.example.ticketsservice.dto.QrValidationResponse;
+import com.example.ticketsservice.dto.ScanResponse;
+import com.example.ticketsservice.service.BarcodeService;
+import com.example.ticketsservice.service.SubscriptionValidationClient;
+import com.example.ticketsservice.service.TicketMetrics;
+import com.example.ticketsservice.service.TicketService;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * Point d'entrée unique des scanners : le payload est classé une fois (BarcodeService.classify) puis
+ * validé comme ticket ou comme abonnement dans la même requête. Un code de format inconnu suit
+ * l'indication {@code type} du scanner ; sans elle, il est cherché parmi les tickets puis les abonnements.
+ */
+@RestController
+@RequestMapping("/api/scan")
+@Tag(name = "Scan", description = "Validation unifiée des QR codes de tickets et d'abonnements")
+public class ScanController {
+
+    private static final Logger log = LoggerFactory.getLogger(ScanController.class);
+
+    private final BarcodeService barcodeService;
+    private final TicketService ticketService;
+    private final SubscriptionValidationClient subscriptionValidationClient;
+    private final TicketMetrics ticketMetrics;
+
+    public ScanController(BarcodeService barcodeService,
+                          TicketService ticketService,
+                          SubscriptionValidationClient subscriptionValidationClient,
+                          TicketMetrics ticketMetrics) {
+        this.barcodeService = barcodeService;
+        this.ticketService = ticketService;
+        this.subscriptionValidationClient = subscriptionValidationClient;
+        this.ticketMetrics = ticketMetrics;
+    }
+
+    @GetMapping("/{qrCode}")
+    @Operation(summary = "Valider un QR code de ticket ou d'abonnement",
+            description = "Classe le payload et le valide auprès du service concerné, en une seule requête")
+    public ResponseEntity<ScanResponse> scan(@PathVariable String qrCode,
+                                             @RequestParam(name = "type", required = false) String type) {
+        QrCodePayload payload = barcodeService.classify(qrCode);
+        QrCodePayload.Kind kind = payload.kind();
+        if (kind == QrCodePayload.Kind.UNKNOWN && "subscription".equalsIgnoreCase(type)) {
+            kind = QrCodePayload.Kind.SUBSCRIPTION;
+        }
+
+        if (kind == QrCodePayload.Kind.SUBSCRIPTION) {
+            return subscription(qrCode, payload.kind() == QrCodePayload.Kind.UNKNOWN ? "hint" : "payload");
+        }
+
+        QrValidationResponse ticket = ticketService.validateByQrCode(qrCode, payload);
+        // Code sans type reconnu et absent des tickets : ce peut être un abonnement
+        if (kind == QrCodePayload.Kind.UNKNOWN && ticket.getTicketId() == null
+                && !"ticket".equalsIgnoreCase(type)) {
+            return subscription(qrCode, "fallback");
+        }
+        ticketMetrics.recordScan("ticket", payload.kind() == QrCodePayload.Kind.TICKET ? "payload" : "default");
+        log.debug("Scan ticket - valid={} ticketId={}", ticket.isValid(), ticket.getTicketId());
+        return ResponseEntity.ok(new ScanResponse(QrCodePayload.Kind.TICKET, ticket));
+    }
+
+    private ResponseEntity<ScanResponse> subscription(String qrCode, String routing) {
+        ResponseEntity<String> response = subscriptionValidationClient.validateQrCode(qrCode);
+        ticketMetrics.recordScan("subscription", routing);
+        // Corps JSON de subscription-service recopié tel quel, sans le désérialiser
+        return ResponseEntity.status(response.getStatusCode())
+                .body(new ScanResponse(QrCodePayload.Kind.SUBSCRIPTION, new RawValue(response.getBody())));
+    }
+}
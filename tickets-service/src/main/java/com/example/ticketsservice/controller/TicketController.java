@@ -1,26 +1,39 @@
 package com.example.ticketsservice.controller;
 
+import java.util.Arrays;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.ticketsservice.config.websocket.NotificationReplayBuffer;
+import com.example.ticketsservice.dto.BulkRefundRequest;
+import com.example.ticketsservice.dto.BulkRefundResult;
+import com.example.ticketsservice.dto.NotificationReplay;
 import com.example.ticketsservice.dto.QrValidationResponse;
 import com.example.ticketsservice.dto.TicketPurchaseRequest;
 import com.example.ticketsservice.dto.TicketStatsResponse;
 import com.example.ticketsservice.dto.TicketTransferRequest;
 import com.example.ticketsservice.dto.RefundRequest;
+import com.example.ticketsservice.dto.TransferHistoryCursor;
 import com.example.ticketsservice.dto.TransferHistoryResponse;
 import com.example.ticketsservice.dto.ValidationStatsResponse;
+import com.example.ticketsservice.exception.ConcurrentTicketUpdateException;
 import com.example.ticketsservice.model.Refund;
 import com.example.ticketsservice.model.Ticket;
 import com.example.ticketsservice.model.TransferHistory;
+import com.example.ticketsservice.service.RefundBulkProcessor;
 import com.example.ticketsservice.service.TicketService;
 
 import java.util.Map;
@@ -32,33 +45,44 @@ import jakarta.servlet.http.HttpServletRequest;
 @RequestMapping("/api/tickets")
 public class TicketController {
 
+    private static final Logger log = LoggerFactory.getLogger(TicketController.class);
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+    private static final String ADMIN_ROLE = "ROLE_ADMIN";
+
     @Autowired
     private TicketService ticketService;
 
+    @Autowired
+    private RefundBulkProcessor refundBulkProcessor;
+
+    @Autowired
+    private NotificationReplayBuffer notificationReplayBuffer;
+
     @PostMapping("/purchase")
     public ResponseEntity<Ticket> purchaseTicket(@RequestBody TicketPurchaseRequest request, HttpServletRequest httpRequest) {
 
         String userIdHeader = httpRequest.getHeader("X-User-Id");
-        String userEmail = httpRequest.getHeader("X-User-Email");
         String userIdParam = httpRequest.getParameter("userId");
 
-        System.out.println("🎫 Achat de ticket - User ID Header: " + userIdHeader + ", Param: " + userIdParam + ", Email: " + userEmail);
+        log.debug("Achat de ticket - userIdHeader={} userIdParam={}", userIdHeader, userIdParam);
 
         // Priority: 1) Request body userId, 2) Query parameter userId, 3) Header X-User-Id
         if (request.getUserId() == null) {
             if (userIdParam != null) {
                 try {
                     request.setUserId(Long.parseLong(userIdParam));
-                    System.out.println("✓ userId défini depuis le paramètre de requête: " + userIdParam);
+                    log.debug("userId défini depuis le paramètre de requête: {}", userIdParam);
                 } catch (NumberFormatException e) {
-                    System.out.println("⚠️ ID utilisateur invalide dans le paramètre: " + userIdParam);
+                    log.warn("ID utilisateur invalide dans le paramètre: {}", userIdParam);
                 }
             } else if (userIdHeader != null && !userIdHeader.equals("me")) {
                 try {
                     request.setUserId(Long.parseLong(userIdHeader));
-                    System.out.println("✓ userId défini depuis le header: " + userIdHeader);
+                    log.debug("userId défini depuis le header: {}", userIdHeader);
                 } catch (NumberFormatException e) {
-                    System.out.println("⚠️ ID utilisateur invalide dans le header: " + userIdHeader);
+                    log.warn("ID utilisateur invalide dans le header: {}", userIdHeader);
                 }
             }
         }
@@ -72,25 +96,21 @@ public class TicketController {
     public ResponseEntity<List<Ticket>> getMyTickets(HttpServletRequest request) {
         try {
             String userIdHeader = request.getHeader("X-User-Id");
-            String userEmail = request.getHeader("X-User-Email");
-            
-            System.out.println("📋 Historique tickets - User ID: " + userIdHeader + ", Email: " + userEmail);
-            
+
             Long userId;
             if (userIdHeader != null && !userIdHeader.equals("me")) {
                 userId = Long.parseLong(userIdHeader);
             } else {
                 
                 userId = 1L; 
-                System.out.println("ℹ️ Utilisation de l'ID par défaut: " + userId);
+                log.debug("Utilisation de l'ID par défaut: {}", userId);
             }
             
             List<Ticket> tickets = ticketService.getTicketHistory(userId);
             return ResponseEntity.ok(tickets);
             
         } catch (Exception e) {
-            System.out.println("❌ Erreur dans getMyTickets: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Erreur dans getMyTickets: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -125,21 +145,19 @@ public class TicketController {
         try {
             String userIdHeader = request.getHeader("X-User-Id");
 
-            System.out.println("📊 Statistiques tickets - User ID: " + userIdHeader);
-
             Long userId;
             if (userIdHeader != null && !userIdHeader.equals("me")) {
                 userId = Long.parseLong(userIdHeader);
             } else {
                 userId = 1L;
-                System.out.println("ℹ️ Utilisation de l'ID par défaut: " + userId);
+                log.debug("Utilisation de l'ID par défaut: {}", userId);
             }
 
             TicketStatsResponse stats = ticketService.getTicketStats(userId);
             return ResponseEntity.ok(stats);
 
         } catch (Exception e) {
-            System.out.println("❌ Erreur dans getMyStats: " + e.getMessage());
+            log.warn("Erreur dans getMyStats: {}", e.getMessage());
             // Return zeros if no tickets found
             return ResponseEntity.ok(new TicketStatsResponse(0, 0, 0));
         }
@@ -147,15 +165,10 @@ public class TicketController {
 
     @GetMapping("/validate-qr/{qrCode}")
     public ResponseEntity<QrValidationResponse> validateByQrCode(@PathVariable String qrCode) {
-        System.out.println("🔍 Validation QR Code: " + qrCode);
-
         QrValidationResponse response = ticketService.validateByQrCode(qrCode);
 
-        if (response.isValid()) {
-            System.out.println("✅ Ticket valide - " + response.getTicketType() + " - " + response.getOwnerName());
-        } else {
-            System.out.println("❌ Ticket invalide - " + response.getMessage());
-        }
+        log.debug("Validation QR - valid={} ticketId={} type={}",
+                response.isValid(), response.getTicketId(), response.getTicketType());
 
         return ResponseEntity.ok(response);
     }
@@ -164,16 +177,12 @@ public class TicketController {
 
     @GetMapping("/validation-stats")
     public ResponseEntity<ValidationStatsResponse> getValidationStats() {
-        System.out.println("📊 Récupération des statistiques de validation");
-
         ValidationStatsResponse stats = ticketService.getValidationStats();
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/validation-history")
     public ResponseEntity<List<Ticket>> getValidationHistory() {
-        System.out.println("📋 Récupération de l'historique de validation");
-
         List<Ticket> history = ticketService.getValidationHistory();
         return ResponseEntity.ok(history);
     }
@@ -186,8 +195,6 @@ public class TicketController {
         try {
             String userIdHeader = httpRequest.getHeader("X-User-Id");
 
-            System.out.println("🔄 Transfert de ticket - Ticket ID: " + ticketId + ", User ID: " + userIdHeader);
-
             if (userIdHeader == null || userIdHeader.equals("me")) {
                 return ResponseEntity.badRequest().body(Map.of("error", "User ID requis"));
             }
@@ -195,64 +202,50 @@ public class TicketController {
             Long userId = Long.parseLong(userIdHeader);
             Ticket transferredTicket = ticketService.transferTicket(ticketId, userId, request.getRecipientEmail());
 
-            System.out.println("✅ Ticket transféré avec succès vers " + request.getRecipientEmail());
+            log.info("Ticket {} transféré par l'utilisateur {}", ticketId, userId);
             return ResponseEntity.ok(transferredTicket);
 
+        } catch (ConcurrentTicketUpdateException | OptimisticLockingFailureException e) {
+            // Conflit de version : 409 via GlobalExceptionHandler, pas une erreur de saisie
+            throw e;
         } catch (Exception e) {
-            System.out.println("❌ Erreur de transfert: " + e.getMessage());
+            log.warn("Erreur de transfert du ticket {}: {}", ticketId, e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
 
+    // Historique paginé par curseur : X-Next-Cursor est présent tant qu'une page suivante peut exister
     @GetMapping("/transfer-history")
-    public ResponseEntity<List<TransferHistoryResponse>> getTransferHistory(HttpServletRequest httpRequest) {
-        String userIdHeader = httpRequest.getHeader("X-User-Id");
-
-        System.out.println("📜 Récupération de l'historique de transfert - User ID: " + userIdHeader);
-
-        if (userIdHeader == null || userIdHeader.equals("me")) {
-            return ResponseEntity.badRequest().build();
-        }
-
-        try {
-            Long userId = Long.parseLong(userIdHeader);
-            List<TransferHistory> history = ticketService.getTransferHistoryByUser(userId);
-
-            List<TransferHistoryResponse> response = history.stream()
-                    .map(h -> TransferHistoryResponse.fromEntity(h, userId))
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            System.out.println("❌ Erreur historique de transfert: " + e.getMessage());
-            return ResponseEntity.badRequest().build();
-        }
+    public ResponseEntity<List<TransferHistoryResponse>> getTransferHistory(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_HISTORY_PAGE_SIZE) int limit) {
+        return transferHistoryPage(httpRequest, cursor, limit, ticketService::getTransferHistoryByUser);
     }
 
     @GetMapping("/transfer-history/sent")
-    public ResponseEntity<List<TransferHistoryResponse>> getTransferHistorySent(HttpServletRequest httpRequest) {
-        String userIdHeader = httpRequest.getHeader("X-User-Id");
-
-        if (userIdHeader == null || userIdHeader.equals("me")) {
-            return ResponseEntity.badRequest().build();
-        }
-
-        try {
-            Long userId = Long.parseLong(userIdHeader);
-            List<TransferHistory> history = ticketService.getTransferHistorySent(userId);
+    public ResponseEntity<List<TransferHistoryResponse>> getTransferHistorySent(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_HISTORY_PAGE_SIZE) int limit) {
+        return transferHistoryPage(httpRequest, cursor, limit, ticketService::getTransferHistorySent);
+    }
 
-            List<TransferHistoryResponse> response = history.stream()
-                    .map(h -> TransferHistoryResponse.fromEntity(h, userId))
-                    .collect(Collectors.toList());
+    @GetMapping("/transfer-history/received")
+    public ResponseEntity<List<TransferHistoryResponse>> getTransferHistoryReceived(
+            HttpServletRequest httpRequest,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_HISTORY_PAGE_SIZE) int limit) {
+        return transferHistoryPage(httpRequest, cursor, limit, ticketService::getTransferHistoryReceived);
+    }
 
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
-        }
+    @FunctionalInterface
+    private interface TransferHistoryPageQuery {
+        List<TransferHistory> fetch(Long userId, TransferHistoryCursor cursor, int limit);
     }
 
-    @GetMapping("/transfer-history/received")
-    public ResponseEntity<List<TransferHistoryResponse>> getTransferHistoryReceived(HttpServletRequest httpRequest) {
+    private ResponseEntity<List<TransferHistoryResponse>> transferHistoryPage(
+            HttpServletRequest httpRequest, String cursor, int limit, TransferHistoryPageQuery query) {
         String userIdHeader = httpRequest.getHeader("X-User-Id");
 
         if (userIdHeader == null || userIdHeader.equals("me")) {
@@ -261,14 +254,20 @@ public class TicketController {
 
         try {
             Long userId = Long.parseLong(userIdHeader);
-            List<TransferHistory> history = ticketService.getTransferHistoryReceived(userId);
+            int pageSize = Math.clamp(limit, 1, MAX_HISTORY_PAGE_SIZE);
+            List<TransferHistory> history = query.fetch(userId, TransferHistoryCursor.decode(cursor), pageSize);
 
             List<TransferHistoryResponse> response = history.stream()
                     .map(h -> TransferHistoryResponse.fromEntity(h, userId))
                     .collect(Collectors.toList());
 
-            return ResponseEntity.ok(response);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+            if (history.size() == pageSize) {
+                ok.header(NEXT_CURSOR_HEADER, TransferHistoryCursor.after(history.get(history.size() - 1)).encode());
+            }
+            return ok.body(response);
         } catch (Exception e) {
+            log.warn("Erreur historique de transfert: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -282,8 +281,6 @@ public class TicketController {
         try {
             String userIdHeader = httpRequest.getHeader("X-User-Id");
 
-            System.out.println("💰 Demande de remboursement - Ticket ID: " + request.getTicketId() + ", User ID: " + userIdHeader);
-
             if (userIdHeader == null || userIdHeader.equals("me")) {
                 return ResponseEntity.badRequest().body(Map.of("error", "User ID requis"));
             }
@@ -291,11 +288,14 @@ public class TicketController {
             Long userId = Long.parseLong(userIdHeader);
             Refund refund = ticketService.requestRefund(request.getTicketId(), userId, request.getReason());
 
-            System.out.println("✅ Demande de remboursement créée: " + refund.getId());
+            log.info("Demande de remboursement {} créée pour le ticket {}", refund.getId(), request.getTicketId());
             return ResponseEntity.ok(refund);
 
+        } catch (ConcurrentTicketUpdateException | OptimisticLockingFailureException e) {
+            // Conflit de version : 409 via GlobalExceptionHandler, pas une erreur de saisie
+            throw e;
         } catch (Exception e) {
-            System.out.println("❌ Erreur de remboursement: " + e.getMessage());
+            log.warn("Erreur de remboursement du ticket {}: {}", request.getTicketId(), e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
@@ -317,6 +317,27 @@ public class TicketController {
         }
     }
 
+    /**
+     * Rattrapage des notifications WebSocket manquées pendant une déconnexion (même contenu que
+     * /app/notifications.replay en STOMP). complete=false : recharger l'historique.
+     */
+    @GetMapping("/notifications/replay")
+    public ResponseEntity<NotificationReplay> replayNotifications(@RequestParam(defaultValue = "0") long afterSeq,
+                                                                  HttpServletRequest httpRequest) {
+        String userIdHeader = httpRequest.getHeader("X-User-Id");
+
+        if (userIdHeader == null || userIdHeader.equals("me")) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            Long userId = Long.parseLong(userIdHeader);
+            return ResponseEntity.ok(notificationReplayBuffer.since(userId, afterSeq));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/refunds/pending")
     public ResponseEntity<List<Refund>> getPendingRefunds() {
         List<Refund> refunds = ticketService.getPendingRefunds();
@@ -333,12 +354,40 @@ public class TicketController {
 
             Refund refund = ticketService.processRefund(refundId, approved, adminNotes);
 
-            System.out.println("✅ Remboursement traité: " + refundId + " - " + (approved ? "APPROUVÉ" : "REJETÉ"));
+            log.info("Remboursement {} traité - {}", refundId, approved ? "APPROUVÉ" : "REJETÉ");
             return ResponseEntity.ok(refund);
 
+        } catch (ConcurrentTicketUpdateException | OptimisticLockingFailureException e) {
+            // Conflit de version : 409 via GlobalExceptionHandler, pas une erreur de saisie
+            throw e;
         } catch (Exception e) {
-            System.out.println("❌ Erreur traitement remboursement: " + e.getMessage());
+            log.warn("Erreur traitement remboursement {}: {}", refundId, e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    // Seul /api/admin/** est filtré par rôle à la passerelle : le rôle transmis est vérifié ici
+    @PostMapping("/refunds/bulk-process")
+    public ResponseEntity<?> processRefunds(@RequestBody BulkRefundRequest request, HttpServletRequest httpRequest) {
+        if (!hasRole(httpRequest, ADMIN_ROLE)) {
+            log.warn("Traitement en masse des remboursements refusé pour {}", httpRequest.getHeader("X-User-Email"));
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Rôle administrateur requis"));
+        }
+        if (request.getApproved() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Décision (approved) requise"));
+        }
+        BulkRefundResult result = refundBulkProcessor.process(
+                request.getRefundIds(), request.getApproved(), request.getAdminNotes());
+        if (result.getError() != null) {
+            // Arrêt sur un lot en échec : le corps donne l'avancement, la même demande peut être relancée
+            return ResponseEntity.internalServerError().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // X-User-Roles : rôles du JWT, séparés par des virgules, ajoutés par la passerelle
+    private static boolean hasRole(HttpServletRequest request, String role) {
+        String roles = request.getHeader("X-User-Roles");
+        return roles != null && Arrays.stream(roles.split(",")).map(String::trim).anyMatch(role::equals);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.ticketsservice.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class BulkRefundRequest {
+    // Absent : toutes les demandes en attente, des plus anciennes aux plus récentes
+    private List<Long> refundIds;
+    private Boolean approved;
+    private String adminNotes;
+}
@@ -0,0 +1,20 @@
+package com.example.ticketsservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundResult {
+    private String status;
+    private int processed;
+    // Demandes désignées mais introuvables ou déjà traitées
+    private int skipped;
+    // Lots validés, conservés même si un lot suivant échoue
+    private int chunks;
+    private long durationMs;
+    // Renseignée quand le traitement s'est arrêté sur un lot en échec ; null s'il est allé au bout
+    private String error;
+}
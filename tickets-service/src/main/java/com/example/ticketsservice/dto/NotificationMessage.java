@@ -13,12 +13,13 @@ import java.time.LocalDateTime;
 @Builder
 public class NotificationMessage {
     private String id;
-    private String type; // TICKET_PURCHASED, TICKET_VALIDATED, TICKET_TRANSFERRED, REFUND_STATUS, SYSTEM
+    private String type; // TICKET_PURCHASED, TICKET_VALIDATED, TICKET_TRANSFERRED, REFUND_STATUS, SYSTEM, BATCH, REPLAY
     private String title;
     private String message;
     private Long userId;
     private Long ticketId;
     private LocalDateTime timestamp;
     private boolean read;
-    private Object data; // Additional data payload
+    private Long seq; // Numéro de rattrapage (notifications personnelles), voir NotificationReplayBuffer
+    private Object data; // Additional data payload (BATCH : notifications regroupées)
 }
@@ -0,0 +1,11 @@
+package com.example.ticketsservice.dto;
+
+import java.util.List;
+
+/**
+ * Notifications manquées depuis le numéro demandé, dans l'ordre. {@code complete} à false : une partie
+ * a pu être perdue (tampon plein ou évincé, redémarrage, autre réplica) et le client doit recharger
+ * son historique comme avant. {@code lastSeq} est le numéro à redemander à la prochaine reconnexion.
+ */
+public record NotificationReplay(List<NotificationMessage> notifications, long lastSeq, boolean complete) {
+}
@@ -0,0 +1,7 @@
+package com.example.ticketsservice.dto;
+
+/**
+ * Demande de rattrapage d'un client reconnecté : les notifications de numéro strictement supérieur à afterSeq.
+ */
+public record NotificationReplayRequest(Long afterSeq) {
+}
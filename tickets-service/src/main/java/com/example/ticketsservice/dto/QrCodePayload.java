@@ -0,0 +1,13 @@
+package com.example.ticketsservice.dto;
+
+/**
+ * Nature d'un QR code scanné, lue une seule fois sur le payload : ticket ou abonnement, et l'identifiant
+ * qu'il porte. {@code id} est null pour un code sans identifiant exploitable ; {@code json} distingue le
+ * payload signé par BarcodeService des formats de secours (TICKET-…, SUB-…).
+ */
+public record QrCodePayload(Kind kind, Long id, boolean json) {
+
+    public enum Kind { TICKET, SUBSCRIPTION, UNKNOWN }
+
+    public static final QrCodePayload UNKNOWN = new QrCodePayload(Kind.UNKNOWN, null, false);
+}
@@ -0,0 +1,8 @@
+package com.example.ticketsservice.dto;
+
+/**
+ * Réponse de /api/scan : {@code kind} (TICKET ou SUBSCRIPTION) et la réponse de validation correspondante,
+ * au format de /api/tickets/validate-qr ou de /api/subscriptions/validate-qr.
+ */
+public record ScanResponse(QrCodePayload.Kind kind, Object result) {
+}
@@ -0,0 +1,40 @@
+package com.example.ticketsservice.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.example.ticketsservice.model.TransferHistory;
+
+/**
+ * Position dans un historique de transferts trié par (transferDate, id) décroissants.
+ * Le client la reçoit opaque dans l'en-tête X-Next-Cursor et la renvoie telle quelle.
+ */
+public record TransferHistoryCursor(LocalDateTime transferDate, Long id) {
+
+    /** Avant toute ligne : première page. */
+    public static final TransferHistoryCursor START = new TransferHistoryCursor(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+
+    public static TransferHistoryCursor after(TransferHistory last) {
+        return new TransferHistoryCursor(last.getTransferDate(), last.getId());
+    }
+
+    public static TransferHistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new TransferHistoryCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur d'historique invalide", e);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((transferDate + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
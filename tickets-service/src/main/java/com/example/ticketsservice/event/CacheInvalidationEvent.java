@@ -0,0 +1,19 @@
+package com.example.ticketsservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationEvent implements Serializable {
+    private String origin;       // Instance émettrice
+    private long generation;     // Suite continue par émetteur : un trou signale un lot perdu
+    private Map<String, List<String>> keys; // Clés invalidées par cache ; vide pour un battement
+}
@@ -0,0 +1,42 @@
+package com.example.ticketsservice.event;
+
+/**
+ * Notification WebSocket décidée dans une transaction de TicketService. Publiée comme événement applicatif,
+ * elle n'est envoyée qu'après le commit, hors du thread de la requête (TicketNotificationDispatcher) :
+ * rien n'est annoncé pour une transaction annulée. {@code publishedAt} (System.nanoTime) sert à mesurer
+ * l'attente avant envoi.
+ */
+public sealed interface TicketNotificationEvent {
+
+    long publishedAt();
+
+    record Purchased(Long userId, Long ticketId, String ticketType, long publishedAt) implements TicketNotificationEvent {
+
+        public Purchased(Long userId, Long ticketId, String ticketType) {
+            this(userId, ticketId, ticketType, System.nanoTime());
+        }
+    }
+
+    record Validated(Long userId, Long ticketId, long publishedAt) implements TicketNotificationEvent {
+
+        public Validated(Long userId, Long ticketId) {
+            this(userId, ticketId, System.nanoTime());
+        }
+    }
+
+    record Transferred(Long fromUserId, Long toUserId, Long ticketId, String ticketType, long publishedAt)
+            implements TicketNotificationEvent {
+
+        public Transferred(Long fromUserId, Long toUserId, Long ticketId, String ticketType) {
+            this(fromUserId, toUserId, ticketId, ticketType, System.nanoTime());
+        }
+    }
+
+    record RefundProcessed(Long userId, Long ticketId, String status, String message, long publishedAt)
+            implements TicketNotificationEvent {
+
+        public RefundProcessed(Long userId, Long ticketId, String status, String message) {
+            this(userId, ticketId, status, message, System.nanoTime());
+        }
+    }
+}
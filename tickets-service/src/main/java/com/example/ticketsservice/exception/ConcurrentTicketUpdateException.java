@@ -0,0 +1,7 @@
+package com.example.ticketsservice.exception;
+
+public class ConcurrentTicketUpdateException extends RuntimeException {
+    public ConcurrentTicketUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
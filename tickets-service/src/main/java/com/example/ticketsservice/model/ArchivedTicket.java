@@ -0,0 +1,61 @@
+package com.example.ticketsservice.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Ticket sorti de la table chaude. Le ticket complet (image QR comprise) est conservé en JSON gzip ;
+ * seules les colonnes utiles à la recherche restent en clair.
+ */
+@Entity
+@Table(name = "tickets_archive")
+@Data
+@NoArgsConstructor
+public class ArchivedTicket implements Persistable<Long> {
+
+    @Id
+    private Long id; // Même identifiant que le ticket d'origine
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "purchase_date", nullable = false)
+    private LocalDateTime purchaseDate;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] payload;
+
+    // Identifiant assigné : sans ce drapeau, save() ferait un SELECT avant chaque INSERT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.ticketsservice.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Référence de largeur fixe d'un QR code : les 16 premiers octets du SHA-256 du payload.
+ * L'index porte sur ces 16 octets plutôt que sur le payload JSON complet (VARCHAR 255) ;
+ * la recherche compare ensuite le payload pour écarter une éventuelle collision.
+ */
+public final class QrReference {
+
+    public static final int LENGTH = 16;
+
+    private QrReference() {
+    }
+
+    public static byte[] of(String qrCodeData) {
+        if (qrCodeData == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(qrCodeData.getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(digest, LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
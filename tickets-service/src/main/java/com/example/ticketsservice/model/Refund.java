@@ -1,5 +1,7 @@
 package com.example.ticketsservice.model;
 
+import com.example.ticketsservice.config.sharding.ShardedId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,7 +11,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refunds")
+@Table(name = "refunds", indexes = {
+        @Index(name = "idx_refunds_user_request", columnList = "user_id, request_date"),
+        @Index(name = "idx_refunds_status_request", columnList = "status, request_date"),
+        @Index(name = "idx_refunds_ticket_status", columnList = "ticket_id, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +23,7 @@ import java.time.LocalDateTime;
 public class Refund {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedId
     private Long id;
 
     @Column(name = "ticket_id", nullable = false)
@@ -50,6 +56,11 @@ public class Refund {
     @Column(name = "admin_notes")
     private String adminNotes;
 
+    // Verrouillage optimiste : deux traitements concurrents de la même demande ne s'écrasent pas
+    @Version
+    @JsonIgnore
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         if (requestDate == null) {
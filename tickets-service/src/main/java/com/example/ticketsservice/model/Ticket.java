@@ -2,52 +2,145 @@ package com.example.ticketsservice.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.PartitionKey;
+import org.springframework.data.domain.Persistable;
+
+import com.example.ticketsservice.config.sharding.ShardedId;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets", indexes = {
+        // Miroir de V2/V4/V5 (db/migration), utilisé quand le schéma est généré (tests)
+        @Index(name = "idx_tickets_qr_ref", columnList = "qr_ref"),
+        @Index(name = "idx_tickets_user_purchase", columnList = "user_id, purchase_date"),
+        @Index(name = "idx_tickets_user_status_code", columnList = "user_id, status_code"),
+        @Index(name = "idx_tickets_status_code_validation", columnList = "status_code, validation_date"),
+        @Index(name = "idx_tickets_validation_date", columnList = "validation_date"),
+        @Index(name = "idx_tickets_purchase_date", columnList = "purchase_date")
+})
 @Data
 @NoArgsConstructor
-public class Ticket {
+public class Ticket implements Persistable<Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedId
     private Long id;
 
     @Column(nullable = false)
     private Long userId;
 
-    @Column(name = "ticket_type", nullable = false)
-    private String ticketType;
+    // Enums stockés sur un TINYINT (TicketTypeConverter, TicketStatusConverter), exposés par leur nom en JSON
+    @Column(name = "ticket_type_code", nullable = false, columnDefinition = "TINYINT")
+    private TicketType ticketType;
 
-    @Column(nullable = false)
-    private String status;
+    @Column(name = "status_code", nullable = false, columnDefinition = "TINYINT")
+    private TicketStatus status;
 
+    // Clé de partitionnement (V2) : Hibernate l'ajoute au WHERE des UPDATE et DELETE par identifiant,
+    // qui ne lisent ainsi qu'une partition. Jamais modifiée après l'achat.
+    @PartitionKey
     @Column(name = "purchase_date", nullable = false)
     private LocalDateTime purchaseDate;
 
     @Column(name = "validation_date")
     private LocalDateTime validationDate;
 
-    @Column(name = "qr_code_data", unique = true)
+    // Pas de contrainte UNIQUE : interdite sur une table partitionnée qui n'inclut pas purchase_date.
+    // Le payload contient l'identifiant du ticket et un UUID ; la recherche passe par un index simple.
+    @Column(name = "qr_code_data")
     private String qrCodeData;
 
+    // Empreinte de qr_code_data (QrReference), seule colonne indexée pour la recherche par QR code
+    @Column(name = "qr_ref", length = QrReference.LENGTH, columnDefinition = "BINARY(16)")
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private byte[] qrRef;
+
     @Column(name = "qr_code_image", columnDefinition = "LONGTEXT")
     private String qrCodeImage; // Base64 encoded QR code image
 
-    @Column(name = "original_price")
-    private Double originalPrice; // Prix original du ticket
+    // Montants en centimes ; le JSON garde originalPrice / finalPrice en MAD (getters ci-dessous)
+    @Column(name = "original_price_cents")
+    @JsonIgnore
+    private Integer originalPriceCents; // Prix original du ticket
 
     @Column(name = "discount_applied")
     private Integer discountApplied; // Pourcentage de réduction appliqué (0-15)
 
-    @Column(name = "final_price")
-    private Double finalPrice; // Prix final après réduction
+    @Column(name = "final_price_cents")
+    @JsonIgnore
+    private Integer finalPriceCents; // Prix final après réduction
+
+    // Verrouillage optimiste des transitions d'état (voir OptimisticLockRetry)
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    // L'identifiant est attribué avant l'insertion (il entre dans le QR code) : sans ce drapeau,
+    // save() ferait un SELECT avant l'INSERT
+    @Transient
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted;
+
+    public void setQrCodeData(String qrCodeData) {
+        this.qrCodeData = qrCodeData;
+        this.qrRef = QrReference.of(qrCodeData);
+    }
+
+    public Double getOriginalPrice() {
+        return toAmount(originalPriceCents);
+    }
+
+    public void setOriginalPrice(Double originalPrice) {
+        this.originalPriceCents = toCents(originalPrice);
+    }
+
+    public Double getFinalPrice() {
+        return toAmount(finalPriceCents);
+    }
+
+    public void setFinalPrice(Double finalPrice) {
+        this.finalPriceCents = toCents(finalPrice);
+    }
+
+    private static Double toAmount(Integer cents) {
+        return cents != null ? cents / 100.0 : null;
+    }
+
+    private static Integer toCents(Double amount) {
+        return amount != null ? (int) Math.round(amount * 100) : null;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
\ No newline at end of file
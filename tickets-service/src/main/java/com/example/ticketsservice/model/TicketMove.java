@@ -0,0 +1,66 @@
+package com.example.ticketsservice.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Transfert vers un autre shard en attente d'application (outbox). Écrit sur le shard d'origine dans
+ * la transaction qui supprime le ticket : les deux sont validés ensemble ou pas du tout. Le ticket
+ * recréé et l'historique du destinataire sont décrits en JSON dans {@code payload}.
+ */
+@Entity
+@Table(name = "ticket_moves", indexes = {
+        // Miroir de V9 (db/migration)
+        @Index(name = "idx_ticket_moves_created", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class TicketMove implements Persistable<Long> {
+
+    @Id
+    private Long id; // Identifiant du ticket recréé sur le shard cible
+
+    @Column(name = "source_ticket_id", nullable = false)
+    private Long sourceTicketId;
+
+    @Column(name = "target_shard", nullable = false)
+    private int targetShard;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "LONGTEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Identifiant assigné : sans ce drapeau, save() ferait un SELECT avant l'INSERT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+}
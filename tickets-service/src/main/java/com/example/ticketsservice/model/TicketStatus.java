@@ -0,0 +1,38 @@
+package com.example.ticketsservice.model;
+
+import java.util.Arrays;
+
+/**
+ * Statut d'un ticket. Le nom reste la valeur exposée en JSON ; la base stocke le code sur un TINYINT.
+ * Les codes sont figés : ne jamais en réattribuer un, seulement en ajouter.
+ */
+public enum TicketStatus {
+    VALIDE(1),
+    UTILISE(2),
+    ANNULE(3),
+    EXPIRE(4);
+
+    private static final TicketStatus[] BY_CODE = new TicketStatus[5];
+
+    static {
+        Arrays.stream(values()).forEach(status -> BY_CODE[status.code] = status);
+    }
+
+    private final byte code;
+
+    TicketStatus(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public static TicketStatus fromCode(byte code) {
+        TicketStatus status = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (status == null) {
+            throw new IllegalArgumentException("Code de statut de ticket inconnu : " + code);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ticketsservice.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class TicketStatusConverter implements AttributeConverter<TicketStatus, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(TicketStatus status) {
+        return status != null ? status.code() : null;
+    }
+
+    @Override
+    public TicketStatus convertToEntityAttribute(Byte code) {
+        return code != null ? TicketStatus.fromCode(code) : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.ticketsservice.model;
+
+import java.util.Arrays;
+
+/**
+ * Type de ticket et prix associé, en centimes (MAD) pour éviter les arrondis sur les montants.
+ * Le nom reste la valeur exposée en JSON ; la base stocke le code sur un TINYINT.
+ */
+public enum TicketType {
+    SIMPLE(1, 800),
+    JOURNEE(2, 3000),
+    HEBDO(3, 10000),
+    MENSUEL(4, 35000);
+
+    private static final TicketType[] BY_CODE = new TicketType[5];
+
+    static {
+        Arrays.stream(values()).forEach(type -> BY_CODE[type.code] = type);
+    }
+
+    private final byte code;
+    private final int priceCents;
+
+    TicketType(int code, int priceCents) {
+        this.code = (byte) code;
+        this.priceCents = priceCents;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public int priceCents() {
+        return priceCents;
+    }
+
+    public static TicketType fromCode(byte code) {
+        TicketType type = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (type == null) {
+            throw new IllegalArgumentException("Code de type de ticket inconnu : " + code);
+        }
+        return type;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ticketsservice.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class TicketTypeConverter implements AttributeConverter<TicketType, Byte> {
+
+    @Override
+    public Byte convertToDatabaseColumn(TicketType type) {
+        return type != null ? type.code() : null;
+    }
+
+    @Override
+    public TicketType convertToEntityAttribute(Byte code) {
+        return code != null ? TicketType.fromCode(code) : null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.ticketsservice.model;
 
+import com.example.ticketsservice.config.sharding.ShardedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,15 +10,19 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transfer_history")
+@Table(name = "transfer_history", indexes = {
+        @Index(name = "idx_transfer_ticket_date", columnList = "ticket_id, transfer_date"),
+        @Index(name = "idx_transfer_from_date", columnList = "from_user_id, transfer_date"),
+        @Index(name = "idx_transfer_to_date", columnList = "to_user_id, transfer_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class TransferHistory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @ShardedId
     private Long id;
 
     @Column(name = "ticket_id", nullable = false)
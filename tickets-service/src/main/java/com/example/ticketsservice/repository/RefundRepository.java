@@ -1,9 +1,17 @@
 package com.example.ticketsservice.repository;
 
 import com.example.ticketsservice.model.Refund;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,4 +27,21 @@ public interface RefundRepository extends JpaRepository<Refund, Long> {
     boolean existsByTicketIdAndStatusIn(Long ticketId, List<String> statuses);
 
     long countByStatus(String status);
+
+    // Traitement en masse : les demandes du lot restent verrouillées jusqu'au commit de leur mise à jour
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Refund r WHERE r.status = 'PENDING' ORDER BY r.requestDate")
+    List<Refund> lockPendingBatch(Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Refund r WHERE r.id IN :ids AND r.status = 'PENDING'")
+    List<Refund> lockPendingByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Refund r SET r.status = :status, r.processedDate = :processedDate, r.adminNotes = :adminNotes, "
+            + "r.version = r.version + 1 WHERE r.id IN :ids AND r.status = 'PENDING'")
+    int processBatch(@Param("ids") Collection<Long> ids,
+                     @Param("status") String status,
+                     @Param("processedDate") LocalDateTime processedDate,
+                     @Param("adminNotes") String adminNotes);
 }
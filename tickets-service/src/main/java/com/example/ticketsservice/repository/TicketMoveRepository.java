@@ -0,0 +1,16 @@
+package com.example.ticketsservice.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.ticketsservice.model.TicketMove;
+
+@Repository
+public interface TicketMoveRepository extends JpaRepository<TicketMove, Long> {
+
+    List<TicketMove> findByCreatedAtBeforeOrderByCreatedAt(LocalDateTime createdAt, Limit limit);
+}
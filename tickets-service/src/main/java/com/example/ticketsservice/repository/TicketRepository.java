@@ -1,42 +1,133 @@
 package com.example.ticketsservice.repository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.ticketsservice.config.sharding.ShardIdGenerator;
+import com.example.ticketsservice.model.QrReference;
 import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.TicketType;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
 
+    /**
+     * Marge autour de l'horodatage de l'identifiant : décalage d'horloge entre nœuds, fuseau de purchase_date.
+     * Une ou deux partitions mensuelles au plus.
+     */
+    Duration PURCHASE_DATE_SLACK = Duration.ofDays(1);
+
     List<Ticket> findByUserId(Long userId);
-    List<Ticket> findByUserIdAndTicketType(Long userId, String ticketType);
 
-    Optional<Ticket> findByQrCodeData(String qrCodeData);
+    Optional<Ticket> findByIdAndPurchaseDateBetween(Long id, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Recherche par identifiant bornée sur purchase_date (clé de partitionnement, V2) : l'identifiant
+     * porte son instant de création, celui de l'achat. Les identifiants d'avant le sharding et les tickets
+     * transférés entre shards (nouvel identifiant, date d'achat d'origine) retombent sur findById,
+     * qui lit toutes les partitions.
+     */
+    default Optional<Ticket> findLiveById(Long id) {
+        Optional<LocalDateTime> created = purchaseDateHint(id);
+        if (created.isPresent()) {
+            Optional<Ticket> ticket = findByIdAndPurchaseDateBetween(id,
+                    created.get().minus(PURCHASE_DATE_SLACK), created.get().plus(PURCHASE_DATE_SLACK));
+            if (ticket.isPresent()) {
+                return ticket;
+            }
+        }
+        return findById(id);
+    }
+
+    // Borne sur purchase_date : seules les partitions de la fenêtre chaude sont lues
+    List<Ticket> findByUserIdAndPurchaseDateGreaterThanEqual(Long userId, LocalDateTime since);
+
+    List<Ticket> findByUserIdAndTicketType(Long userId, TicketType ticketType);
+
+    // Recherche par l'empreinte de 16 octets (QrReference) : passer par findByQrCodeData
+    List<Ticket> findByQrRef(byte[] qrRef);
+
+    List<Ticket> findByQrRefAndPurchaseDateBetween(byte[] qrRef, LocalDateTime from, LocalDateTime to);
+
+    default Optional<Ticket> findByQrCodeData(String qrCodeData) {
+        return matching(findByQrRef(QrReference.of(qrCodeData)), qrCodeData);
+    }
 
-    List<Ticket> findByUserIdAndStatus(Long userId, String status);
+    /**
+     * Recherche par QR code bornée sur purchase_date quand le payload donne l'identifiant du ticket
+     * (voir {@link #findLiveById}) ; sinon toutes les partitions sont lues.
+     */
+    default Optional<Ticket> findByQrCodeData(String qrCodeData, Long ticketId) {
+        Optional<LocalDateTime> created = purchaseDateHint(ticketId);
+        if (created.isPresent()) {
+            Optional<Ticket> ticket = matching(findByQrRefAndPurchaseDateBetween(QrReference.of(qrCodeData),
+                    created.get().minus(PURCHASE_DATE_SLACK), created.get().plus(PURCHASE_DATE_SLACK)), qrCodeData);
+            if (ticket.isPresent()) {
+                return ticket;
+            }
+        }
+        return findByQrCodeData(qrCodeData);
+    }
+
+    // L'empreinte peut entrer en collision : le payload complet départage
+    private static Optional<Ticket> matching(List<Ticket> candidates, String qrCodeData) {
+        return candidates.stream()
+                .filter(ticket -> qrCodeData.equals(ticket.getQrCodeData()))
+                .findFirst();
+    }
+
+    // purchase_date est écrit en heure locale du nœud (LocalDateTime.now())
+    private static Optional<LocalDateTime> purchaseDateHint(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return ShardIdGenerator.createdAt(id).map(created -> LocalDateTime.ofInstant(created, ZoneId.systemDefault()));
+    }
+
+    List<Ticket> findByUserIdAndStatus(Long userId, TicketStatus status);
 
     // Count methods for statistics
     long countByUserId(Long userId);
-    long countByUserIdAndStatus(Long userId, String status);
+    long countByUserIdAndStatus(Long userId, TicketStatus status);
 
     // Validation statistics methods
-    long countByStatus(String status);
+    long countByStatus(TicketStatus status);
+    long countByStatusIn(Collection<TicketStatus> statuses);
+    long countByValidationDateGreaterThanEqual(LocalDateTime since);
 
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.status = :status AND t.validationDate >= :startDate")
-    long countByStatusAndValidationDateAfter(@Param("status") String status, @Param("startDate") LocalDateTime startDate);
+    long countByStatusAndValidationDateAfter(@Param("status") TicketStatus status, @Param("startDate") LocalDateTime startDate);
 
     @Query("SELECT COUNT(t) FROM Ticket t WHERE t.status = :status AND t.validationDate >= :startDate AND t.validationDate <= :endDate")
-    long countByStatusAndValidationDateBetween(@Param("status") String status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    long countByStatusAndValidationDateBetween(@Param("status") TicketStatus status, @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
     // Get validated tickets for history
-    List<Ticket> findByStatusOrderByValidationDateDesc(String status);
+    List<Ticket> findTop100ByValidationDateGreaterThanEqualOrderByValidationDateDesc(LocalDateTime since);
+
+    List<Ticket> findByStatusOrderByValidationDateDesc(TicketStatus status);
 
     @Query("SELECT t FROM Ticket t WHERE t.status = :status ORDER BY t.validationDate DESC")
-    List<Ticket> findValidatedTicketsOrderByDateDesc(@Param("status") String status);
-}
\ No newline at end of file
+    List<Ticket> findValidatedTicketsOrderByDateDesc(@Param("status") TicketStatus status);
+
+    // Archivage : lot verrouillé, les lignes déjà prises par une autre instance sont sautées
+    @Query(value = "SELECT * FROM tickets t WHERE t.purchase_date < :cutoff "
+            + "AND NOT EXISTS (SELECT 1 FROM refunds r WHERE r.ticket_id = t.id AND r.status = 'PENDING') "
+            + "ORDER BY t.purchase_date LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Ticket> lockArchivableBatch(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Remboursements refusés en masse : un seul UPDATE par lot, la version avance comme après un save
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Ticket t SET t.status = :to, t.version = t.version + 1 WHERE t.id IN :ids AND t.status = :from")
+    int updateStatusBatch(@Param("ids") Collection<Long> ids, @Param("from") TicketStatus from, @Param("to") TicketStatus to);
+}
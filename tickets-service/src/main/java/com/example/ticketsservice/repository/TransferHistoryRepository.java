@@ -1,11 +1,13 @@
 package com.example.ticketsservice.repository;
 
 import com.example.ticketsservice.model.TransferHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,15 +16,43 @@ public interface TransferHistoryRepository extends JpaRepository<TransferHistory
     // Find all transfers for a ticket
     List<TransferHistory> findByTicketIdOrderByTransferDateDesc(Long ticketId);
 
-    // Find all transfers sent by a user
-    List<TransferHistory> findByFromUserIdOrderByTransferDateDesc(Long fromUserId);
-
-    // Find all transfers received by a user
-    List<TransferHistory> findByToUserIdOrderByTransferDateDesc(Long toUserId);
-
-    // Find all transfers involving a user (sent or received)
-    @Query("SELECT t FROM TransferHistory t WHERE t.fromUserId = :userId OR t.toUserId = :userId ORDER BY t.transferDate DESC")
-    List<TransferHistory> findAllByUserId(@Param("userId") Long userId);
+    // Pagination par curseur (keyset) : les lignes strictement avant (beforeDate, beforeId),
+    // lues dans l'ordre des index (from_user_id, transfer_date) et (to_user_id, transfer_date)
+
+    // Find transfers sent by a user
+    @Query("SELECT t FROM TransferHistory t WHERE t.fromUserId = :userId "
+            + "AND (t.transferDate < :beforeDate OR (t.transferDate = :beforeDate AND t.id < :beforeId)) "
+            + "ORDER BY t.transferDate DESC, t.id DESC")
+    List<TransferHistory> findSentPage(@Param("userId") Long userId,
+                                       @Param("beforeDate") LocalDateTime beforeDate,
+                                       @Param("beforeId") Long beforeId,
+                                       Limit limit);
+
+    // Find transfers received by a user
+    @Query("SELECT t FROM TransferHistory t WHERE t.toUserId = :userId "
+            + "AND (t.transferDate < :beforeDate OR (t.transferDate = :beforeDate AND t.id < :beforeId)) "
+            + "ORDER BY t.transferDate DESC, t.id DESC")
+    List<TransferHistory> findReceivedPage(@Param("userId") Long userId,
+                                           @Param("beforeDate") LocalDateTime beforeDate,
+                                           @Param("beforeId") Long beforeId,
+                                           Limit limit);
+
+    // Find all transfers involving a user (sent or received).
+    // Un OR sur deux colonnes ne peut s'appuyer que sur une fusion d'index : chaque branche de l'UNION
+    // lit au plus une page dans l'ordre de son index, puis les deux pages sont fusionnées sur la clé
+    @Query(value = "(SELECT * FROM transfer_history WHERE from_user_id = :userId "
+            + "AND (transfer_date < :beforeDate OR (transfer_date = :beforeDate AND id < :beforeId)) "
+            + "ORDER BY transfer_date DESC, id DESC LIMIT :limit) "
+            + "UNION "
+            + "(SELECT * FROM transfer_history WHERE to_user_id = :userId "
+            + "AND (transfer_date < :beforeDate OR (transfer_date = :beforeDate AND id < :beforeId)) "
+            + "ORDER BY transfer_date DESC, id DESC LIMIT :limit) "
+            + "ORDER BY transfer_date DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<TransferHistory> findPageByUserId(@Param("userId") Long userId,
+                                           @Param("beforeDate") LocalDateTime beforeDate,
+                                           @Param("beforeId") Long beforeId,
+                                           @Param("limit") int limit);
 
     // Count transfers sent by a user
     long countByFromUserId(Long fromUserId);
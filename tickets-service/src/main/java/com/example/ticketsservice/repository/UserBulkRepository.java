@@ -0,0 +1,44 @@
+package com.example.ticketsservice.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.example.ticketsservice.model.User;
+
+/**
+ * Écriture groupée de la copie locale des utilisateurs : un seul INSERT multi-lignes par lot,
+ * les identifiants déjà présents étant mis à jour (événement rejoué ou profil modifié).
+ * Syntaxe MySQL ; à appeler dans le contexte du shard visé.
+ */
+@Repository
+public class UserBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserBulkRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public int upsert(Collection<User> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO users (id, email, first_name, last_name) VALUES ");
+        List<Object> args = new ArrayList<>(users.size() * 4);
+        for (User user : users) {
+            sql.append(args.isEmpty() ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+            args.add(user.getId());
+            args.add(user.getEmail());
+            args.add(user.getFirstName());
+            args.add(user.getLastName());
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE email = VALUES(email), first_name = VALUES(first_name), last_name = VALUES(last_name)");
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+}
@@ -14,6 +14,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import com.example.ticketsservice.dto.QrCodePayload;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
@@ -29,6 +32,8 @@ public class BarcodeService {
     private static final Logger log = LoggerFactory.getLogger(BarcodeService.class);
     private static final int QR_CODE_WIDTH = 300;
     private static final int QR_CODE_HEIGHT = 300;
+    private static final String TICKET_PREFIX = "TICKET-";
+    private static final String SUBSCRIPTION_PREFIX = "SUB-";
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -106,6 +111,81 @@ public class BarcodeService {
         return Base64.getEncoder().encodeToString(imageBytes);
     }
 
+    /**
+     * Classe un payload scanné sans le désérialiser : lecture en flux des champs de premier niveau,
+     * arrêtée dès que le type et l'identifiant correspondant sont connus.
+     */
+    public QrCodePayload classify(String qrCodeData) {
+        if (qrCodeData == null || qrCodeData.isBlank()) {
+            return QrCodePayload.UNKNOWN;
+        }
+        if (qrCodeData.startsWith(TICKET_PREFIX)) {
+            return new QrCodePayload(QrCodePayload.Kind.TICKET, fallbackId(qrCodeData, TICKET_PREFIX), false);
+        }
+        if (qrCodeData.startsWith(SUBSCRIPTION_PREFIX)) {
+            return new QrCodePayload(QrCodePayload.Kind.SUBSCRIPTION, fallbackId(qrCodeData, SUBSCRIPTION_PREFIX), false);
+        }
+        if (!qrCodeData.startsWith("{")) {
+            return QrCodePayload.UNKNOWN;
+        }
+        String type = null;
+        Long ticketId = null;
+        Long subscriptionId = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(qrCodeData)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value.isStructStart()) {
+                    parser.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case "type" -> type = parser.getValueAsString();
+                    case "ticketId" -> ticketId = idValue(parser);
+                    case "subscriptionId" -> subscriptionId = idValue(parser);
+                    default -> { }
+                }
+                if ("TICKET".equals(type) && ticketId != null
+                        || "SUBSCRIPTION".equals(type) && subscriptionId != null) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("QR code JSON illisible: {}", e.getMessage());
+            return QrCodePayload.UNKNOWN;
+        }
+        if ("SUBSCRIPTION".equals(type) || type == null && subscriptionId != null && ticketId == null) {
+            return new QrCodePayload(QrCodePayload.Kind.SUBSCRIPTION, subscriptionId, true);
+        }
+        if ("TICKET".equals(type) || type == null && ticketId != null) {
+            return new QrCodePayload(QrCodePayload.Kind.TICKET, ticketId, true);
+        }
+        return QrCodePayload.UNKNOWN;
+    }
+
+    private static Long idValue(JsonParser parser) throws IOException {
+        String text = parser.getValueAsString();
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Format de secours : PREFIX{id}-{code}
+    private static Long fallbackId(String qrCodeData, String prefix) {
+        int end = qrCodeData.indexOf('-', prefix.length());
+        try {
+            return Long.parseLong(qrCodeData.substring(prefix.length(), end > 0 ? end : qrCodeData.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Decode QR code data from JSON string
      */
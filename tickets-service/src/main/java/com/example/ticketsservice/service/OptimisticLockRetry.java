@@ -0,0 +1,92 @@
+package com.example.ticketsservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ticketsservice.exception.ConcurrentTicketUpdateException;
+
+/**
+ * Transitions d'état sous verrouillage optimiste (@Version sur Ticket et Refund).
+ * Une transition idempotente est rejouée dans une nouvelle transaction, qui relit l'état et revalide
+ * les règles métier ; les autres échouent au premier conflit avec une ConcurrentTicketUpdateException (409).
+ */
+@Component
+public class OptimisticLockRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockRetry.class);
+
+    private final TransactionTemplate transaction;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final TicketMetrics ticketMetrics;
+
+    public OptimisticLockRetry(PlatformTransactionManager transactionManager,
+                               @Value("${tickets.concurrency.max-attempts:3}") int maxAttempts,
+                               @Value("${tickets.concurrency.retry-backoff:20ms}") Duration backoff,
+                               TicketMetrics ticketMetrics) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.ticketMetrics = ticketMetrics;
+    }
+
+    /**
+     * Transition idempotente : rejouée jusqu'à maxAttempts fois en cas de conflit de version.
+     */
+    public <T> T retrying(String operation, Supplier<T> transition) {
+        return execute(operation, transition, maxAttempts);
+    }
+
+    /**
+     * Transition à effets de bord (transfert, remboursement) : un conflit est renvoyé tel quel au client.
+     */
+    public <T> T once(String operation, Supplier<T> transition) {
+        return execute(operation, transition, 1);
+    }
+
+    private <T> T execute(String operation, Supplier<T> transition, int attempts) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Transaction englobante : impossible de rejouer ici, le conflit remonte à l'appelant
+            return transition.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> transition.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= attempts) {
+                    ticketMetrics.recordOptimisticConflict(operation, "rejected");
+                    log.warn("Conflit de mise à jour concurrente sur {} après {} tentative(s)", operation, attempt);
+                    throw new ConcurrentTicketUpdateException(
+                            "Le ticket a été modifié par une autre opération, veuillez réessayer.", e);
+                }
+                ticketMetrics.recordOptimisticConflict(operation, "retried");
+                log.debug("Conflit de version sur {}, tentative {}/{}", operation, attempt, attempts);
+                pause(attempt, e);
+            }
+        }
+    }
+
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        long maxMillis = backoff.toMillis() * attempt;
+        if (maxMillis <= 0) {
+            return;
+        }
+        try {
+            // Attente aléatoire croissante : les perdants ne se représentent pas ensemble
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentTicketUpdateException("Nouvelle tentative interrompue", conflict);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.ticketsservice.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ticketsservice.config.datasource.ReadYourWritesGuard;
+import com.example.ticketsservice.config.sharding.ShardContext;
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.controller.NotificationController;
+import com.example.ticketsservice.dto.BulkRefundResult;
+import com.example.ticketsservice.model.Refund;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.repository.RefundRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Approbation ou refus en masse des demandes de remboursement (back-office, après une perturbation).
+ * Chaque lot est une transaction courte : verrouillage des demandes encore en attente, puis un UPDATE
+ * ensembliste sur refunds et, pour un refus, un autre sur tickets. Les notifications partent après le
+ * commit du lot, une par utilisateur ; un lot en échec est annulé sans toucher aux lots déjà validés,
+ * et le traitement s'arrête là : le résultat indique l'avancement et l'erreur. Relancer la même demande
+ * ne reprend que les demandes encore en attente.
+ */
+@Service
+public class RefundBulkProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(RefundBulkProcessor.class);
+
+    private final RefundRepository refundRepository;
+    private final TicketRepository ticketRepository;
+    private final ShardRouter shardRouter;
+    private final NotificationController notificationController;
+    private final TicketCache ticketCache;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final TicketMetrics ticketMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public RefundBulkProcessor(RefundRepository refundRepository,
+                               TicketRepository ticketRepository,
+                               ShardRouter shardRouter,
+                               NotificationController notificationController,
+                               TicketCache ticketCache,
+                               ReadYourWritesGuard readYourWritesGuard,
+                               TicketMetrics ticketMetrics,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${tickets.refunds.bulk.chunk-size:500}") int chunkSize) {
+        this.refundRepository = refundRepository;
+        this.ticketRepository = ticketRepository;
+        this.shardRouter = shardRouter;
+        this.notificationController = notificationController;
+        this.ticketCache = ticketCache;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.ticketMetrics = ticketMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param refundIds demandes à traiter ; {@code null} ou vide : toutes celles en attente, sur chaque shard
+     */
+    public BulkRefundResult process(Collection<Long> refundIds, boolean approved, String adminNotes) {
+        String status = approved ? "COMPLETED" : "REJECTED";
+        String decision = approved ? "approved" : "rejected";
+        Timer.Sample sample = ticketMetrics.start();
+        String outcome = "error";
+        long start = System.nanoTime();
+        Progress progress = new Progress(decision);
+        try {
+            if (refundIds == null || refundIds.isEmpty()) {
+                for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                    try (var ignored = ShardContext.use(shard)) {
+                        List<Refund> batch;
+                        do {
+                            batch = processChunk(() -> refundRepository.lockPendingBatch(Limit.of(chunkSize)),
+                                    status, adminNotes, progress);
+                        } while (batch.size() == chunkSize);
+                    }
+                }
+            } else {
+                Collection<Long> requested = new LinkedHashSet<>(refundIds);
+                Map<Integer, List<Long>> byShard = byShard(requested);
+                progress.skipped = requested.size() - byShard.values().stream().mapToInt(List::size).sum();
+                for (Map.Entry<Integer, List<Long>> shard : byShard.entrySet()) {
+                    try (var ignored = ShardContext.use(shard.getKey())) {
+                        List<Long> ids = shard.getValue();
+                        for (int from = 0; from < ids.size(); from += chunkSize) {
+                            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                            List<Refund> processed = processChunk(() -> refundRepository.lockPendingByIds(chunk),
+                                    status, adminNotes, progress);
+                            progress.skipped += chunk.size() - processed.size();
+                        }
+                    }
+                }
+            }
+            outcome = "success";
+        } catch (RuntimeException e) {
+            progress.error = "Lot " + (progress.chunks + 1) + " en échec : " + e.getMessage();
+            log.error("Remboursements en masse interrompus - Statut: {}, {} traités en {} lots avant l'échec: {}",
+                    status, progress.processed, progress.chunks, e.getMessage(), e);
+        } finally {
+            ticketMetrics.stopBulkRefundProcessing(sample, decision, outcome);
+        }
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        if (progress.error == null) {
+            log.info("Remboursements en masse terminés - Statut: {}, {} traités, {} ignorés, {} lots en {} ms",
+                    status, progress.processed, progress.skipped, progress.chunks, durationMs);
+        }
+        return new BulkRefundResult(status, progress.processed, progress.skipped, progress.chunks, durationMs,
+                progress.error);
+    }
+
+    private List<Refund> processChunk(Supplier<List<Refund>> lock, String status, String adminNotes, Progress progress) {
+        List<Refund> refunds = transactionTemplate.execute(tx -> {
+            List<Refund> locked = lock.get();
+            if (locked.isEmpty()) {
+                return locked;
+            }
+            List<Long> ids = locked.stream().map(Refund::getId).toList();
+            refundRepository.processBatch(ids, status, LocalDateTime.now(), adminNotes);
+            if ("REJECTED".equals(status)) {
+                // Le ticket annulé à la demande redevient valide
+                List<Long> ticketIds = locked.stream().map(Refund::getTicketId).toList();
+                ticketRepository.updateStatusBatch(ticketIds, TicketStatus.ANNULE, TicketStatus.VALIDE);
+                ticketCache.ticketsUpdated(ticketIds);
+            }
+            return locked;
+        });
+        if (refunds.isEmpty()) {
+            return refunds;
+        }
+
+        progress.chunks++;
+        progress.processed += refunds.size();
+        ticketMetrics.recordBulkRefundChunk(progress.decision, refunds.size());
+        log.info("Remboursements en masse - lot {} : {} demandes {} ({} au total)",
+                progress.chunks, refunds.size(), status, progress.processed);
+
+        // Après le commit : un utilisateur ne doit jamais être notifié d'un lot annulé
+        Map<Long, List<Refund>> byUser = refunds.stream()
+                .collect(Collectors.groupingBy(Refund::getUserId, LinkedHashMap::new, Collectors.toList()));
+        byUser.forEach((userId, userRefunds) -> {
+            readYourWritesGuard.recordWrite(userId);
+            try {
+                notificationController.notifyRefundStatuses(userId, status, userRefunds, adminNotes);
+            } catch (Exception e) {
+                log.error("Échec de l'envoi de la notification de remboursement à l'utilisateur {}: {}", userId, e.getMessage());
+            }
+        });
+        return refunds;
+    }
+
+    private Map<Integer, List<Long>> byShard(Collection<Long> refundIds) {
+        Map<Integer, List<Long>> byShard = new TreeMap<>();
+        for (Long refundId : refundIds) {
+            // Identifiant d'un shard inexistant : aucun remboursement à traiter, compté comme ignoré
+            if (shardRouter.routes(refundId)) {
+                byShard.computeIfAbsent(shardRouter.shardForId(refundId), shard -> new ArrayList<>()).add(refundId);
+            }
+        }
+        return byShard;
+    }
+
+    private static final class Progress {
+        private final String decision;
+        private int processed;
+        private int skipped;
+        private int chunks;
+        private String error;
+
+        private Progress(String decision) {
+            this.decision = decision;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.ticketsservice.service;
+
+import java.io.IOException;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.example.ticketsservice.config.SubscriptionClientProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Validation des QR codes d'abonnement auprès de subscription-service, derrière un pool de connexions
+ * borné, des délais courts et un disjoncteur : un service d'abonnements lent ou arrêté coûte au plus
+ * {@code responseTimeout} par requête, puis plus rien tant que le circuit est ouvert. Les abonnements
+ * valides sont gardés quelques secondes par QR code (un contrôleur rescanne souvent le même abonnement) ;
+ * les refus et les erreurs ne sont jamais mis en cache, pour qu'un abonnement tout juste payé passe aussitôt.
+ */
+@Component
+public class SubscriptionValidationClient {
+
+    private static final Logger log = LoggerFactory.getLogger(SubscriptionValidationClient.class);
+
+    static final String UNAVAILABLE = "{\"valid\": false, \"message\": \"Service d'abonnements non disponible\"}";
+
+    private final CloseableHttpClient httpClient;
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, String> validations;
+
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Counter fallbacks;
+
+    public SubscriptionValidationClient(SubscriptionClientProperties properties,
+                                        RestClient.Builder restClientBuilder,
+                                        CircuitBreakerRegistry circuitBreakerRegistry,
+                                        ObjectMapper objectMapper,
+                                        MeterRegistry registry) {
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(properties.getMaxConnections())
+                        .setMaxConnPerRoute(properties.getMaxConnections())
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getResponseTimeout()))
+                        .build())
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                .build();
+        this.restClient = restClientBuilder
+                .baseUrl(properties.getUrl())
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("subscriptionService");
+        this.objectMapper = objectMapper;
+        this.validations = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getCache().getTtl())
+                .maximumSize(properties.getCache().getMaximumSize())
+                .build();
+        this.cacheHits = validations(registry, "hit");
+        this.cacheMisses = validations(registry, "miss");
+        this.fallbacks = validations(registry, "unavailable");
+    }
+
+    public ResponseEntity<String> validateQrCode(String qrCode) {
+        String cached = validations.getIfPresent(qrCode);
+        if (cached != null) {
+            cacheHits.increment();
+            return json(HttpStatus.OK, cached);
+        }
+        cacheMisses.increment();
+        try {
+            String body = circuitBreaker.executeSupplier(() -> restClient.get()
+                    .uri("/api/subscriptions/validate-qr/{qrCode}", qrCode)
+                    .retrieve()
+                    .body(String.class));
+            // Un 2xx sans corps n'est pas une réponse de validation : le scanner attend un JSON
+            if (body == null || body.isBlank()) {
+                fallbacks.increment();
+                log.warn("Validation d'abonnement : réponse vide de subscription-service");
+                return json(HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE);
+            }
+            if (isValid(body)) {
+                validations.put(qrCode, body);
+            }
+            return json(HttpStatus.OK, body);
+        } catch (CallNotPermittedException e) {
+            fallbacks.increment();
+            return json(HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE);
+        } catch (RestClientException e) {
+            fallbacks.increment();
+            log.warn("Validation d'abonnement impossible: {}", e.getMessage());
+            return json(HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE);
+        }
+    }
+
+    private boolean isValid(String body) {
+        try {
+            return objectMapper.readTree(body).path("valid").asBoolean(false);
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        httpClient.close();
+    }
+
+    private static ResponseEntity<String> json(HttpStatus status, String body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private static Counter validations(MeterRegistry registry, String outcome) {
+        return Counter.builder("tickets.subscriptions.validations")
+                .description("Validations de QR code d'abonnement par issue (cache, appel, service indisponible)")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
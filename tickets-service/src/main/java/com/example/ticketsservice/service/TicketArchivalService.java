@@ -0,0 +1,160 @@
+package com.example.ticketsservice.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ticketsservice.config.sharding.ShardContext;
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.model.ArchivedTicket;
+import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.repository.ArchivedTicketRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Archivage à froid : les tickets achetés avant la rétention (tous expirés ou utilisés) quittent la
+ * table chaude par lots bornés, vers {@code tickets_archive} en JSON gzip. Ils restent consultables
+ * par identifiant via {@link #findArchived(Long)}.
+ */
+@Service
+public class TicketArchivalService {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketArchivalService.class);
+
+    private final TicketRepository ticketRepository;
+    private final ArchivedTicketRepository archivedTicketRepository;
+    private final TicketPartitionMaintenance partitionMaintenance;
+    private final ShardRouter shardRouter;
+    private final TicketMetrics ticketMetrics;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration batchPause;
+
+    public TicketArchivalService(TicketRepository ticketRepository,
+                                 ArchivedTicketRepository archivedTicketRepository,
+                                 TicketPartitionMaintenance partitionMaintenance,
+                                 ShardRouter shardRouter,
+                                 TicketMetrics ticketMetrics,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${tickets.archive.enabled:true}") boolean enabled,
+                                 @Value("${tickets.archive.retention:365d}") Duration retention,
+                                 @Value("${tickets.archive.batch-size:500}") int batchSize,
+                                 @Value("${tickets.archive.max-batches-per-run:200}") int maxBatchesPerRun,
+                                 @Value("${tickets.archive.batch-pause:200ms}") Duration batchPause) {
+        this.ticketRepository = ticketRepository;
+        this.archivedTicketRepository = archivedTicketRepository;
+        this.partitionMaintenance = partitionMaintenance;
+        this.shardRouter = shardRouter;
+        this.ticketMetrics = ticketMetrics;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.batchPause = batchPause;
+    }
+
+    /**
+     * Début de la fenêtre chaude : les requêtes courantes ne lisent pas au-delà.
+     */
+    public LocalDateTime hotWindowStart() {
+        return LocalDateTime.now().minus(retention);
+    }
+
+    @Scheduled(cron = "${tickets.archive.cron:0 30 3 * * *}")
+    public void archiveExpiredTickets() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = hotWindowStart();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (var ignored = ShardContext.use(shard)) {
+                int archived = archiveShard(cutoff);
+                partitionMaintenance.maintain(cutoff.toLocalDate());
+                log.info("Archivage du shard {} : {} tickets achetés avant {}", shard, archived, cutoff.toLocalDate());
+            } catch (Exception e) {
+                log.error("Archivage interrompu sur le shard {}: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    private int archiveShard(LocalDateTime cutoff) throws InterruptedException {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += archived;
+            if (archived < batchSize) {
+                break;
+            }
+            // Laisse respirer le primaire et la réplication entre deux lots
+            Thread.sleep(batchPause.toMillis());
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Ticket> tickets = ticketRepository.lockArchivableBatch(cutoff, batchSize);
+        if (tickets.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime archivedAt = LocalDateTime.now();
+        archivedTicketRepository.saveAll(tickets.stream().map(ticket -> toArchive(ticket, archivedAt)).toList());
+        ticketRepository.deleteAllByIdInBatch(tickets.stream().map(Ticket::getId).toList());
+        ticketMetrics.recordArchived(tickets.size());
+        return tickets.size();
+    }
+
+    /**
+     * Chemin lent : lecture et décompression depuis l'archive du shard courant.
+     */
+    public Optional<Ticket> findArchived(Long ticketId) {
+        return archivedTicketRepository.findById(ticketId).map(this::fromArchive);
+    }
+
+    private ArchivedTicket toArchive(Ticket ticket, LocalDateTime archivedAt) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, ticket);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Échec de la compression du ticket " + ticket.getId(), e);
+        }
+
+        ArchivedTicket archived = new ArchivedTicket();
+        archived.setId(ticket.getId());
+        archived.setUserId(ticket.getUserId());
+        archived.setPurchaseDate(ticket.getPurchaseDate());
+        archived.setArchivedAt(archivedAt);
+        archived.setPayload(bytes.toByteArray());
+        return archived;
+    }
+
+    private Ticket fromArchive(ArchivedTicket archived) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(archived.getPayload()))) {
+            return objectMapper.readValue(gzip, Ticket.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Archive illisible pour le ticket " + archived.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.ticketsservice.service;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.ticketsservice.config.cache.CacheInvalidationBus;
+import com.example.ticketsservice.config.cache.TicketCacheProperties;
+import com.example.ticketsservice.config.cache.TwoTierCache;
+import com.example.ticketsservice.model.Ticket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Lectures de tickets derrière le cache à deux niveaux (les utilisateurs passent par UserDirectory).
+ * Les écritures de TicketService remplacent l'entrée après le commit ; l'entrée porte la version
+ * du ticket, et un lecteur qui a chargé l'ancienne ligne avant ce commit ne peut plus l'écraser
+ * (voir TwoTierCache). Les transitions d'état
+ * relisent toujours la base : seule l'entité gérée porte la version du verrouillage optimiste.
+ * Chaque écriture est ensuite annoncée aux autres réplicas, qui purgent leur copie locale.
+ */
+@Component
+public class TicketCache {
+
+    private final boolean enabled;
+    private final TwoTierCache<Ticket> tickets;
+    private final CacheInvalidationBus invalidationBus;
+
+    public TicketCache(TicketCacheProperties properties,
+                       StringRedisTemplate redis,
+                       ObjectMapper objectMapper,
+                       MeterRegistry registry,
+                       CacheInvalidationBus invalidationBus) {
+        this.enabled = properties.isEnabled();
+        this.tickets = enabled ? new TwoTierCache<>("ticket", Ticket.class, TicketCache::version, redis, objectMapper, properties, registry) : null;
+        this.invalidationBus = invalidationBus;
+        if (enabled) {
+            invalidationBus.register(tickets);
+        }
+    }
+
+    public Optional<Ticket> ticket(Long ticketId, Supplier<Optional<Ticket>> loader) {
+        return enabled ? tickets.get(ticketKey(ticketId), loader) : loader.get();
+    }
+
+    public void ticketSaved(Ticket ticket) {
+        if (enabled) {
+            afterCommit(() -> {
+                tickets.put(ticketKey(ticket.getId()), ticket);
+                invalidationBus.invalidate(tickets, ticketKey(ticket.getId()));
+            });
+        }
+    }
+
+    public void ticketDeleted(Long ticketId) {
+        if (enabled) {
+            afterCommit(() -> {
+                tickets.evict(ticketKey(ticketId));
+                invalidationBus.invalidate(tickets, ticketKey(ticketId));
+            });
+        }
+    }
+
+    /**
+     * Tickets modifiés par un UPDATE en masse : aucune entité à remettre en cache, les entrées sont purgées.
+     */
+    public void ticketsUpdated(Collection<Long> ticketIds) {
+        if (enabled && !ticketIds.isEmpty()) {
+            afterCommit(() -> ticketIds.forEach(ticketId -> {
+                tickets.evict(ticketKey(ticketId));
+                invalidationBus.invalidate(tickets, ticketKey(ticketId));
+            }));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Ticket archivé, sans version : il ne change plus
+    private static long version(Ticket ticket) {
+        return ticket.getVersion() != null ? ticket.getVersion() : 0;
+    }
+
+    private static String ticketKey(Long ticketId) {
+        return String.valueOf(ticketId);
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.ticketsservice.service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.springframework.stereotype.Component;
+
+import com.example.ticketsservice.dto.QrValidationResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters Micrometer des chemins critiques du service de tickets.
+ * Les tags restent à faible cardinalité (outcome, event, destination) : jamais d'ID utilisateur ou de ticket.
+ */
+@Component
+public class TicketMetrics {
+
+    public enum ValidationOutcome {
+        // ERROR : exception (base injoignable, conflit non résolu), sans réponse à classer
+        VALID, EXPIRED, CANCELLED, USED, NOT_FOUND, ERROR;
+
+        public static ValidationOutcome of(QrValidationResponse response) {
+            if (response.isValid()) {
+                return VALID;
+            }
+            if (response.getTicketId() == null) {
+                return NOT_FOUND;
+            }
+            return switch (String.valueOf(response.getStatus())) {
+                case "ANNULE" -> CANCELLED;
+                case "UTILISE" -> USED;
+                default -> EXPIRED;
+            };
+        }
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final MeterRegistry registry;
+    private final Map<ValidationOutcome, Timer> validationTimers = new EnumMap<>(ValidationOutcome.class);
+    private final Timer qrRenderTimer;
+    private final Counter archivedCounter;
+    private final DistributionSummary userSyncBatchSize;
+    private final DistributionSummary notificationsPerFrame;
+    private final Timer notificationDispatchLag;
+    private final Counter notificationRejected;
+    private final Timer userSyncLag;
+
+    public TicketMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (ValidationOutcome outcome : ValidationOutcome.values()) {
+            validationTimers.put(outcome, latencyTimer("tickets.validation", "Validation d'un ticket par QR code")
+                    .tag("outcome", outcome.tag())
+                    .register(registry));
+        }
+        this.qrRenderTimer = latencyTimer("tickets.qr.render", "Génération de l'image QR code")
+                .register(registry);
+        this.archivedCounter = Counter.builder("tickets.archive.archived")
+                .description("Tickets déplacés vers l'archive")
+                .register(registry);
+        this.userSyncBatchSize = DistributionSummary.builder("tickets.users.sync.batch.size")
+                .description("Événements user.registered par lot")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(registry);
+        this.notificationsPerFrame = DistributionSummary.builder("tickets.websocket.notifications.per.frame")
+                .description("Notifications personnelles regroupées dans une trame STOMP")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(100.0)
+                .register(registry);
+        this.notificationDispatchLag = Timer.builder("tickets.notifications.dispatch.lag")
+                .description("Délai entre la décision d'une notification (dans la transaction) et son envoi après commit")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+        this.notificationRejected = Counter.builder("tickets.notifications.dispatch.rejected")
+                .description("Notifications abandonnées, file d'envoi pleine")
+                .register(registry);
+        this.userSyncLag = Timer.builder("tickets.users.sync.lag")
+                .description("Délai entre la publication d'un user.registered et son écriture locale")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(10))
+                .register(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stopPurchase(Timer.Sample sample, String outcome) {
+        sample.stop(latencyTimer("tickets.purchase", "Achat d'un ticket")
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    public void stopValidation(Timer.Sample sample, ValidationOutcome outcome) {
+        sample.stop(validationTimers.get(outcome));
+    }
+
+    public void stopTransfer(Timer.Sample sample, String outcome) {
+        sample.stop(latencyTimer("tickets.transfer", "Transfert d'un ticket")
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    public void stopRefundProcessing(Timer.Sample sample, String decision, String outcome) {
+        sample.stop(latencyTimer("tickets.refund.process", "Traitement d'une demande de remboursement")
+                .tag("decision", decision)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    public void stopBulkRefundProcessing(Timer.Sample sample, String decision, String outcome) {
+        sample.stop(latencyTimer("tickets.refund.bulk", "Traitement en masse de demandes de remboursement")
+                .tag("decision", decision)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    public void recordBulkRefundChunk(String decision, int processed) {
+        registry.counter("tickets.refund.bulk.processed", "decision", decision).increment(processed);
+    }
+
+    public <T> T recordQrRender(Callable<T> render) throws Exception {
+        return qrRenderTimer.recordCallable(render);
+    }
+
+    public void recordEventPublish(String routingKey, Runnable publish) {
+        latencyTimer("tickets.event.publish", "Publication d'un événement RabbitMQ")
+                .tag("event", routingKey)
+                .register(registry)
+                .record(publish);
+    }
+
+    public void recordWebSocketSend(String destinationKind, Runnable send) {
+        latencyTimer("tickets.websocket.send", "Envoi d'une notification WebSocket")
+                .tag("destination", destinationKind)
+                .register(registry)
+                .record(send);
+    }
+
+    public void recordNotificationsPerFrame(int count) {
+        notificationsPerFrame.record(count);
+    }
+
+    public void recordNotificationDispatchLag(Duration lag) {
+        notificationDispatchLag.record(lag);
+    }
+
+    public void recordNotificationRejected() {
+        notificationRejected.increment();
+    }
+
+    /** routing : payload (type lu dans le QR code), hint (choix du scanner), fallback ou default (code inconnu). */
+    public void recordScan(String kind, String routing) {
+        registry.counter("tickets.scan", "kind", kind, "routing", routing).increment();
+    }
+
+    public void recordOptimisticConflict(String operation, String outcome) {
+        registry.counter("tickets.optimistic.conflict", "operation", operation, "outcome", outcome).increment();
+    }
+
+    public void recordUserSyncBatch(int size) {
+        userSyncBatchSize.record(size);
+    }
+
+    public void recordUserSyncRejected(String reason) {
+        registry.counter("tickets.users.sync.rejected", "reason", reason).increment();
+    }
+
+    public void recordUserSyncLag(Duration lag) {
+        userSyncLag.record(lag);
+    }
+
+    public void recordArchived(int count) {
+        archivedCounter.increment(count);
+    }
+
+    private static Timer.Builder latencyTimer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10));
+    }
+}
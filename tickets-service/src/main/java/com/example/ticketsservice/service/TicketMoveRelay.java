@@ -0,0 +1,177 @@
+package com.example.ticketsservice.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.config.sharding.ShardedQueries;
+import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.TicketMove;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.TicketType;
+import com.example.ticketsservice.model.TransferHistory;
+import com.example.ticketsservice.repository.TicketMoveRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+import com.example.ticketsservice.repository.TransferHistoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Transfert d'un ticket vers le shard de son destinataire en deux temps. Sur le shard d'origine, la
+ * suppression du ticket et l'écriture de la {@link TicketMove} sont validées ensemble ; après le commit,
+ * le ticket est recréé sur le shard cible puis la TicketMove supprimée. Un ticket n'est donc jamais
+ * valide sur deux shards : au pire (arrêt entre les deux étapes) il manque au destinataire jusqu'à la
+ * reprise périodique. L'application est idempotente : un ticket déjà présent sur le shard cible n'est
+ * pas recréé.
+ */
+@Component
+public class TicketMoveRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketMoveRelay.class);
+
+    /** Ticket recréé et historique du destinataire, tels qu'écrits sur le shard cible. */
+    record Payload(Long userId, TicketType ticketType, TicketStatus status, LocalDateTime purchaseDate,
+                   Integer originalPriceCents, Integer discountApplied, Integer finalPriceCents,
+                   String qrCodeData, String qrCodeImage, TransferHistory recipientHistory) {
+    }
+
+    private final TicketMoveRepository ticketMoveRepository;
+    private final TicketRepository ticketRepository;
+    private final TransferHistoryRepository transferHistoryRepository;
+    private final ShardRouter shardRouter;
+    private final ShardedQueries shardedQueries;
+    private final ObjectMapper objectMapper;
+    private final Duration retryDelay;
+    private final int retryBatchSize;
+
+    public TicketMoveRelay(TicketMoveRepository ticketMoveRepository,
+                           TicketRepository ticketRepository,
+                           TransferHistoryRepository transferHistoryRepository,
+                           ShardRouter shardRouter,
+                           ShardedQueries shardedQueries,
+                           ObjectMapper objectMapper,
+                           @Value("${tickets.sharding.moves.retry-delay:30s}") Duration retryDelay,
+                           @Value("${tickets.sharding.moves.retry-batch-size:100}") int retryBatchSize) {
+        this.ticketMoveRepository = ticketMoveRepository;
+        this.ticketRepository = ticketRepository;
+        this.transferHistoryRepository = transferHistoryRepository;
+        this.shardRouter = shardRouter;
+        this.shardedQueries = shardedQueries;
+        this.objectMapper = objectMapper;
+        this.retryDelay = retryDelay;
+        this.retryBatchSize = retryBatchSize;
+    }
+
+    /**
+     * Enregistre le transfert dans la transaction courante (shard d'origine) et programme son application
+     * après le commit. Une transaction annulée n'a rien écrit : il n'y a rien à défaire.
+     */
+    public void stage(Ticket source, Ticket copy, TransferHistory recipientHistory, int targetShard) {
+        TicketMove move = new TicketMove();
+        move.setId(copy.getId());
+        move.setSourceTicketId(source.getId());
+        move.setTargetShard(targetShard);
+        move.setPayload(write(new Payload(copy.getUserId(), copy.getTicketType(), copy.getStatus(),
+                copy.getPurchaseDate(), copy.getOriginalPriceCents(), copy.getDiscountApplied(),
+                copy.getFinalPriceCents(), copy.getQrCodeData(), copy.getQrCodeImage(), recipientHistory)));
+        move.setCreatedAt(LocalDateTime.now());
+        TicketMove staged = ticketMoveRepository.save(move);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(staged);
+                }
+            });
+        } else {
+            apply(staged);
+        }
+    }
+
+    /**
+     * Reprise des transferts validés sur leur shard d'origine mais pas encore appliqués (arrêt du pod,
+     * shard cible indisponible). Plusieurs réplicas peuvent reprendre le même : l'application est idempotente.
+     */
+    @Scheduled(fixedDelayString = "${tickets.sharding.moves.retry-interval:30s}")
+    public void retryPending() {
+        if (shardRouter.shardCount() == 1) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(retryDelay);
+        List<List<TicketMove>> pending = shardedQueries.scatter(shard ->
+                ticketMoveRepository.findByCreatedAtBeforeOrderByCreatedAt(before, Limit.of(retryBatchSize)));
+        pending.forEach(moves -> moves.forEach(move -> {
+            log.info("Reprise du transfert du ticket {} vers le shard {}", move.getSourceTicketId(), move.getTargetShard());
+            apply(move);
+        }));
+    }
+
+    boolean apply(TicketMove move) {
+        try {
+            Payload payload = read(move);
+            shardedQueries.inShard(move.getTargetShard(), () -> {
+                if (!ticketRepository.existsById(move.getId())) {
+                    ticketRepository.save(toTicket(move.getId(), payload));
+                    transferHistoryRepository.save(payload.recipientHistory());
+                }
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Appliqué en même temps par un autre réplica
+            log.debug("Transfert du ticket {} déjà appliqué: {}", move.getSourceTicketId(), e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Transfert du ticket {} vers le shard {} non appliqué, nouvelle tentative dans {}: {}",
+                    move.getSourceTicketId(), move.getTargetShard(), retryDelay, e.getMessage());
+            return false;
+        }
+        shardedQueries.inShard(shardRouter.shardForId(move.getSourceTicketId()), () -> {
+            ticketMoveRepository.deleteById(move.getId());
+            return null;
+        });
+        log.info("Ticket {} recréé sur le shard {} sous l'ID {}", move.getSourceTicketId(), move.getTargetShard(), move.getId());
+        return true;
+    }
+
+    private static Ticket toTicket(Long id, Payload payload) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setUserId(payload.userId());
+        ticket.setTicketType(payload.ticketType());
+        ticket.setStatus(payload.status());
+        ticket.setPurchaseDate(payload.purchaseDate());
+        ticket.setOriginalPriceCents(payload.originalPriceCents());
+        ticket.setDiscountApplied(payload.discountApplied());
+        ticket.setFinalPriceCents(payload.finalPriceCents());
+        ticket.setQrCodeData(payload.qrCodeData());
+        ticket.setQrCodeImage(payload.qrCodeImage());
+        return ticket;
+    }
+
+    private String write(Payload payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Transfert inter-shard non sérialisable", e);
+        }
+    }
+
+    private Payload read(TicketMove move) {
+        try {
+            return objectMapper.readValue(move.getPayload(), Payload.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Transfert inter-shard illisible: " + move.getId(), e);
+        }
+    }
+}
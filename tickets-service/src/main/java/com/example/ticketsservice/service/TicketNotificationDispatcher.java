@@ -0,0 +1,79 @@
+package com.example.ticketsservice.service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.ticketsservice.controller.NotificationController;
+import com.example.ticketsservice.event.TicketNotificationEvent;
+
+/**
+ * Envoi des notifications de TicketService après le commit, sur un pool borné dédié : la connexion JDBC
+ * est rendue sans attendre la sérialisation STOMP, et une transaction annulée ne notifie personne.
+ * File pleine : la notification est abandonnée (et comptée) plutôt que de ralentir la requête, le ticket
+ * restant consultable dans l'historique de l'utilisateur.
+ */
+@Component
+public class TicketNotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketNotificationDispatcher.class);
+
+    private final NotificationController notificationController;
+    private final TicketMetrics ticketMetrics;
+    private final ThreadPoolExecutor executor;
+
+    public TicketNotificationDispatcher(NotificationController notificationController,
+                                        TicketMetrics ticketMetrics,
+                                        @Value("${tickets.notifications.dispatch.threads:2}") int threads,
+                                        @Value("${tickets.notifications.dispatch.queue-capacity:1000}") int queueCapacity) {
+        this.notificationController = notificationController;
+        this.ticketMetrics = ticketMetrics;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "tickets-notify-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    // Hors transaction (appel direct, tests), l'événement part immédiatement
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotification(TicketNotificationEvent event) {
+        try {
+            executor.execute(() -> dispatch(event));
+        } catch (RejectedExecutionException e) {
+            ticketMetrics.recordNotificationRejected();
+            log.warn("File des notifications pleine, notification abandonnée : {}", event);
+        }
+    }
+
+    private void dispatch(TicketNotificationEvent event) {
+        ticketMetrics.recordNotificationDispatchLag(Duration.ofNanos(System.nanoTime() - event.publishedAt()));
+        try {
+            switch (event) {
+                case TicketNotificationEvent.Purchased purchased -> notificationController.notifyTicketPurchased(
+                        purchased.userId(), purchased.ticketId(), purchased.ticketType());
+                case TicketNotificationEvent.Validated validated -> notificationController.notifyTicketValidated(
+                        validated.userId(), validated.ticketId());
+                case TicketNotificationEvent.Transferred transferred -> notificationController.notifyTicketTransferred(
+                        transferred.fromUserId(), transferred.toUserId(), transferred.ticketId(), transferred.ticketType());
+                case TicketNotificationEvent.RefundProcessed refund -> notificationController.notifyRefundStatus(
+                        refund.userId(), refund.ticketId(), refund.status(), refund.message());
+            }
+        } catch (Exception e) {
+            log.error("Échec de l'envoi de la notification {}: {}", event, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ticketsservice.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entretien du partitionnement mensuel de {@code tickets} (voir V2__partition_tickets_by_month.sql) :
+ * crée les partitions des mois à venir en découpant {@code pmax}, et supprime les partitions
+ * entièrement archivées. Sans effet si la table n'est pas partitionnée.
+ * Le cron tourne sur chaque réplica : un verrou nommé MySQL (GET_LOCK) réserve l'entretien d'un shard
+ * à un seul d'entre eux, les autres passent leur tour.
+ */
+@Component
+public class TicketPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(TicketPartitionMaintenance.class);
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    // TO_DAYS('1970-01-01') côté MySQL
+    private static final long TO_DAYS_EPOCH = 719528;
+    private static final String LOCK_NAME = "tickets.partition-maintenance";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+
+    public TicketPartitionMaintenance(DataSource dataSource,
+                                      @Value("${tickets.archive.partitions-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * À appeler dans le contexte du shard à entretenir.
+     */
+    public void maintain(LocalDate archivedBefore) {
+        // Le verrou appartient à la connexion : tout l'entretien passe par elle, jusqu'à RELEASE_LOCK
+        Boolean maintained = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            JdbcTemplate locked = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Integer.valueOf(1).equals(locked.queryForObject("SELECT GET_LOCK(?, 0)", Integer.class, LOCK_NAME))) {
+                return false;
+            }
+            try {
+                maintain(locked, archivedBefore);
+            } finally {
+                locked.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(maintained)) {
+            log.info("Entretien des partitions déjà en cours sur un autre réplica, ignoré");
+        }
+    }
+
+    // Partitions relues sous le verrou : un réplica passé juste avant a pu en créer ou en supprimer
+    private void maintain(JdbcTemplate locked, LocalDate archivedBefore) {
+        List<Map<String, Object>> partitions = locked.queryForList(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'tickets' AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION");
+        if (partitions.isEmpty()) {
+            log.debug("Table tickets non partitionnée, entretien ignoré");
+            return;
+        }
+
+        createUpcomingPartitions(locked, partitions);
+        dropArchivedPartitions(locked, partitions, archivedBefore);
+    }
+
+    private void createUpcomingPartitions(JdbcTemplate locked, List<Map<String, Object>> partitions) {
+        YearMonth last = partitions.stream()
+                .map(p -> (String) p.get("PARTITION_NAME"))
+                .filter(name -> name.matches("p\\d{6}"))
+                .map(name -> YearMonth.parse(name, PARTITION_NAME))
+                .max(YearMonth::compareTo)
+                .orElse(YearMonth.now().minusMonths(1));
+
+        YearMonth target = YearMonth.now().plusMonths(monthsAhead);
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+            // pmax est vide en régime normal : la réorganisation est immédiate
+            locked.execute("ALTER TABLE tickets REORGANIZE PARTITION pmax INTO ("
+                    + "PARTITION " + month.format(PARTITION_NAME)
+                    + " VALUES LESS THAN (TO_DAYS('" + month.plusMonths(1).atDay(1) + "')), "
+                    + "PARTITION pmax VALUES LESS THAN MAXVALUE)");
+            log.info("Partition {} créée sur tickets", month.format(PARTITION_NAME));
+        }
+    }
+
+    private void dropArchivedPartitions(JdbcTemplate locked, List<Map<String, Object>> partitions,
+                                        LocalDate archivedBefore) {
+        long cutoffDays = archivedBefore.toEpochDay() + TO_DAYS_EPOCH;
+        for (Map<String, Object> partition : partitions) {
+            String name = (String) partition.get("PARTITION_NAME");
+            String upperBound = String.valueOf(partition.get("PARTITION_DESCRIPTION"));
+            if ("pmax".equals(name) || "MAXVALUE".equals(upperBound) || Long.parseLong(upperBound) > cutoffDays) {
+                continue;
+            }
+            // Un ticket retenu (remboursement en attente) garde sa partition
+            boolean empty = locked.queryForList("SELECT 1 FROM tickets PARTITION (" + name + ") LIMIT 1").isEmpty();
+            if (empty) {
+                locked.execute("ALTER TABLE tickets DROP PARTITION " + name);
+                log.info("Partition {} archivée et supprimée de tickets", name);
+            }
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package com.example.ticketsservice.service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.ticketsservice.config.RabbitMQConfig;
-import com.example.ticketsservice.controller.NotificationController;
+import com.example.ticketsservice.config.datasource.ReadYourWritesGuard;
+import com.example.ticketsservice.config.datasource.ReplicaRouting;
+import com.example.ticketsservice.config.sharding.ShardContext;
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.config.sharding.ShardedQueries;
+import com.example.ticketsservice.dto.QrCodePayload;
 import com.example.ticketsservice.dto.QrValidationResponse;
 import com.example.ticketsservice.dto.TicketPurchaseRequest;
 import com.example.ticketsservice.dto.TicketStatsResponse;
+import com.example.ticketsservice.dto.TransferHistoryCursor;
 import com.example.ticketsservice.dto.ValidationStatsResponse;
+import com.example.ticketsservice.event.TicketNotificationEvent;
 import com.example.ticketsservice.event.TicketPurchasedEvent;
 import com.example.ticketsservice.exception.DuplicateTicketException;
 import com.example.ticketsservice.exception.InsufficientFundsException;
@@ -24,6 +37,8 @@ import com.example.ticketsservice.exception.InvalidTicketException;
 import com.example.ticketsservice.exception.TicketNotFoundException;
 import com.example.ticketsservice.model.Refund;
 import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.TicketType;
 import com.example.ticketsservice.model.TransferHistory;
 import com.example.ticketsservice.model.User;
 import com.example.ticketsservice.repository.RefundRepository;
@@ -31,6 +46,7 @@ import com.example.ticketsservice.repository.TicketRepository;
 import com.example.ticketsservice.repository.TransferHistoryRepository;
 import com.example.ticketsservice.repository.UserRepository;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 
 @Service
@@ -42,107 +58,145 @@ public class TicketService {
     private final TransferHistoryRepository transferHistoryRepository;
     private final RefundRepository refundRepository;
     private final RabbitTemplate rabbitTemplate;
-    private final NotificationController notificationController;
+    private final ApplicationEventPublisher eventPublisher;
     private final BarcodeService barcodeService;
+    private final TicketMetrics ticketMetrics;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final ShardRouter shardRouter;
+    private final ShardedQueries shardedQueries;
+    private final TicketArchivalService ticketArchivalService;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final TicketCache ticketCache;
+    private final UserDirectory userDirectory;
+    private final TicketMoveRelay ticketMoveRelay;
 
     private static final Logger log = LoggerFactory.getLogger(TicketService.class);
 
     @Transactional
     public Ticket purchaseTicket(TicketPurchaseRequest request) {
+        Timer.Sample sample = ticketMetrics.start();
+        String outcome = "error";
+        try {
+            Ticket ticket = doPurchaseTicket(request);
+            outcome = "success";
+            return ticket;
+        } finally {
+            ticketMetrics.stopPurchase(sample, outcome);
+        }
+    }
+
+    private Ticket doPurchaseTicket(TicketPurchaseRequest request) {
         validatePurchaseRequest(request);
+        // Le ticket est créé sur le shard de l'acheteur : son identifiant portera ce shard
+        try (var ignored = shardRouter.forUser(request.getUserId())) {
+            return createTicket(request);
+        }
+    }
+
+    private Ticket createTicket(TicketPurchaseRequest request) {
         // Désactivé : permet l'achat de plusieurs tickets même si l'utilisateur en possède déjà un valide
         // checkForDuplicateValidTicket(request.getUserId(), request.getTicketType());
 
         // Désactivé : pas de vérification de solde (système de paiement externe ou à implémenter)
         // validatePayment(request);
 
-        User user = userRepository.findById(request.getUserId())
+        User user = userDirectory.user(request.getUserId(), () -> userRepository.findById(request.getUserId()))
                 .orElseThrow(() -> new TicketNotFoundException("Utilisateur non trouvé avec l'ID : " + request.getUserId()));
 
         Ticket newTicket = new Ticket();
         newTicket.setUserId(request.getUserId());
-        newTicket.setTicketType(request.getTicketType());
-        newTicket.setStatus("VALIDE");
-        newTicket.setPurchaseDate(LocalDateTime.now());
+        TicketType ticketType = TicketType.valueOf(request.getTicketType().trim().toUpperCase());
+        newTicket.setTicketType(ticketType);
+        newTicket.setStatus(TicketStatus.VALIDE);
+        // Précision de DATETIME(6) : la valeur en mémoire reste égale à celle stockée (clé de partitionnement)
+        newTicket.setPurchaseDate(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
 
-        // Calculate price based on ticket type
-        double originalPrice = getTicketPrice(request.getTicketType());
-        newTicket.setOriginalPrice(originalPrice);
+        // Calculate price based on ticket type (centimes)
+        int originalPriceCents = ticketType.priceCents();
+        newTicket.setOriginalPriceCents(originalPriceCents);
 
         // Apply loyalty discount if provided
         Integer discountPercent = request.getLoyaltyDiscount() != null ? request.getLoyaltyDiscount() : 0;
         newTicket.setDiscountApplied(discountPercent);
 
         // Calculate final price with discount
-        double discountAmount = originalPrice * (discountPercent / 100.0);
-        double finalPrice = originalPrice - discountAmount;
-        newTicket.setFinalPrice(finalPrice);
+        int finalPriceCents = Math.round(originalPriceCents * (100 - discountPercent) / 100f);
+        newTicket.setFinalPriceCents(finalPriceCents);
 
         log.info("💰 Prix calculé - Type: {}, Original: {}MAD, Réduction: {}%, Final: {}MAD",
-                request.getTicketType(), originalPrice, discountPercent, finalPrice);
+                ticketType, newTicket.getOriginalPrice(), discountPercent, newTicket.getFinalPrice());
 
-        // Generate unique code first
-        String uniqueCode = UUID.randomUUID().toString();
-
-        // Save ticket to get the ID
+        // ID attribué avant l'insertion : le QR code le contient, un seul INSERT suffit
+        newTicket.setId(shardRouter.nextId(ShardContext.current()));
+        attachQrCode(newTicket);
         Ticket savedTicket = ticketRepository.save(newTicket);
-
-        // Generate QR code data with all ticket information
-        String qrCodeData = barcodeService.generateQrCodeData(
-            savedTicket.getId(),
-            savedTicket.getUserId(),
-            savedTicket.getTicketType(),
-            savedTicket.getPurchaseDate(),
-            uniqueCode
-        );
-
-        // Generate QR code image
-        String qrCodeImage = null;
-        try {
-            qrCodeImage = barcodeService.generateQrCodeImageBase64(qrCodeData);
-        } catch (Exception e) {
-            log.error("Error generating QR code image: {}", e.getMessage());
-        }
-
-        // Update ticket with QR code data and image
-        savedTicket.setQrCodeData(qrCodeData);
-        savedTicket.setQrCodeImage(qrCodeImage);
-        savedTicket = ticketRepository.save(savedTicket);
+        readYourWritesGuard.recordWrite(savedTicket.getUserId());
+        ticketCache.ticketSaved(savedTicket);
 
         try {
             TicketPurchasedEvent event = TicketPurchasedEvent.builder()
                     .userId(savedTicket.getUserId().toString())
                     .userEmail(user.getEmail())
                     .ticketId(savedTicket.getId().toString())
-                    .ticketType(savedTicket.getTicketType())
+                    .ticketType(savedTicket.getTicketType().name())
                     .purchaseDate(savedTicket.getPurchaseDate().toString())
                     .qrCodeData(savedTicket.getQrCodeData())
                     .qrCodeImage(savedTicket.getQrCodeImage())
                     .build();
 
-            rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, "ticket.purchased", event);
+            ticketMetrics.recordEventPublish("ticket.purchased",
+                    () -> rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, "ticket.purchased", event));
             log.info("Événement ticket.purchased publié pour le ticket {}", savedTicket.getId());
 
         } catch (Exception e) {
             log.error("Échec de la publication de l'événement ticket.purchased pour le ticket {}: {}", savedTicket.getId(), e.getMessage());
         }
 
-        // Send WebSocket notification
+        // Notification WebSocket envoyée après le commit (TicketNotificationDispatcher)
+        eventPublisher.publishEvent(new TicketNotificationEvent.Purchased(
+                savedTicket.getUserId(), savedTicket.getId(), savedTicket.getTicketType().name()));
+
+        return savedTicket;
+    }
+
+    private void attachQrCode(Ticket ticket) {
+        // Generate QR code data with all ticket information
+        String qrCodeData = barcodeService.generateQrCodeData(
+            ticket.getId(),
+            ticket.getUserId(),
+            ticket.getTicketType().name(),
+            ticket.getPurchaseDate(),
+            UUID.randomUUID().toString()
+        );
+
+        // Generate QR code image
+        String qrCodeImage = null;
         try {
-            notificationController.notifyTicketPurchased(savedTicket.getUserId(), savedTicket.getId(), savedTicket.getTicketType());
+            qrCodeImage = ticketMetrics.recordQrRender(() -> barcodeService.generateQrCodeImageBase64(qrCodeData));
         } catch (Exception e) {
-            log.error("Échec de l'envoi de la notification pour le ticket {}: {}", savedTicket.getId(), e.getMessage());
+            log.error("Error generating QR code image: {}", e.getMessage());
         }
 
-        return savedTicket;
+        ticket.setQrCodeData(qrCodeData);
+        ticket.setQrCodeImage(qrCodeImage);
     }
 
+    /**
+     * Lecture sur le shard de l'utilisateur, au primaire s'il vient d'écrire.
+     */
+    private <T> T readForUser(Long userId, Supplier<T> read) {
+        try (var ignored = shardRouter.forUser(userId)) {
+            return readYourWritesGuard.readFor(userId, read);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<Ticket> getTicketHistory(Long userId) {
         if (userId == null || userId <= 0) {
             throw new IllegalArgumentException("L'ID utilisateur est invalide");
         }
 
-        List<Ticket> tickets = ticketRepository.findByUserId(userId);
+        List<Ticket> tickets = readForUser(userId, () -> ticketRepository.findByUserIdAndPurchaseDateGreaterThanEqual(userId, ticketArchivalService.hotWindowStart()));
         if (tickets.isEmpty()) {
             throw new TicketNotFoundException("Aucun ticket trouvé pour l'utilisateur avec l'ID : " + userId);
         }
@@ -150,16 +204,17 @@ public class TicketService {
         return tickets;
     }
 
+    @Transactional(readOnly = true)
     public TicketStatsResponse getTicketStats(Long userId) {
         if (userId == null || userId <= 0) {
             throw new IllegalArgumentException("L'ID utilisateur est invalide");
         }
 
-        List<Ticket> tickets = ticketRepository.findByUserId(userId);
+        List<Ticket> tickets = readForUser(userId, () -> ticketRepository.findByUserIdAndPurchaseDateGreaterThanEqual(userId, ticketArchivalService.hotWindowStart()));
 
         long totalPurchased = tickets.size();
         long activeTickets = tickets.stream()
-                .filter(t -> "VALIDE".equals(t.getStatus()) && t.getValidationDate() == null)
+                .filter(t -> t.getStatus() == TicketStatus.VALIDE && t.getValidationDate() == null)
                 .count();
         long usedTickets = tickets.stream()
                 .filter(t -> t.getValidationDate() != null)
@@ -173,15 +228,50 @@ public class TicketService {
             throw new IllegalArgumentException("L'ID du ticket est invalide");
         }
 
-        return ticketRepository.findById(ticketId)
+        return ticketCache.ticket(ticketId, () -> {
+            try (var ignored = shardRouter.forId(ticketId)) {
+                Optional<Ticket> ticket = findLiveTicket(ticketId);
+                if (ticket.isEmpty()) {
+                    // Chemin lent : ticket sorti de la table chaude par l'archivage
+                    ticket = ticketArchivalService.findArchived(ticketId);
+                }
+                return ticket;
+            }
+        }).orElseThrow(() -> new TicketNotFoundException("Ticket non trouvé avec l'id : " + ticketId));
+    }
+
+    /**
+     * Ticket de la table chaude, seul modifiable. L'identifiant porte le shard. Lecture sur le réplica ;
+     * un ticket tout juste créé peut ne pas y être encore répliqué.
+     */
+    private Optional<Ticket> findLiveTicket(Long ticketId) {
+        try (var ignored = shardRouter.forId(ticketId)) {
+            Optional<Ticket> ticket = ticketRepository.findLiveById(ticketId);
+            if (ticket.isEmpty()) {
+                try (var primary = ReplicaRouting.forcePrimary()) {
+                    ticket = ticketRepository.findLiveById(ticketId);
+                }
+            }
+            return ticket;
+        }
+    }
+
+    private Ticket getLiveTicket(Long ticketId) {
+        if (ticketId == null || ticketId <= 0) {
+            throw new IllegalArgumentException("L'ID du ticket est invalide");
+        }
+        return findLiveTicket(ticketId)
                 .orElseThrow(() -> new TicketNotFoundException("Ticket non trouvé avec l'id : " + ticketId));
     }
 
-    @Transactional
     public Ticket validateTicket(Long ticketId) {
-        Ticket ticket = getTicketById(ticketId);
+        return optimisticLockRetry.retrying("validate", () -> doValidateTicket(ticketId));
+    }
 
-        if (!"VALIDE".equals(ticket.getStatus())) {
+    private Ticket doValidateTicket(Long ticketId) {
+        Ticket ticket = getLiveTicket(ticketId);
+
+        if (ticket.getStatus() != TicketStatus.VALIDE) {
             throw new InvalidTicketException("Le ticket n'est plus valide");
         }
 
@@ -192,22 +282,25 @@ public class TicketService {
         ticket.setValidationDate(LocalDateTime.now());
 
         Ticket savedTicket = ticketRepository.save(ticket);
+        // Conflit de version détecté ici, avant la notification, pour que la nouvelle tentative reste sans effet de bord
+        ticketRepository.flush();
+        readYourWritesGuard.recordWrite(savedTicket.getUserId());
+        ticketCache.ticketSaved(savedTicket);
 
-        // Send WebSocket notification
-        try {
-            notificationController.notifyTicketValidated(savedTicket.getUserId(), savedTicket.getId());
-        } catch (Exception e) {
-            log.error("Échec de l'envoi de la notification de validation pour le ticket {}: {}", savedTicket.getId(), e.getMessage());
-        }
+        // Notification WebSocket envoyée après le commit (TicketNotificationDispatcher)
+        eventPublisher.publishEvent(new TicketNotificationEvent.Validated(savedTicket.getUserId(), savedTicket.getId()));
 
         return savedTicket;
     }
 
-    @Transactional
     public Ticket cancelTicket(Long ticketId) {
-        Ticket ticket = getTicketById(ticketId);
+        return optimisticLockRetry.retrying("cancel", () -> doCancelTicket(ticketId));
+    }
 
-        if (!"VALIDE".equals(ticket.getStatus())) {
+    private Ticket doCancelTicket(Long ticketId) {
+        Ticket ticket = getLiveTicket(ticketId);
+
+        if (ticket.getStatus() != TicketStatus.VALIDE) {
             throw new InvalidTicketException("Seuls les tickets valides peuvent être annulés");
         }
 
@@ -215,27 +308,61 @@ public class TicketService {
             throw new InvalidTicketException("Impossible d'annuler un ticket déjà validé");
         }
 
-        ticket.setStatus("ANNULE");
-        return ticketRepository.save(ticket);
+        ticket.setStatus(TicketStatus.ANNULE);
+        readYourWritesGuard.recordWrite(ticket.getUserId());
+        Ticket savedTicket = ticketRepository.save(ticket);
+        ticketCache.ticketSaved(savedTicket);
+        return savedTicket;
     }
 
-    @Transactional
     public QrValidationResponse validateByQrCode(String qrCode) {
-        // Find ticket by QR code
-        Ticket ticket = ticketRepository.findByQrCodeData(qrCode)
-                .orElse(null);
+        return validateByQrCode(qrCode, barcodeService.classify(qrCode));
+    }
 
-        if (ticket == null) {
-            // Try to decode QR code data in case it's JSON formatted
-            try {
-                var qrData = barcodeService.decodeQrCodeData(qrCode);
-                String ticketId = (String) qrData.get("ticketId");
-                if (ticketId != null) {
-                    ticket = ticketRepository.findById(Long.parseLong(ticketId)).orElse(null);
+    /**
+     * Validation d'un payload déjà classé (/api/scan) : l'identifiant lu par BarcodeService.classify
+     * donne le shard et le ticket sans relire le JSON.
+     */
+    public QrValidationResponse validateByQrCode(String qrCode, QrCodePayload payload) {
+        Long ticketId = payload.kind() == QrCodePayload.Kind.TICKET ? payload.id() : null;
+        Timer.Sample sample = ticketMetrics.start();
+        TicketMetrics.ValidationOutcome outcome = TicketMetrics.ValidationOutcome.ERROR;
+        try {
+            QrValidationResponse response = optimisticLockRetry.retrying("validate-qr", () -> {
+                try (var ignored = ShardContext.use(shardForQrCode(qrCode, ticketId))) {
+                    return doValidateByQrCode(qrCode, ticketId, payload.json());
                 }
-            } catch (Exception e) {
-                log.error("Error decoding QR code: {}", e.getMessage());
-            }
+            });
+            outcome = TicketMetrics.ValidationOutcome.of(response);
+            return response;
+        } finally {
+            ticketMetrics.stopValidation(sample, outcome);
+        }
+    }
+
+    /**
+     * Le payload du QR code contient l'identifiant du ticket, donc son shard.
+     * Seuls les anciens codes sans identifiant obligent à interroger tous les shards.
+     */
+    private int shardForQrCode(String qrCode, Long ticketId) {
+        if (ticketId != null && shardRouter.routes(ticketId)) {
+            return shardRouter.shardForId(ticketId);
+        }
+        if (shardRouter.shardCount() == 1) {
+            return 0;
+        }
+        List<Boolean> found = shardedQueries.scatter(shard -> ticketRepository.findByQrCodeData(qrCode).isPresent());
+        return Math.max(found.indexOf(Boolean.TRUE), 0);
+    }
+
+    private QrValidationResponse doValidateByQrCode(String qrCode, Long ticketId, boolean json) {
+        // Find ticket by QR code, dans la partition de l'achat quand le payload donne l'identifiant
+        Ticket ticket = ticketRepository.findByQrCodeData(qrCode, ticketId)
+                .orElse(null);
+
+        // Payload JSON dont la forme stockée diffère (ordre des champs) : recherche par identifiant
+        if (ticket == null && json && ticketId != null) {
+            ticket = ticketRepository.findLiveById(ticketId).orElse(null);
         }
 
         if (ticket == null) {
@@ -246,7 +373,8 @@ public class TicketService {
         }
 
         // Get owner information
-        User user = userRepository.findById(ticket.getUserId()).orElse(null);
+        Long ownerId = ticket.getUserId();
+        User user = userDirectory.user(ownerId, () -> userRepository.findById(ownerId)).orElse(null);
         String ownerName = "Utilisateur inconnu";
         if (user != null) {
             String firstName = user.getFirstName() != null ? user.getFirstName() : "";
@@ -257,14 +385,14 @@ public class TicketService {
         String ownerEmail = user != null ? user.getEmail() : null;
 
         // Check if ticket is cancelled
-        if ("ANNULE".equals(ticket.getStatus())) {
+        if (ticket.getStatus() == TicketStatus.ANNULE) {
             return QrValidationResponse.builder()
                     .valid(false)
                     .message("Ce ticket a été annulé")
                     .ticketId(ticket.getId())
                     .userId(ticket.getUserId())
-                    .ticketType(ticket.getTicketType())
-                    .status(ticket.getStatus())
+                    .ticketType(ticket.getTicketType().name())
+                    .status(ticket.getStatus().name())
                     .purchaseDate(ticket.getPurchaseDate().toString())
                     .validationDate(ticket.getValidationDate() != null ? ticket.getValidationDate().toString() : null)
                     .ownerName(ownerName)
@@ -274,14 +402,14 @@ public class TicketService {
         }
 
         // Check if ticket is already used (for SIMPLE tickets)
-        if (ticket.getValidationDate() != null && "SIMPLE".equals(ticket.getTicketType())) {
+        if (ticket.getValidationDate() != null && ticket.getTicketType() == TicketType.SIMPLE) {
             return QrValidationResponse.builder()
                     .valid(false)
                     .message("Ce ticket a déjà été utilisé")
                     .ticketId(ticket.getId())
                     .userId(ticket.getUserId())
-                    .ticketType(ticket.getTicketType())
-                    .status("UTILISE")
+                    .ticketType(ticket.getTicketType().name())
+                    .status(TicketStatus.UTILISE.name())
                     .purchaseDate(ticket.getPurchaseDate().toString())
                     .validationDate(ticket.getValidationDate().toString())
                     .ownerName(ownerName)
@@ -296,23 +424,23 @@ public class TicketService {
         LocalDateTime expirationDate;
         boolean isExpired = false;
 
-        switch (ticket.getTicketType().toUpperCase()) {
-            case "SIMPLE":
+        switch (ticket.getTicketType()) {
+            case SIMPLE:
                 // Valid for 2 hours after purchase
                 expirationDate = purchaseDate.plusHours(2);
                 isExpired = now.isAfter(expirationDate);
                 break;
-            case "JOURNEE":
+            case JOURNEE:
                 // Valid until end of purchase day
                 expirationDate = purchaseDate.toLocalDate().atTime(23, 59, 59);
                 isExpired = now.isAfter(expirationDate);
                 break;
-            case "HEBDO":
+            case HEBDO:
                 // Valid for 7 days
                 expirationDate = purchaseDate.plusDays(7);
                 isExpired = now.isAfter(expirationDate);
                 break;
-            case "MENSUEL":
+            case MENSUEL:
                 // Valid for 30 days
                 expirationDate = purchaseDate.plusDays(30);
                 isExpired = now.isAfter(expirationDate);
@@ -323,16 +451,17 @@ public class TicketService {
         }
 
         if (isExpired) {
-            ticket.setStatus("EXPIRE");
+            ticket.setStatus(TicketStatus.EXPIRE);
             ticketRepository.save(ticket);
+            ticketCache.ticketSaved(ticket);
 
             return QrValidationResponse.builder()
                     .valid(false)
                     .message("Ce ticket a expiré")
                     .ticketId(ticket.getId())
                     .userId(ticket.getUserId())
-                    .ticketType(ticket.getTicketType())
-                    .status("EXPIRE")
+                    .ticketType(ticket.getTicketType().name())
+                    .status(TicketStatus.EXPIRE.name())
                     .purchaseDate(purchaseDate.toString())
                     .validationDate(ticket.getValidationDate() != null ? ticket.getValidationDate().toString() : null)
                     .expirationDate(expirationDate.toString())
@@ -343,9 +472,10 @@ public class TicketService {
         }
 
         // Mark as validated for SIMPLE tickets
-        if ("SIMPLE".equals(ticket.getTicketType()) && ticket.getValidationDate() == null) {
+        if (ticket.getTicketType() == TicketType.SIMPLE && ticket.getValidationDate() == null) {
             ticket.setValidationDate(now);
             ticketRepository.save(ticket);
+            ticketCache.ticketSaved(ticket);
         }
 
         return QrValidationResponse.builder()
@@ -353,8 +483,8 @@ public class TicketService {
                 .message("Ticket valide - Bon voyage!")
                 .ticketId(ticket.getId())
                 .userId(ticket.getUserId())
-                .ticketType(ticket.getTicketType())
-                .status(ticket.getStatus())
+                .ticketType(ticket.getTicketType().name())
+                .status(ticket.getStatus().name())
                 .purchaseDate(purchaseDate.toString())
                 .validationDate(ticket.getValidationDate() != null ? ticket.getValidationDate().toString() : null)
                 .expirationDate(expirationDate.toString())
@@ -373,23 +503,23 @@ public class TicketService {
             throw new IllegalArgumentException("Le type de ticket est requis");
         }
 
-        List<String> validTicketTypes = List.of("SIMPLE", "JOURNEE", "HEBDO", "MENSUEL");
-        if (!validTicketTypes.contains(request.getTicketType().toUpperCase())) {
+        List<String> validTicketTypes = Arrays.stream(TicketType.values()).map(TicketType::name).toList();
+        if (!validTicketTypes.contains(request.getTicketType().trim().toUpperCase())) {
             throw new InvalidTicketException("Type de ticket non valide. Types autorisés: " + validTicketTypes);
         }
     }
 
-    private void checkForDuplicateValidTicket(Long userId, String ticketType) {
+    private void checkForDuplicateValidTicket(Long userId, TicketType ticketType) {
         List<Ticket> userTickets = ticketRepository.findByUserIdAndTicketType(userId, ticketType);
 
         // Mettre à jour les tickets expirés et vérifier s'il existe un ticket vraiment valide
         boolean hasValidTicket = false;
 
         for (Ticket ticket : userTickets) {
-            if ("VALIDE".equals(ticket.getStatus()) && ticket.getValidationDate() == null) {
+            if (ticket.getStatus() == TicketStatus.VALIDE && ticket.getValidationDate() == null) {
                 if (isTicketExpired(ticket)) {
                     // Mettre à jour le statut du ticket expiré
-                    ticket.setStatus("EXPIRE");
+                    ticket.setStatus(TicketStatus.EXPIRE);
                     ticketRepository.save(ticket);
                     log.info("Statut du ticket {} mis à jour vers EXPIRE (type: {}, achat: {})",
                             ticket.getId(), ticket.getTicketType(), ticket.getPurchaseDate());
@@ -416,20 +546,20 @@ public class TicketService {
         LocalDateTime purchaseDate = ticket.getPurchaseDate();
         LocalDateTime expirationDate;
 
-        switch (ticket.getTicketType().toUpperCase()) {
-            case "SIMPLE":
+        switch (ticket.getTicketType()) {
+            case SIMPLE:
                 // Valide pour 2 heures après l'achat
                 expirationDate = purchaseDate.plusHours(2);
                 break;
-            case "JOURNEE":
+            case JOURNEE:
                 // Valide jusqu'à la fin du jour d'achat
                 expirationDate = purchaseDate.toLocalDate().atTime(23, 59, 59);
                 break;
-            case "HEBDO":
+            case HEBDO:
                 // Valide pour 7 jours
                 expirationDate = purchaseDate.plusDays(7);
                 break;
-            case "MENSUEL":
+            case MENSUEL:
                 // Valide pour 30 jours
                 expirationDate = purchaseDate.plusDays(30);
                 break;
@@ -449,7 +579,7 @@ public class TicketService {
     }
 
     private void validatePayment(TicketPurchaseRequest request) {
-        double ticketPrice = calculateTicketPrice(request.getTicketType());
+        double ticketPrice = TicketType.valueOf(request.getTicketType().toUpperCase()).priceCents() / 100.0;
         double userBalance = getUserBalance(request.getUserId());
 
         if (userBalance < ticketPrice) {
@@ -459,24 +589,6 @@ public class TicketService {
         }
     }
 
-    /**
-     * Get ticket price based on type (matching frontend prices)
-     */
-    private double getTicketPrice(String ticketType) {
-        return switch (ticketType.toUpperCase()) {
-            case "SIMPLE" -> 8.0;
-            case "JOURNEE" -> 30.0;
-            case "HEBDO" -> 100.0;
-            case "MENSUEL" -> 350.0;
-            default -> throw new InvalidTicketException("Type de ticket non supporté: " + ticketType);
-        };
-    }
-
-    // Deprecated - use getTicketPrice instead
-    private double calculateTicketPrice(String ticketType) {
-        return getTicketPrice(ticketType);
-    }
-
     private double getUserBalance(Long userId) {
         return 100.0;
     }
@@ -496,30 +608,35 @@ public class TicketService {
 
     // Controller dashboard methods
 
+    @Transactional(readOnly = true)
     public ValidationStatsResponse getValidationStats() {
         LocalDateTime now = LocalDateTime.now();
+        List<ValidationStatsResponse> perShard = shardedQueries.scatter(shard -> getShardValidationStats(now));
+
+        return ValidationStatsResponse.builder()
+                .validationsToday(perShard.stream().mapToLong(ValidationStatsResponse::getValidationsToday).sum())
+                .validationsThisWeek(perShard.stream().mapToLong(ValidationStatsResponse::getValidationsThisWeek).sum())
+                .validationsThisMonth(perShard.stream().mapToLong(ValidationStatsResponse::getValidationsThisMonth).sum())
+                .totalValidations(perShard.stream().mapToLong(ValidationStatsResponse::getTotalValidations).sum())
+                .validTickets(perShard.stream().mapToLong(ValidationStatsResponse::getValidTickets).sum())
+                .invalidTickets(perShard.stream().mapToLong(ValidationStatsResponse::getInvalidTickets).sum())
+                .build();
+    }
+
+    private ValidationStatsResponse getShardValidationStats(LocalDateTime now) {
         LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
         LocalDateTime startOfWeek = now.minusDays(7);
         LocalDateTime startOfMonth = now.minusDays(30);
 
         // Count tickets that have been validated (have a validationDate)
-        long validationsToday = ticketRepository.countByStatusAndValidationDateAfter("VALIDE", startOfDay);
-        long validationsThisWeek = ticketRepository.countByStatusAndValidationDateAfter("VALIDE", startOfWeek);
-        long validationsThisMonth = ticketRepository.countByStatusAndValidationDateAfter("VALIDE", startOfMonth);
+        long validationsToday = ticketRepository.countByStatusAndValidationDateAfter(TicketStatus.VALIDE, startOfDay);
+        long validationsThisWeek = ticketRepository.countByStatusAndValidationDateAfter(TicketStatus.VALIDE, startOfWeek);
+        long validationsThisMonth = ticketRepository.countByStatusAndValidationDateAfter(TicketStatus.VALIDE, startOfMonth);
 
-        // Also count tickets with validationDate set (used tickets)
-        List<Ticket> allTickets = ticketRepository.findAll();
-        long totalValidated = allTickets.stream()
-                .filter(t -> t.getValidationDate() != null)
-                .count();
-
-        long validTickets = allTickets.stream()
-                .filter(t -> "VALIDE".equals(t.getStatus()))
-                .count();
-
-        long invalidTickets = allTickets.stream()
-                .filter(t -> "ANNULE".equals(t.getStatus()) || "EXPIRE".equals(t.getStatus()))
-                .count();
+        // Also count tickets with validationDate set (used tickets), within the hot window
+        long totalValidated = ticketRepository.countByValidationDateGreaterThanEqual(ticketArchivalService.hotWindowStart());
+        long validTickets = ticketRepository.countByStatus(TicketStatus.VALIDE);
+        long invalidTickets = ticketRepository.countByStatusIn(List.of(TicketStatus.ANNULE, TicketStatus.EXPIRE));
 
         return ValidationStatsResponse.builder()
                 .validationsToday(validationsToday)
@@ -531,19 +648,39 @@ public class TicketService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
     public List<Ticket> getValidationHistory() {
-        // Get all tickets that have been validated, ordered by validation date
-        return ticketRepository.findAll().stream()
-                .filter(t -> t.getValidationDate() != null)
+        // Les 100 dernières validations de chaque shard, fusionnées
+        return shardedQueries.scatter(shard -> getShardValidationHistory()).stream()
+                .flatMap(List::stream)
                 .sorted((a, b) -> b.getValidationDate().compareTo(a.getValidationDate()))
                 .limit(100)
                 .toList();
     }
 
-    @Transactional
+    private List<Ticket> getShardValidationHistory() {
+        // Latest validated tickets, read in validation date order from the index
+        return ticketRepository.findTop100ByValidationDateGreaterThanEqualOrderByValidationDateDesc(
+                ticketArchivalService.hotWindowStart());
+    }
+
     public Ticket transferTicket(Long ticketId, Long fromUserId, String recipientEmail) {
+        Timer.Sample sample = ticketMetrics.start();
+        String outcome = "error";
+        try (var ignored = shardRouter.forId(ticketId)) {
+            // Pas de nouvelle tentative : copie inter-shard, historique et notifications
+            Ticket ticket = optimisticLockRetry.once("transfer",
+                    () -> doTransferTicket(ticketId, fromUserId, recipientEmail));
+            outcome = "success";
+            return ticket;
+        } finally {
+            ticketMetrics.stopTransfer(sample, outcome);
+        }
+    }
+
+    private Ticket doTransferTicket(Long ticketId, Long fromUserId, String recipientEmail) {
         // Find the ticket
-        Ticket ticket = ticketRepository.findById(ticketId)
+        Ticket ticket = ticketRepository.findLiveById(ticketId)
                 .orElseThrow(() -> new TicketNotFoundException("Ticket non trouvé avec l'ID: " + ticketId));
 
         // Verify ownership
@@ -552,7 +689,7 @@ public class TicketService {
         }
 
         // Check if ticket is valid for transfer
-        if (!"VALIDE".equals(ticket.getStatus())) {
+        if (ticket.getStatus() != TicketStatus.VALIDE) {
             throw new InvalidTicketException("Seuls les tickets valides peuvent être transférés");
         }
 
@@ -561,7 +698,7 @@ public class TicketService {
         }
 
         // Find recipient user
-        User recipient = userRepository.findByEmail(recipientEmail)
+        User recipient = userDirectory.userByEmail(recipientEmail, () -> userRepository.findByEmail(recipientEmail))
                 .orElseThrow(() -> new TicketNotFoundException("Aucun utilisateur trouvé avec l'email: " + recipientEmail));
 
         // Check not transferring to self
@@ -570,63 +707,111 @@ public class TicketService {
         }
 
         // Get sender info
-        User sender = userRepository.findById(fromUserId)
+        User sender = userDirectory.user(fromUserId, () -> userRepository.findById(fromUserId))
                 .orElseThrow(() -> new TicketNotFoundException("Expéditeur non trouvé"));
 
         // Perform transfer
         log.info("Transfert du ticket {} de l'utilisateur {} vers {}", ticketId, fromUserId, recipientEmail);
-        ticket.setUserId(recipient.getId());
-        Ticket savedTicket = ticketRepository.save(ticket);
-
-        // Save transfer history
         TransferHistory history = TransferHistory.builder()
                 .ticketId(ticketId)
                 .fromUserId(fromUserId)
                 .fromUserEmail(sender.getEmail())
                 .toUserId(recipient.getId())
                 .toUserEmail(recipientEmail)
-                .ticketType(ticket.getTicketType())
+                .ticketType(ticket.getTicketType().name())
                 .transferDate(LocalDateTime.now())
                 .status("COMPLETED")
                 .build();
+
+        Ticket savedTicket;
+        int recipientShard = shardRouter.shardForUser(recipient.getId());
+        if (recipientShard == ShardContext.current()) {
+            ticket.setUserId(recipient.getId());
+            savedTicket = ticketRepository.save(ticket);
+        } else {
+            savedTicket = moveToShard(ticket, recipient.getId(), recipientShard, history);
+            ticketCache.ticketDeleted(ticketId);
+        }
+        ticketCache.ticketSaved(savedTicket);
+        readYourWritesGuard.recordWrite(fromUserId);
+        readYourWritesGuard.recordWrite(recipient.getId());
+
+        // Save transfer history
         transferHistoryRepository.save(history);
 
         log.info("Historique de transfert enregistré pour le ticket {}", ticketId);
 
-        // Send WebSocket notifications
-        try {
-            notificationController.notifyTicketTransferred(fromUserId, recipient.getId(), ticketId, ticket.getTicketType());
-        } catch (Exception e) {
-            log.error("Échec de l'envoi des notifications de transfert pour le ticket {}: {}", ticketId, e.getMessage());
-        }
+        // Notifications WebSocket envoyées après le commit (TicketNotificationDispatcher)
+        eventPublisher.publishEvent(new TicketNotificationEvent.Transferred(
+                fromUserId, recipient.getId(), savedTicket.getId(), ticket.getTicketType().name()));
 
         return savedTicket;
     }
 
+    /**
+     * Un ticket vit sur le shard de son propriétaire. Transféré vers un autre shard, il y est recréé
+     * avec un nouvel identifiant (et donc un nouveau QR code), après la suppression de l'original :
+     * TicketMoveRelay n'écrit sur le shard cible qu'une fois cette transaction validée.
+     */
+    private Ticket moveToShard(Ticket ticket, Long recipientId, int targetShard, TransferHistory history) {
+        Ticket copy = new Ticket();
+        copy.setUserId(recipientId);
+        copy.setTicketType(ticket.getTicketType());
+        copy.setStatus(ticket.getStatus());
+        copy.setPurchaseDate(ticket.getPurchaseDate());
+        copy.setOriginalPriceCents(ticket.getOriginalPriceCents());
+        copy.setDiscountApplied(ticket.getDiscountApplied());
+        copy.setFinalPriceCents(ticket.getFinalPriceCents());
+        copy.setId(shardRouter.nextId(targetShard));
+        attachQrCode(copy);
+        // Copie de l'historique pour que le destinataire le retrouve sur son shard, sous le nouvel identifiant
+        TransferHistory recipientHistory = history.toBuilder().ticketId(copy.getId()).build();
+
+        ticketRepository.delete(ticket);
+        ticketMoveRelay.stage(ticket, copy, recipientHistory, targetShard);
+        log.info("Ticket {} transféré vers le shard {} sous l'ID {}", ticket.getId(), targetShard, copy.getId());
+        return copy;
+    }
+
     // Transfer history methods
 
-    public List<TransferHistory> getTransferHistoryByUser(Long userId) {
-        return transferHistoryRepository.findAllByUserId(userId);
+    @Transactional(readOnly = true)
+    public List<TransferHistory> getTransferHistoryByUser(Long userId, TransferHistoryCursor cursor, int limit) {
+        return readForUser(userId, () -> transferHistoryRepository.findPageByUserId(
+                userId, cursor.transferDate(), cursor.id(), limit));
     }
 
-    public List<TransferHistory> getTransferHistorySent(Long userId) {
-        return transferHistoryRepository.findByFromUserIdOrderByTransferDateDesc(userId);
+    @Transactional(readOnly = true)
+    public List<TransferHistory> getTransferHistorySent(Long userId, TransferHistoryCursor cursor, int limit) {
+        return readForUser(userId, () -> transferHistoryRepository.findSentPage(
+                userId, cursor.transferDate(), cursor.id(), Limit.of(limit)));
     }
 
-    public List<TransferHistory> getTransferHistoryReceived(Long userId) {
-        return transferHistoryRepository.findByToUserIdOrderByTransferDateDesc(userId);
+    @Transactional(readOnly = true)
+    public List<TransferHistory> getTransferHistoryReceived(Long userId, TransferHistoryCursor cursor, int limit) {
+        return readForUser(userId, () -> transferHistoryRepository.findReceivedPage(
+                userId, cursor.transferDate(), cursor.id(), Limit.of(limit)));
     }
 
+    @Transactional(readOnly = true)
     public List<TransferHistory> getTransferHistoryByTicket(Long ticketId) {
-        return transferHistoryRepository.findByTicketIdOrderByTransferDateDesc(ticketId);
+        try (var ignored = shardRouter.forId(ticketId)) {
+            return transferHistoryRepository.findByTicketIdOrderByTransferDateDesc(ticketId);
+        }
     }
 
     // Refund methods
 
-    @Transactional
     public Refund requestRefund(Long ticketId, Long userId, String reason) {
+        // La demande est créée sur le shard du ticket ; un conflit avec un transfert est renvoyé au client
+        try (var ignored = shardRouter.forId(ticketId)) {
+            return optimisticLockRetry.once("refund.request", () -> doRequestRefund(ticketId, userId, reason));
+        }
+    }
+
+    private Refund doRequestRefund(Long ticketId, Long userId, String reason) {
         // Find the ticket
-        Ticket ticket = ticketRepository.findById(ticketId)
+        Ticket ticket = ticketRepository.findLiveById(ticketId)
                 .orElseThrow(() -> new TicketNotFoundException("Ticket non trouvé avec l'ID: " + ticketId));
 
         // Verify ownership
@@ -645,14 +830,14 @@ public class TicketService {
         }
 
         // Calculate refund amount (full refund if not used)
-        double originalAmount = calculateTicketPrice(ticket.getTicketType());
+        double originalAmount = ticket.getTicketType().priceCents() / 100.0;
         double refundAmount = originalAmount; // 100% refund for unused tickets
 
         // Create refund request
         Refund refund = Refund.builder()
                 .ticketId(ticketId)
                 .userId(userId)
-                .ticketType(ticket.getTicketType())
+                .ticketType(ticket.getTicketType().name())
                 .originalAmount(originalAmount)
                 .refundAmount(refundAmount)
                 .reason(reason)
@@ -661,26 +846,45 @@ public class TicketService {
                 .build();
 
         Refund savedRefund = refundRepository.save(refund);
+        readYourWritesGuard.recordWrite(userId);
 
         // Mark ticket as cancelled
-        ticket.setStatus("ANNULE");
+        ticket.setStatus(TicketStatus.ANNULE);
         ticketRepository.save(ticket);
+        ticketCache.ticketSaved(ticket);
 
         log.info("Demande de remboursement créée pour le ticket {}", ticketId);
 
         return savedRefund;
     }
 
+    @Transactional(readOnly = true)
     public List<Refund> getRefundsByUser(Long userId) {
-        return refundRepository.findByUserIdOrderByRequestDateDesc(userId);
+        return readForUser(userId, () -> refundRepository.findByUserIdOrderByRequestDateDesc(userId));
     }
 
+    @Transactional(readOnly = true)
     public List<Refund> getPendingRefunds() {
-        return refundRepository.findByStatusOrderByRequestDateDesc("PENDING");
+        return shardedQueries.scatter(shard -> refundRepository.findByStatusOrderByRequestDateDesc("PENDING")).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Refund::getRequestDate).reversed())
+                .toList();
     }
 
-    @Transactional
     public Refund processRefund(Long refundId, boolean approved, String adminNotes) {
+        Timer.Sample sample = ticketMetrics.start();
+        String outcome = "error";
+        try (var ignored = shardRouter.forId(refundId)) {
+            Refund refund = optimisticLockRetry.once("refund.process",
+                    () -> doProcessRefund(refundId, approved, adminNotes));
+            outcome = "success";
+            return refund;
+        } finally {
+            ticketMetrics.stopRefundProcessing(sample, approved ? "approved" : "rejected", outcome);
+        }
+    }
+
+    private Refund doProcessRefund(Long refundId, boolean approved, String adminNotes) {
         Refund refund = refundRepository.findById(refundId)
                 .orElseThrow(() -> new TicketNotFoundException("Demande de remboursement non trouvée"));
 
@@ -694,26 +898,25 @@ public class TicketService {
 
         if (!approved) {
             // Restore ticket if rejected
-            Ticket ticket = ticketRepository.findById(refund.getTicketId()).orElse(null);
+            Ticket ticket = ticketRepository.findLiveById(refund.getTicketId()).orElse(null);
             if (ticket != null) {
-                ticket.setStatus("VALIDE");
+                ticket.setStatus(TicketStatus.VALIDE);
                 ticketRepository.save(ticket);
+                ticketCache.ticketSaved(ticket);
             }
         }
 
         log.info("Remboursement {} - Statut: {}", refundId, refund.getStatus());
 
         Refund savedRefund = refundRepository.save(refund);
-
-        // Send WebSocket notification
-        try {
-            String message = approved
-                ? "Votre remboursement de " + refund.getRefundAmount() + "€ a été approuvé"
-                : "Votre demande de remboursement a été refusée. " + (adminNotes != null ? adminNotes : "");
-            notificationController.notifyRefundStatus(refund.getUserId(), refund.getTicketId(), refund.getStatus(), message);
-        } catch (Exception e) {
-            log.error("Échec de l'envoi de la notification de remboursement {}: {}", refundId, e.getMessage());
-        }
+        readYourWritesGuard.recordWrite(refund.getUserId());
+
+        // Notification WebSocket envoyée après le commit (TicketNotificationDispatcher)
+        String message = approved
+            ? "Votre remboursement de " + refund.getRefundAmount() + "€ a été approuvé"
+            : "Votre demande de remboursement a été refusée. " + (adminNotes != null ? adminNotes : "");
+        eventPublisher.publishEvent(new TicketNotificationEvent.RefundProcessed(
+                refund.getUserId(), refund.getTicketId(), refund.getStatus(), message));
 
         return savedRefund;
     }
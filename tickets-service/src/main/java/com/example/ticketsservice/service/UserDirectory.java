@@ -0,0 +1,254 @@
+package com.example.ticketsservice.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.example.ticketsservice.config.cache.CacheInvalidationBus;
+import com.example.ticketsservice.config.cache.LocalCache;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Annuaire en mémoire de la copie locale des utilisateurs : id vers nom et email, email vers id.
+ * Chargé en bloc au démarrage, tenu à jour par UserEventConsumer ; un utilisateur absent (inscrit
+ * pendant le chargement, ou dont l'événement a été consommé par un autre réplica) est lu une fois
+ * en base puis gardé. Achat, validation et transfert n'interrogent donc plus la table users.
+ * Une purge demandée par le bus d'invalidation recharge l'annuaire en arrière-plan dans de nouvelles
+ * tables, échangées d'un bloc à la fin : les lectures continuent d'être servies par les anciennes.
+ */
+@Component
+public class UserDirectory implements LocalCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDirectory.class);
+
+    private record Entry(String email, String firstName, String lastName) {}
+
+    private record Maps(Map<Long, Entry> byId, Map<String, Long> idByEmail) {
+
+        static Maps empty() {
+            return new Maps(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    private final boolean enabled;
+    private final int loadBatchSize;
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tickets-user-directory");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile Maps current = Maps.empty();
+    // Tables en cours de rechargement : les événements reçus entre-temps y sont aussi appliqués
+    private volatile Maps loading;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserDirectory(@Value("${tickets.user-directory.enabled:true}") boolean enabled,
+                         @Value("${tickets.user-directory.load-batch-size:5000}") int loadBatchSize,
+                         UserRepository userRepository,
+                         CacheInvalidationBus invalidationBus,
+                         MeterRegistry registry) {
+        this.enabled = enabled;
+        this.loadBatchSize = loadBatchSize;
+        this.userRepository = userRepository;
+        this.invalidationBus = invalidationBus;
+        this.hits = lookups(registry, "hit");
+        this.misses = lookups(registry, "miss");
+        Gauge.builder("tickets.user.directory.size", this, directory -> directory.current.byId().size())
+                .description("Utilisateurs présents dans l'annuaire en mémoire")
+                .register(registry);
+        if (enabled) {
+            invalidationBus.register(this);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    private void reload() {
+        reloadLock.lock();
+        try {
+            long start = System.nanoTime();
+            Maps next = Maps.empty();
+            loading = next;
+            long afterId = Long.MIN_VALUE;
+            int loaded = 0;
+            List<User> page;
+            do {
+                page = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(loadBatchSize));
+                for (User user : page) {
+                    // Un événement reçu pendant le chargement est plus récent que la ligne lue
+                    if (next.byId().putIfAbsent(user.getId(), entry(user)) == null) {
+                        next.idByEmail().putIfAbsent(emailKey(user.getEmail()), user.getId());
+                    }
+                    afterId = user.getId();
+                }
+                loaded += page.size();
+            } while (page.size() == loadBatchSize);
+            current = next;
+            log.info("Annuaire utilisateurs chargé : {} utilisateurs en {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            loading = null;
+            reloadLock.unlock();
+        }
+    }
+
+    public Optional<User> user(Long userId, Supplier<Optional<User>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Entry entry = current.byId().get(userId);
+        if (entry != null) {
+            hits.increment();
+            return Optional.of(toUser(userId, entry));
+        }
+        return load(loader);
+    }
+
+    public Optional<User> userByEmail(String email, Supplier<Optional<User>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Maps maps = current;
+        Long userId = maps.idByEmail().get(emailKey(email));
+        Entry entry = userId != null ? maps.byId().get(userId) : null;
+        if (entry != null) {
+            hits.increment();
+            return Optional.of(toUser(userId, entry));
+        }
+        return load(loader);
+    }
+
+    public void userSaved(User user) {
+        if (enabled) {
+            put(user);
+            invalidationBus.invalidate(this, String.valueOf(user.getId()));
+        }
+    }
+
+    @Override
+    public String name() {
+        return "user-directory";
+    }
+
+    @Override
+    public void evictLocal(String key) {
+        Long userId = Long.valueOf(key);
+        // Tables en cours de chargement d'abord : après l'échange, current les désigne aussi
+        Maps reloading = loading;
+        if (reloading != null) {
+            evict(reloading, userId);
+        }
+        evict(current, userId);
+    }
+
+    /**
+     * Appelé depuis le listener RabbitMQ : le rechargement part en arrière-plan et les purges
+     * reçues pendant qu'un rechargement attend déjà son tour sont fusionnées avec lui.
+     */
+    @Override
+    public void clearLocal() {
+        if (enabled && reloadRequested.compareAndSet(false, true)) {
+            reloader.execute(() -> {
+                reloadRequested.set(false);
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    log.warn("Annuaire utilisateurs : rechargement impossible, l'ancien annuaire reste en service: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reloader.shutdownNow();
+    }
+
+    private Optional<User> load(Supplier<Optional<User>> loader) {
+        misses.increment();
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    private void put(User user) {
+        Maps reloading = loading;
+        if (reloading != null) {
+            put(reloading, user);
+        }
+        put(current, user);
+    }
+
+    private static void put(Maps maps, User user) {
+        Entry previous = maps.byId().put(user.getId(), entry(user));
+        if (previous != null && !previous.email().equalsIgnoreCase(user.getEmail())) {
+            maps.idByEmail().remove(emailKey(previous.email()), user.getId());
+        }
+        maps.idByEmail().put(emailKey(user.getEmail()), user.getId());
+    }
+
+    private static void evict(Maps maps, Long userId) {
+        Entry removed = maps.byId().remove(userId);
+        if (removed != null) {
+            maps.idByEmail().remove(emailKey(removed.email()), userId);
+        }
+    }
+
+    // Instance neuve à chaque lecture : l'appelant peut la modifier sans toucher à l'annuaire
+    private static User toUser(Long userId, Entry entry) {
+        return User.builder()
+                .id(userId)
+                .email(entry.email())
+                .firstName(entry.firstName())
+                .lastName(entry.lastName())
+                .build();
+    }
+
+    private static Entry entry(User user) {
+        return new Entry(user.getEmail(), user.getFirstName(), user.getLastName());
+    }
+
+    // Même règle que la collation MySQL (insensible à la casse)
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("tickets.user.directory.lookups")
+                .description("Lectures de l'annuaire utilisateurs")
+                .tag("result", result)
+                .register(registry);
+    }
+}
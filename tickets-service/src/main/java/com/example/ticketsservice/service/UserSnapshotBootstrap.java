@@ -0,0 +1,154 @@
+package com.example.ticketsservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import com.example.ticketsservice.config.UserSyncProperties;
+import com.example.ticketsservice.config.sharding.ShardContext;
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.UserBulkRepository;
+import com.example.ticketsservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Amorçage de la copie locale des utilisateurs depuis l'export de user-service (/internal/users/snapshot) :
+ * les utilisateurs inscrits avant la création de la file n'arrivent jamais par événement.
+ * Démarre avant les conteneurs RabbitMQ et le serveur web : les user.registered accumulés pendant
+ * le chargement sont appliqués ensuite, par-dessus l'export. Une erreur n'empêche pas le démarrage.
+ */
+@Component
+public class UserSnapshotBootstrap implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSnapshotBootstrap.class);
+
+    private final UserSyncProperties.Bootstrap settings;
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+    private final UserBulkRepository userBulkRepository;
+    private final ShardRouter shardRouter;
+
+    private volatile boolean running;
+
+    public UserSnapshotBootstrap(UserSyncProperties properties,
+                                 RestClient.Builder restClientBuilder,
+                                 ObjectMapper objectMapper,
+                                 UserRepository userRepository,
+                                 UserBulkRepository userBulkRepository,
+                                 ShardRouter shardRouter) {
+        this.settings = properties.getBootstrap();
+        this.restClient = restClientBuilder.baseUrl(settings.getUserServiceUrl()).build();
+        this.objectMapper = objectMapper;
+        this.userRepository = userRepository;
+        this.userBulkRepository = userBulkRepository;
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        UserSyncProperties.BootstrapMode mode = settings.getMode();
+        if (mode == UserSyncProperties.BootstrapMode.NEVER) {
+            return;
+        }
+        if (mode == UserSyncProperties.BootstrapMode.IF_EMPTY && userRepository.count() > 0) {
+            log.debug("Table users déjà alimentée, amorçage ignoré");
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            long loaded = loadSnapshot();
+            log.info("Amorçage des utilisateurs terminé : {} utilisateurs en {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+        } catch (RestClientException | IllegalStateException e) {
+            log.error("Amorçage des utilisateurs impossible, seuls les événements user.registered alimenteront la table: {}",
+                    e.getMessage());
+        }
+    }
+
+    long loadSnapshot() {
+        long afterId = 0;
+        long total = 0;
+        while (true) {
+            long from = afterId;
+            Page page = restClient.get()
+                    .uri(uri -> uri.path("/internal/users/snapshot")
+                            .queryParam("afterId", from)
+                            .queryParam("limit", settings.getPageSize())
+                            .build())
+                    .header("X-Internal-Token", settings.getToken())
+                    .exchange((request, response) -> {
+                        if (response.getStatusCode().isError()) {
+                            throw new IllegalStateException("Export utilisateurs refusé : HTTP " + response.getStatusCode().value());
+                        }
+                        return readPage(response.getBody(), from);
+                    });
+            total += page.count();
+            if (page.count() < settings.getPageSize()) {
+                return total;
+            }
+            afterId = page.lastId();
+        }
+    }
+
+    private record Page(int count, long lastId) {}
+
+    // Lecture en flux : une page n'est jamais entièrement en mémoire, seulement un lot d'écriture
+    private Page readPage(InputStream body, long afterId) throws IOException {
+        int count = 0;
+        long lastId = afterId;
+        List<User> batch = new ArrayList<>(settings.getWriteBatchSize());
+        try (MappingIterator<User> users = objectMapper.readerFor(User.class).readValues(body)) {
+            while (users.hasNextValue()) {
+                User user = users.nextValue();
+                batch.add(user);
+                lastId = user.getId();
+                count++;
+                if (batch.size() == settings.getWriteBatchSize()) {
+                    write(batch);
+                    batch.clear();
+                }
+            }
+        }
+        write(batch);
+        return new Page(count, lastId);
+    }
+
+    private void write(List<User> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Table de référence : chaque shard en garde une copie
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            try (var ignored = ShardContext.use(shard)) {
+                userBulkRepository.upsert(batch);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Avant les conteneurs @RabbitListener et le serveur web (phases les plus hautes)
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,80 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schéma compact de tickets, étape 2/3 : remplit les colonnes ajoutées par V5 pour les lignes existantes.
+ * Parcours par plages d'identifiants (préfixe de la clé primaire), un commit par lot : les verrous restent
+ * courts et les écritures concurrentes continuent, les triggers de V5 couvrant les lignes écrites entre-temps.
+ */
+public class V6__backfill_compact_ticket_columns extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V6__backfill_compact_ticket_columns.class);
+
+    private static final int BATCH_SIZE = 5_000;
+
+    private static final String UPPER_BOUND_SQL =
+            "SELECT id FROM tickets WHERE id > ? ORDER BY id LIMIT 1 OFFSET " + (BATCH_SIZE - 1);
+
+    private static final String MAX_ID_SQL = "SELECT MAX(id) FROM tickets";
+
+    private static final String BACKFILL_SQL = "UPDATE tickets SET "
+            + "status_code = COALESCE(status_code, NULLIF(FIELD(status, 'VALIDE', 'UTILISE', 'ANNULE', 'EXPIRE'), 0)), "
+            + "ticket_type_code = COALESCE(ticket_type_code, NULLIF(FIELD(ticket_type, 'SIMPLE', 'JOURNEE', 'HEBDO', 'MENSUEL'), 0)), "
+            + "original_price_cents = COALESCE(original_price_cents, ROUND(original_price * 100)), "
+            + "final_price_cents = COALESCE(final_price_cents, ROUND(final_price * 100)), "
+            + "qr_ref = COALESCE(qr_ref, UNHEX(LEFT(SHA2(qr_code_data, 256), 32))) "
+            + "WHERE id > ? AND id <= ?";
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try (PreparedStatement upperBound = connection.prepareStatement(UPPER_BOUND_SQL);
+             PreparedStatement backfill = connection.prepareStatement(BACKFILL_SQL)) {
+            long maxId = maxId(connection);
+            long from = Long.MIN_VALUE;
+            long updated = 0;
+            while (from < maxId) {
+                long to = upperBound(upperBound, from, maxId);
+                backfill.setLong(1, from);
+                backfill.setLong(2, to);
+                updated += backfill.executeUpdate();
+                from = to;
+            }
+            log.info("Colonnes compactes de tickets remplies : {} ligne(s)", updated);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static long maxId(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(MAX_ID_SQL);
+             ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            long maxId = rs.getLong(1);
+            return rs.wasNull() ? Long.MIN_VALUE : maxId;
+        }
+    }
+
+    private static long upperBound(PreparedStatement statement, long from, long maxId) throws SQLException {
+        statement.setLong(1, from);
+        try (ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : maxId;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+-- Schéma compact de tickets, étape 3/3 (contract), voir V5__expand_compact_ticket_columns.sql.
+-- Hors de db/migration : à activer à la release suivante, quand plus aucune instance n'écrit les
+-- colonnes historiques, avec spring.flyway.locations=classpath:db/migration,classpath:db/contract.
+-- Numérotée au-dessus de toutes les migrations de db/migration (annoncée en V7 dans V5 et V8) pour
+-- s'appliquer sans spring.flyway.out-of-order ; RepositoryQueryPlanTest vérifie que cela reste vrai.
+
+DROP TRIGGER IF EXISTS tickets_compact_sync_insert;
+DROP TRIGGER IF EXISTS tickets_compact_sync_update;
+
+ALTER TABLE tickets
+    DROP INDEX idx_tickets_user_status,
+    DROP INDEX idx_tickets_status_validation,
+    DROP INDEX idx_tickets_qr_code_data,
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+ALTER TABLE tickets
+    DROP COLUMN ticket_type,
+    DROP COLUMN status,
+    DROP COLUMN original_price,
+    DROP COLUMN final_price,
+    ALGORITHM = INSTANT;
+
+ALTER TABLE tickets
+    MODIFY COLUMN ticket_type_code TINYINT NOT NULL,
+    MODIFY COLUMN status_code TINYINT NOT NULL,
+    ALGORITHM = INPLACE, LOCK = NONE;
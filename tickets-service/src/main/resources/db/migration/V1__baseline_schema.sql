@@ -0,0 +1,56 @@
+-- Schéma de référence, tel que créé jusqu'ici par spring.jpa.hibernate.ddl-auto=update.
+-- Les bases existantes sont marquées en version 1 (spring.flyway.baseline-on-migrate) et ne
+-- rejouent pas ce script ; seule une base vide le joue.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_users_email (email)
+);
+
+CREATE TABLE IF NOT EXISTS tickets (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    ticket_type VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    purchase_date DATETIME(6) NOT NULL,
+    validation_date DATETIME(6),
+    qr_code_data VARCHAR(255),
+    qr_code_image LONGTEXT NULL COMMENT 'Base64 encoded QR code image',
+    original_price DOUBLE,
+    discount_applied INT,
+    final_price DOUBLE,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_tickets_qr_code_data (qr_code_data)
+);
+
+CREATE TABLE IF NOT EXISTS refunds (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    ticket_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    ticket_type VARCHAR(255),
+    original_amount DOUBLE NOT NULL,
+    refund_amount DOUBLE NOT NULL,
+    reason VARCHAR(255),
+    status VARCHAR(255) NOT NULL,
+    request_date DATETIME(6) NOT NULL,
+    processed_date DATETIME(6),
+    admin_notes VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS transfer_history (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    ticket_id BIGINT NOT NULL,
+    from_user_id BIGINT NOT NULL,
+    from_user_email VARCHAR(255),
+    to_user_id BIGINT NOT NULL,
+    to_user_email VARCHAR(255),
+    ticket_type VARCHAR(255),
+    transfer_date DATETIME(6) NOT NULL,
+    status VARCHAR(255),
+    PRIMARY KEY (id)
+);
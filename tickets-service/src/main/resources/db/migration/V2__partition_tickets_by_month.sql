@@ -0,0 +1,57 @@
+-- Partitionnement mensuel de tickets sur purchase_date.
+-- Les requêtes bornées sur purchase_date ne lisent que les partitions concernées, et les mois
+-- entièrement archivés sont supprimés par DROP PARTITION (voir TicketPartitionMaintenance).
+--
+-- MySQL exige que chaque clé unique contienne la colonne de partitionnement :
+--   * la clé primaire devient (id, purchase_date) ; id reste unique (identifiants générés) ;
+--   * l'unicité de qr_code_data est remplacée par un index simple : le payload contient
+--     l'identifiant du ticket et un UUID.
+-- Reconstruit la table : à exécuter hors des heures de pointe.
+
+SET @qr_unique := (
+    SELECT INDEX_NAME FROM information_schema.STATISTICS
+    WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'tickets'
+      AND COLUMN_NAME = 'qr_code_data' AND NON_UNIQUE = 0
+    LIMIT 1);
+SET @drop_qr_unique := IF(@qr_unique IS NULL, 'SELECT 1', CONCAT('ALTER TABLE tickets DROP INDEX `', @qr_unique, '`'));
+PREPARE stmt FROM @drop_qr_unique;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+ALTER TABLE tickets
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, purchase_date),
+    ADD INDEX idx_tickets_qr_code_data (qr_code_data);
+
+ALTER TABLE tickets
+PARTITION BY RANGE (TO_DAYS(purchase_date)) (
+    PARTITION p_before_2025 VALUES LESS THAN (TO_DAYS('2025-01-01')),
+    PARTITION p202501 VALUES LESS THAN (TO_DAYS('2025-02-01')),
+    PARTITION p202502 VALUES LESS THAN (TO_DAYS('2025-03-01')),
+    PARTITION p202503 VALUES LESS THAN (TO_DAYS('2025-04-01')),
+    PARTITION p202504 VALUES LESS THAN (TO_DAYS('2025-05-01')),
+    PARTITION p202505 VALUES LESS THAN (TO_DAYS('2025-06-01')),
+    PARTITION p202506 VALUES LESS THAN (TO_DAYS('2025-07-01')),
+    PARTITION p202507 VALUES LESS THAN (TO_DAYS('2025-08-01')),
+    PARTITION p202508 VALUES LESS THAN (TO_DAYS('2025-09-01')),
+    PARTITION p202509 VALUES LESS THAN (TO_DAYS('2025-10-01')),
+    PARTITION p202510 VALUES LESS THAN (TO_DAYS('2025-11-01')),
+    PARTITION p202511 VALUES LESS THAN (TO_DAYS('2025-12-01')),
+    PARTITION p202512 VALUES LESS THAN (TO_DAYS('2026-01-01')),
+    PARTITION p202601 VALUES LESS THAN (TO_DAYS('2026-02-01')),
+    PARTITION p202602 VALUES LESS THAN (TO_DAYS('2026-03-01')),
+    PARTITION p202603 VALUES LESS THAN (TO_DAYS('2026-04-01')),
+    PARTITION p202604 VALUES LESS THAN (TO_DAYS('2026-05-01')),
+    PARTITION p202605 VALUES LESS THAN (TO_DAYS('2026-06-01')),
+    PARTITION p202606 VALUES LESS THAN (TO_DAYS('2026-07-01')),
+    PARTITION p202607 VALUES LESS THAN (TO_DAYS('2026-08-01')),
+    PARTITION p202608 VALUES LESS THAN (TO_DAYS('2026-09-01')),
+    PARTITION p202609 VALUES LESS THAN (TO_DAYS('2026-10-01')),
+    PARTITION p202610 VALUES LESS THAN (TO_DAYS('2026-11-01')),
+    PARTITION p202611 VALUES LESS THAN (TO_DAYS('2026-12-01')),
+    PARTITION p202612 VALUES LESS THAN (TO_DAYS('2027-01-01')),
+    PARTITION p202701 VALUES LESS THAN (TO_DAYS('2027-02-01')),
+    PARTITION p202702 VALUES LESS THAN (TO_DAYS('2027-03-01')),
+    PARTITION p202703 VALUES LESS THAN (TO_DAYS('2027-04-01')),
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
@@ -0,0 +1,11 @@
+-- Archive froide des tickets sortis de la rétention (voir TicketArchivalService).
+-- Le ticket complet, image QR comprise, est stocké en JSON gzip dans payload.
+
+CREATE TABLE IF NOT EXISTS tickets_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    purchase_date DATETIME(6) NOT NULL,
+    archived_at DATETIME(6) NOT NULL,
+    payload LONGBLOB NOT NULL COMMENT 'Ticket complet en JSON gzip',
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,37 @@
+-- Index composites alignés sur les requêtes des repositories : colonnes d'égalité d'abord,
+-- puis la colonne de tri ou de plage. Garder en phase avec les @Index des entités
+-- (vérifiés par RepositoryQueryPlanTest).
+
+-- TicketRepository
+--   findByUserIdAndPurchaseDateGreaterThanEqual, findByUserId, findByUserIdAndTicketType
+--   findByUserIdAndStatus, countByUserIdAndStatus, countByUserId
+--   countByStatus, countByStatusIn, countByStatusAndValidationDateAfter/Between, findByStatusOrderByValidationDateDesc
+--   countByValidationDateGreaterThanEqual, findTop100ByValidationDateGreaterThanEqualOrderByValidationDateDesc
+--   lockArchivableBatch (en plus de l'élagage des partitions)
+ALTER TABLE tickets
+    ADD INDEX idx_tickets_user_purchase (user_id, purchase_date),
+    ADD INDEX idx_tickets_user_status (user_id, status),
+    ADD INDEX idx_tickets_status_validation (status, validation_date),
+    ADD INDEX idx_tickets_validation_date (validation_date),
+    ADD INDEX idx_tickets_purchase_date (purchase_date),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- RefundRepository
+--   findByUserIdOrderByRequestDateDesc
+--   findByStatusOrderByRequestDateDesc, countByStatus
+--   findByTicketId, existsByTicketIdAndStatusIn
+ALTER TABLE refunds
+    ADD INDEX idx_refunds_user_request (user_id, request_date),
+    ADD INDEX idx_refunds_status_request (status, request_date),
+    ADD INDEX idx_refunds_ticket_status (ticket_id, status),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- TransferHistoryRepository
+--   findByTicketIdOrderByTransferDateDesc
+--   findByFromUserIdOrderByTransferDateDesc, countByFromUserId
+--   findByToUserIdOrderByTransferDateDesc, countByToUserId
+ALTER TABLE transfer_history
+    ADD INDEX idx_transfer_ticket_date (ticket_id, transfer_date),
+    ADD INDEX idx_transfer_from_date (from_user_id, transfer_date),
+    ADD INDEX idx_transfer_to_date (to_user_id, transfer_date),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,93 @@
+-- Schéma compact de tickets, étape 1/3 (expand) : nouvelles colonnes à côté des anciennes.
+--   status / ticket_type (VARCHAR)      -> status_code / ticket_type_code (TINYINT, voir TicketStatus / TicketType)
+--   original_price / final_price (DOUBLE) -> original_price_cents / final_price_cents (INT, centimes)
+--   index sur qr_code_data (VARCHAR 255) -> qr_ref BINARY(16), empreinte SHA-256 tronquée (voir QrReference)
+--
+-- Migration en ligne :
+--   * V5 (cette étape) ajoute les colonnes en INSTANT (MySQL >= 8.0.29) et les index en INPLACE/LOCK=NONE ;
+--     les triggers recopient chaque écriture d'un format vers l'autre pendant le déploiement progressif,
+--     tant que des instances de l'ancienne version écrivent encore les colonnes historiques ;
+--   * V6 (db.migration.V6__backfill_compact_ticket_columns) remplit les lignes existantes par lots commités ;
+--   * V7 (db/contract) supprime triggers, colonnes et index historiques : à activer à la release suivante,
+--     une fois toutes les instances sur la nouvelle version.
+-- Avec le binlog actif (réplica), CREATE TRIGGER demande le privilège SUPER ou log_bin_trust_function_creators=1.
+
+ALTER TABLE tickets
+    ADD COLUMN ticket_type_code TINYINT NULL,
+    ADD COLUMN status_code TINYINT NULL,
+    ADD COLUMN original_price_cents INT NULL,
+    ADD COLUMN final_price_cents INT NULL,
+    ADD COLUMN qr_ref BINARY(16) NULL,
+    ALGORITHM = INSTANT;
+
+-- Les nouvelles instances n'écrivent plus les colonnes historiques : le trigger les remplit
+ALTER TABLE tickets
+    MODIFY COLUMN ticket_type VARCHAR(255) NULL,
+    MODIFY COLUMN status VARCHAR(255) NULL,
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+ALTER TABLE tickets
+    ADD INDEX idx_tickets_user_status_code (user_id, status_code),
+    ADD INDEX idx_tickets_status_code_validation (status_code, validation_date),
+    ADD INDEX idx_tickets_qr_ref (qr_ref),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+DELIMITER //
+
+CREATE TRIGGER tickets_compact_sync_insert BEFORE INSERT ON tickets
+FOR EACH ROW
+BEGIN
+    IF NEW.status_code IS NULL THEN
+        SET NEW.status_code = NULLIF(FIELD(NEW.status, 'VALIDE', 'UTILISE', 'ANNULE', 'EXPIRE'), 0);
+    ELSEIF NEW.status IS NULL THEN
+        SET NEW.status = ELT(NEW.status_code, 'VALIDE', 'UTILISE', 'ANNULE', 'EXPIRE');
+    END IF;
+    IF NEW.ticket_type_code IS NULL THEN
+        SET NEW.ticket_type_code = NULLIF(FIELD(NEW.ticket_type, 'SIMPLE', 'JOURNEE', 'HEBDO', 'MENSUEL'), 0);
+    ELSEIF NEW.ticket_type IS NULL THEN
+        SET NEW.ticket_type = ELT(NEW.ticket_type_code, 'SIMPLE', 'JOURNEE', 'HEBDO', 'MENSUEL');
+    END IF;
+    IF NEW.original_price_cents IS NULL THEN
+        SET NEW.original_price_cents = ROUND(NEW.original_price * 100);
+    ELSEIF NEW.original_price IS NULL THEN
+        SET NEW.original_price = NEW.original_price_cents / 100;
+    END IF;
+    IF NEW.final_price_cents IS NULL THEN
+        SET NEW.final_price_cents = ROUND(NEW.final_price * 100);
+    ELSEIF NEW.final_price IS NULL THEN
+        SET NEW.final_price = NEW.final_price_cents / 100;
+    END IF;
+    IF NEW.qr_ref IS NULL AND NEW.qr_code_data IS NOT NULL THEN
+        SET NEW.qr_ref = UNHEX(LEFT(SHA2(NEW.qr_code_data, 256), 32));
+    END IF;
+END//
+
+CREATE TRIGGER tickets_compact_sync_update BEFORE UPDATE ON tickets
+FOR EACH ROW
+BEGIN
+    IF NOT (NEW.status <=> OLD.status) THEN
+        SET NEW.status_code = NULLIF(FIELD(NEW.status, 'VALIDE', 'UTILISE', 'ANNULE', 'EXPIRE'), 0);
+    ELSEIF NOT (NEW.status_code <=> OLD.status_code) THEN
+        SET NEW.status = ELT(NEW.status_code, 'VALIDE', 'UTILISE', 'ANNULE', 'EXPIRE');
+    END IF;
+    IF NOT (NEW.ticket_type <=> OLD.ticket_type) THEN
+        SET NEW.ticket_type_code = NULLIF(FIELD(NEW.ticket_type, 'SIMPLE', 'JOURNEE', 'HEBDO', 'MENSUEL'), 0);
+    ELSEIF NOT (NEW.ticket_type_code <=> OLD.ticket_type_code) THEN
+        SET NEW.ticket_type = ELT(NEW.ticket_type_code, 'SIMPLE', 'JOURNEE', 'HEBDO', 'MENSUEL');
+    END IF;
+    IF NOT (NEW.original_price <=> OLD.original_price) THEN
+        SET NEW.original_price_cents = ROUND(NEW.original_price * 100);
+    ELSEIF NOT (NEW.original_price_cents <=> OLD.original_price_cents) THEN
+        SET NEW.original_price = NEW.original_price_cents / 100;
+    END IF;
+    IF NOT (NEW.final_price <=> OLD.final_price) THEN
+        SET NEW.final_price_cents = ROUND(NEW.final_price * 100);
+    ELSEIF NOT (NEW.final_price_cents <=> OLD.final_price_cents) THEN
+        SET NEW.final_price = NEW.final_price_cents / 100;
+    END IF;
+    IF NOT (NEW.qr_code_data <=> OLD.qr_code_data) THEN
+        SET NEW.qr_ref = UNHEX(LEFT(SHA2(NEW.qr_code_data, 256), 32));
+    END IF;
+END//
+
+DELIMITER ;
@@ -0,0 +1,11 @@
+-- Verrouillage optimiste (@Version) des tickets et des demandes de remboursement.
+-- V7 est réservée à l'étape contract du schéma compact (db/contract).
+-- Les lignes existantes partent de la version 0.
+
+ALTER TABLE tickets
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+    ALGORITHM = INSTANT;
+
+ALTER TABLE refunds
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+    ALGORITHM = INSTANT;
@@ -0,0 +1,12 @@
+-- Transferts de tickets vers un autre shard en attente d'application (voir TicketMoveRelay).
+-- Écrits avec la suppression du ticket d'origine, supprimés une fois le ticket recréé sur le shard cible.
+
+CREATE TABLE IF NOT EXISTS ticket_moves (
+    id BIGINT NOT NULL COMMENT 'Identifiant du ticket recréé sur le shard cible',
+    source_ticket_id BIGINT NOT NULL,
+    target_shard INT NOT NULL,
+    payload LONGTEXT NOT NULL COMMENT 'Ticket et historique du destinataire en JSON',
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_ticket_moves_created (created_at)
+);
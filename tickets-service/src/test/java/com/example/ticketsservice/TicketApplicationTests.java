@@ -1,9 +1,11 @@
-package com.example.ticket;
+package com.example.ticketsservice;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class TicketApplicationTests {
 
 	@Test
@@ -0,0 +1,52 @@
+package com.example.ticketsservice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Garde-fou du mode threads virtuels (spring.threads.virtual.enabled) : sous JDK 21, une attente
+ * bloquante dans un bloc synchronized épingle le thread porteur. Le code applicatif utilise des
+ * verrous java.util.concurrent à la place.
+ */
+class VirtualThreadPinningTest {
+
+    private static final Path SOURCES = Path.of("src/main/java");
+    private static final Pattern MONITOR = Pattern.compile("\\bsynchronized\\s*(\\(|\\w)");
+
+    @Test
+    @DisplayName("Aucun bloc ni méthode synchronized dans le code applicatif")
+    void noMonitorsInApplicationCode() throws IOException {
+        List<String> offenders = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(SOURCES)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".java")).toList()) {
+                List<String> lines = Files.readAllLines(file);
+                for (int i = 0; i < lines.size(); i++) {
+                    if (MONITOR.matcher(code(lines.get(i))).find()) {
+                        offenders.add(SOURCES.relativize(file) + ":" + (i + 1));
+                    }
+                }
+            }
+        }
+        assertEquals(List.of(), offenders);
+    }
+
+    // Ignore les commentaires, qui peuvent citer le mot-clé
+    private static String code(String line) {
+        String trimmed = line.strip();
+        if (trimmed.startsWith("*") || trimmed.startsWith("/*")) {
+            return "";
+        }
+        int comment = line.indexOf("//");
+        return comment >= 0 ? line.substring(0, comment) : line;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.ticketsservice.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.example.ticketsservice.config.logging.RequestLoggingFilter;
+import com.example.ticketsservice.config.logging.RequestLoggingProperties;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.ContextInitializer;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.OutputStreamAppender;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Compare le débit de threads "requête" qui écrivent sur un PrintStream synchronisé (ancien
+ * System.out.println de TicketController) avec le chemin de production : RequestLoggingFilter,
+ * qui échantillonne par route, devant l'appender asynchrone configuré comme dans logback-spring.xml.
+ * Le puits simule le coût d'une écriture console (~20 µs par flush), partagé par tous les scénarios.
+ * En production (neverBlock, discardingThreshold), l'appender abandonne des lignes quand sa file sature :
+ * chaque scénario indique donc combien de lignes ont réellement atteint le puits, et une variante
+ * bloquante sans seuil d'abandon sert de référence sans perte.
+ *
+ * Lancement : {@code mvn test -Pbenchmark}
+ */
+@Tag("benchmark")
+class LoggingThroughputBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int OPS_PER_THREAD = 5_000;
+    private static final String ROUTE = "/api/tickets/validate-qr/{qrCode}";
+
+    @Test
+    void compareStdoutWithAsyncSampledLogging() throws Exception {
+        ConsoleLikeSink stdoutSink = new ConsoleLikeSink();
+        PrintStream stdout = new PrintStream(stdoutSink, true);
+        double syncOps = run("System.out.println", i -> {
+            stdout.println("🔍 Validation QR Code: TICKET-" + i);
+            stdout.println("✅ Ticket valide - SIMPLE - Utilisateur " + i);
+        });
+        System.err.printf("%-48s %12d lignes écrites%n", "", stdoutSink.lines.sum());
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        try {
+            double blockingOps = runRequestLogging(context, "Filtre + async bloquant (sans perte)", 1.0, false);
+            double asyncOps = runRequestLogging(context, "Filtre + async neverBlock", 1.0, true);
+            double sampledOps = runRequestLogging(context, "Filtre échantillonné 1% + async neverBlock", 0.01, true);
+
+            System.err.printf("%nDébit relatif : async bloquant x%.1f, async neverBlock x%.1f, échantillonné x%.1f par rapport à System.out%n",
+                    blockingOps / syncOps, asyncOps / syncOps, sampledOps / syncOps);
+        } finally {
+            context.reset();
+            new ContextInitializer(context).autoConfig();
+        }
+    }
+
+    private static double runRequestLogging(LoggerContext context, String label, double sampleRate, boolean neverBlock)
+            throws InterruptedException {
+        ConsoleLikeSink sink = new ConsoleLikeSink();
+        LongAdder offered = new LongAdder();
+        AsyncAppender async = configure(context, sink, offered, neverBlock);
+
+        RequestLoggingProperties properties = new RequestLoggingProperties();
+        properties.getSampleRates().put(ROUTE, sampleRate);
+        RequestLoggingFilter filter = new RequestLoggingFilter(properties);
+        FilterChain chain = (request, response) -> {
+        };
+
+        long start = System.nanoTime();
+        double opsPerSecond = run(label, i -> {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tickets/validate-qr/TICKET-" + i);
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, ROUTE);
+            try {
+                filter.doFilter(request, new MockHttpServletResponse(), chain);
+            } catch (IOException | ServletException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // Vide la file : les lignes encore en attente comptent comme écrites, pas comme perdues
+        async.stop();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long written = sink.lines.sum();
+        System.err.printf("%-48s %12d lignes écrites (%.0f/s), %d perdues sur %d%n",
+                "", written, written / seconds, offered.sum() - written, offered.sum());
+        return opsPerSecond;
+    }
+
+    private static double run(String label, IntConsumer requestLogging) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        LongAdder completed = new LongAdder();
+        CountDownLatch done = new CountDownLatch(THREADS);
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    requestLogging.accept(i);
+                    completed.increment();
+                }
+                done.countDown();
+            });
+        }
+        done.await(5, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        pool.shutdown();
+        double opsPerSecond = completed.sum() / seconds;
+        System.err.printf("%-48s %12.0f requêtes/s%n", label, opsPerSecond);
+        return opsPerSecond;
+    }
+
+    // Réglages de ASYNC_CONSOLE (logback-spring.xml) ; la variante bloquante n'abandonne rien
+    private static AsyncAppender configure(LoggerContext context, OutputStream out, LongAdder offered, boolean neverBlock) {
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d %level [%X{correlationId}] %logger{36} : %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setEncoder(encoder);
+        sink.setOutputStream(out);
+        sink.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setDiscardingThreshold(neverBlock ? 1638 : 0);
+        async.setNeverBlock(neverBlock);
+        async.setMaxFlushTime(0);
+        async.addAppender(sink);
+        async.start();
+
+        // Compte les lignes soumises à l'appender asynchrone, avant toute perte
+        AppenderBase<ILoggingEvent> counter = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                offered.increment();
+            }
+        };
+        counter.setContext(context);
+        counter.start();
+
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.addAppender(counter);
+        root.addAppender(async);
+        return async;
+    }
+
+    /** Puits dont chaque flush coûte autant qu'une écriture sur un terminal ou un pipe Docker. */
+    private static final class ConsoleLikeSink extends OutputStream {
+
+        private final LongAdder lines = new LongAdder();
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines.increment();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        @Override
+        public void flush() {
+            long until = System.nanoTime() + 20_000;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
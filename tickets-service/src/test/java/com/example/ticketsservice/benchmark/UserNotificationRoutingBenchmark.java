@@ -0,0 +1,91 @@
+package com.example.ticketsservice.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+
+import com.example.ticketsservice.config.websocket.DestinationIndexedSubscriptionRegistry;
+
+/**
+ * Coût de la résolution des abonnements pour une notification personnelle, avec 50 000 sessions
+ * connectées (une file personnelle + le topic de diffusion chacune) :
+ * <ul>
+ *   <li>ancien schéma : /topic/user.{id} dans DefaultSubscriptionRegistry ;</li>
+ *   <li>files de session (convertAndSendToUser) dans DefaultSubscriptionRegistry, cache de 1024 destinations ;</li>
+ *   <li>files de session dans DestinationIndexedSubscriptionRegistry.</li>
+ * </ul>
+ * Les envois visent des utilisateurs tirés au hasard, comme les achats et validations en production.
+ *
+ * Lancement : {@code mvn test -Pbenchmark}
+ */
+@Tag("benchmark")
+class UserNotificationRoutingBenchmark {
+
+    private static final int SESSIONS = 50_000;
+    private static final int SENDS = 20_000;
+
+    @Test
+    void compareSubscriptionLookups() {
+        double perUserTopic = run("Topic par utilisateur (défaut)", new DefaultSubscriptionRegistry(),
+                session -> "/topic/user." + session);
+        double sessionQueues = run("Files de session (défaut)", new DefaultSubscriptionRegistry(),
+                session -> "/queue/notifications-user" + sessionId(session));
+        double indexed = run("Files de session (index)", new DestinationIndexedSubscriptionRegistry(),
+                session -> "/queue/notifications-user" + sessionId(session));
+
+        System.err.printf("%nDébit relatif de l'index : x%.0f par rapport au topic par utilisateur, "
+                + "x%.0f par rapport aux files de session sans index%n", indexed / perUserTopic, indexed / sessionQueues);
+    }
+
+    private static double run(String label, SubscriptionRegistry registry, IntFunction<String> userDestination) {
+        for (int session = 0; session < SESSIONS; session++) {
+            registry.registerSubscription(subscribe(session, "user", userDestination.apply(session)));
+            registry.registerSubscription(subscribe(session, "broadcast", "/topic/broadcast"));
+        }
+
+        // Échauffement du JIT, puis mesure
+        send(registry, userDestination, SENDS / 10);
+        long start = System.nanoTime();
+        int delivered = send(registry, userDestination, SENDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double sendsPerSecond = SENDS / seconds;
+        System.err.printf("%-40s %12.0f envois/s (%d sessions livrées)%n", label, sendsPerSecond, delivered);
+        return sendsPerSecond;
+    }
+
+    private static int send(SubscriptionRegistry registry, IntFunction<String> userDestination, int count) {
+        int delivered = 0;
+        for (int i = 0; i < count; i++) {
+            int session = ThreadLocalRandom.current().nextInt(SESSIONS);
+            delivered += registry.findSubscriptions(message(userDestination.apply(session))).size();
+        }
+        return delivered;
+    }
+
+    private static Message<byte[]> subscribe(int session, String subscriptionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId(sessionId(session));
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Message<byte[]> message(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static String sessionId(int session) {
+        return "s" + session;
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.ticketsservice.config;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.ticketsservice.controller.NotificationController;
+
+/**
+ * Relais STOMP contre un vrai RabbitMQ (plugin STOMP activé). Un client branché directement sur le
+ * broker tient le rôle d'un second réplica : les messages doivent circuler dans les deux sens.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "tickets.websocket.broker.mode=relay")
+@ActiveProfiles("test")
+class WebSocketBrokerRelayTest {
+
+    private static final int STOMP_PORT = 61613;
+
+    @Container
+    static final RabbitMQContainer RABBIT = new RabbitMQContainer("rabbitmq:3-management-alpine")
+            .withCopyToContainer(Transferable.of("[rabbitmq_management,rabbitmq_stomp]."), "/etc/rabbitmq/enabled_plugins")
+            .withExposedPorts(5672, 15672, STOMP_PORT);
+
+    @DynamicPropertySource
+    static void relay(DynamicPropertyRegistry registry) {
+        registry.add("tickets.websocket.broker.relay.host", RABBIT::getHost);
+        registry.add("tickets.websocket.broker.relay.port", () -> RABBIT.getMappedPort(STOMP_PORT));
+        registry.add("tickets.websocket.broker.relay.login", RABBIT::getAdminUsername);
+        registry.add("tickets.websocket.broker.relay.passcode", RABBIT::getAdminPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NotificationController notificationController;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    private ReactorNettyTcpStompClient brokerClient;
+    private WebSocketStompClient webSocketClient;
+    private final ThreadPoolTaskScheduler receiptScheduler = receiptScheduler();
+
+    @AfterEach
+    void tearDown() {
+        receiptScheduler.shutdown();
+        if (brokerClient != null) {
+            brokerClient.shutdown();
+        }
+        if (webSocketClient != null) {
+            webSocketClient.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Une notification pour un utilisateur connecté ailleurs part vers les autres réplicas")
+    void notificationReachesClientsOfOtherReplicas() throws Exception {
+        StompSession otherReplica = connectToBroker();
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        // Aucune session locale pour l'utilisateur 7 : le réplica qui la porte reprend le message
+        subscribe(otherReplica, WebSocketConfig.USER_DESTINATION_BROADCAST, received);
+
+        notificationController.notifyTicketValidated(7L, 42L);
+
+        String payload = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(payload, "Notification non relayée par RabbitMQ");
+        assertTrue(payload.contains("TICKET_VALIDATED"));
+    }
+
+    @Test
+    @DisplayName("Un client WebSocket de ce réplica reçoit un message publié par un autre réplica")
+    void webSocketClientReceivesMessagesFromOtherReplicas() throws Exception {
+        webSocketClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        webSocketClient.setTaskScheduler(receiptScheduler);
+        StompSession client = webSocketClient
+                .connectAsync("http://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+        client.setAutoReceipt(true);
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        subscribe(client, "/topic/broadcast", received);
+
+        StompSession otherReplica = connectToBroker();
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/topic/broadcast");
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        otherReplica.send(headers, "{\"type\":\"SYSTEM\"}".getBytes(StandardCharsets.UTF_8));
+
+        String payload = received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(payload, "Message du broker non relayé vers la session WebSocket");
+        assertTrue(payload.contains("SYSTEM"));
+    }
+
+    private StompSession connectToBroker() throws Exception {
+        brokerClient = new ReactorNettyTcpStompClient(RABBIT.getHost(), RABBIT.getMappedPort(STOMP_PORT));
+        brokerClient.setTaskScheduler(receiptScheduler);
+        StompHeaders connect = new StompHeaders();
+        connect.setLogin(RABBIT.getAdminUsername());
+        connect.setPasscode(RABBIT.getAdminPassword());
+        connect.setHost("/");
+        StompSession session = brokerClient.connectAsync(connect, new StompSessionHandlerAdapter() {})
+                .get(10, TimeUnit.SECONDS);
+        session.setAutoReceipt(true);
+        return session;
+    }
+
+    // Les accusés de réception sont suivis avec un délai d'expiration : le client STOMP veut un planificateur
+    private static ThreadPoolTaskScheduler receiptScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    // Attend l'accusé de réception : l'abonnement est actif côté broker avant tout envoi
+    private static void subscribe(StompSession session, String destination, BlockingQueue<String> received)
+            throws InterruptedException {
+        CountDownLatch subscribed = new CountDownLatch(1);
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add(new String((byte[]) payload, StandardCharsets.UTF_8));
+            }
+        }).addReceiptTask(subscribed::countDown);
+        assertTrue(subscribed.await(10, TimeUnit.SECONDS), "Abonnement non confirmé sur " + destination);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.ticketsservice.config.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.example.ticketsservice.event.CacheInvalidationEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CacheInvalidationBusTest {
+
+    private final TicketCacheProperties properties = new TicketCacheProperties();
+    // Redis toujours vide : une lecture qui n'appelle pas le loader vient forcément du niveau local
+    private final StringRedisTemplate redis = mock(StringRedisTemplate.class, RETURNS_DEEP_STUBS);
+    private final RabbitTemplate publisherTemplate = mock(RabbitTemplate.class);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private CacheInvalidationBus publisher;
+    private CacheInvalidationBus receiver;
+    private TwoTierCache<String> publisherCache;
+    private TwoTierCache<String> receiverCache;
+
+    @BeforeEach
+    void setUp() {
+        // Redis accepte toujours l'écriture : le niveau local est alimenté après chaque chargement
+        doReturn(1L).when(redis).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        publisher = new CacheInvalidationBus(publisherTemplate, properties, new SimpleMeterRegistry());
+        receiver = new CacheInvalidationBus(mock(RabbitTemplate.class), properties, new SimpleMeterRegistry());
+        publisherCache = cache();
+        receiverCache = cache();
+        publisher.register(publisherCache);
+        receiver.register(receiverCache);
+    }
+
+    @Test
+    @DisplayName("Les invalidations sont publiées en un seul lot et ne purgent que les clés concernées")
+    void invalidations_AreBatchedAndEvictOnlyTheirKeys() {
+        read(receiverCache, "1");
+        read(receiverCache, "2");
+        read(receiverCache, "3");
+
+        publisher.invalidate(publisherCache, "1");
+        publisher.invalidate(publisherCache, "2");
+        publisher.invalidate(publisherCache, "1");
+        publisher.flush();
+
+        CacheInvalidationEvent event = published().get(0);
+        assertEquals(1, event.getGeneration());
+        assertEquals(Map.of("ticket", List.of("1", "2")), event.getKeys());
+
+        receiver.handle(event);
+        loads.set(0);
+        read(receiverCache, "1");
+        read(receiverCache, "2");
+        read(receiverCache, "3");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Un lot perdu entre deux battements vide tout le cache local")
+    void missedBatch_FlushesLocalCache() {
+        properties.getInvalidation().setHeartbeatInterval(Duration.ZERO);
+        read(receiverCache, "1");
+        read(receiverCache, "2");
+
+        publisher.flush();
+        publisher.invalidate(publisherCache, "1");
+        publisher.flush();
+        publisher.flush();
+        List<CacheInvalidationEvent> events = published();
+        assertEquals(3, events.size());
+
+        receiver.handle(events.get(0));
+        loads.set(0);
+        read(receiverCache, "2");
+        assertEquals(0, loads.get());
+
+        // Le lot 2 (qui invalidait "1") n'arrive jamais : le battement 3 révèle le trou
+        receiver.handle(events.get(2));
+        read(receiverCache, "2");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Le premier lot d'un émetteur inconnu sert de référence sans purger le cache")
+    void firstBatchFromUnknownOrigin_IsABaseline() {
+        read(receiverCache, "1");
+        read(receiverCache, "2");
+
+        receiver.handle(CacheInvalidationEvent.builder()
+                .origin("autre-replica")
+                .generation(42)
+                .keys(Map.of("ticket", List.of("1")))
+                .build());
+        loads.set(0);
+        read(receiverCache, "1");
+        read(receiverCache, "2");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Un lot non publié garde sa génération et ses clés pour le flush suivant")
+    void failedPublish_RetriesWithSameGeneration() {
+        doThrow(new AmqpConnectException(new ConnectException("refused")))
+                .doNothing()
+                .when(publisherTemplate)
+                .convertAndSend(eq("transport_events"), eq("tickets.cache.invalidate"), any(CacheInvalidationEvent.class));
+
+        publisher.invalidate(publisherCache, "1");
+        publisher.flush();
+        publisher.flush();
+
+        List<CacheInvalidationEvent> events = published();
+        assertEquals(2, events.size());
+        assertEquals(1, events.get(1).getGeneration());
+        assertEquals(Map.of("ticket", List.of("1")), events.get(1).getKeys());
+    }
+
+    private TwoTierCache<String> cache() {
+        return new TwoTierCache<>("ticket", String.class, value -> 0, redis, new ObjectMapper(), properties, new SimpleMeterRegistry());
+    }
+
+    private void read(TwoTierCache<String> cache, String key) {
+        cache.get(key, () -> {
+            loads.incrementAndGet();
+            return Optional.of("ticket-" + key);
+        });
+    }
+
+    private List<CacheInvalidationEvent> published() {
+        ArgumentCaptor<CacheInvalidationEvent> captor = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(publisherTemplate, atLeastOnce())
+                .convertAndSend(eq("transport_events"), eq("tickets.cache.invalidate"), captor.capture());
+        return captor.getAllValues();
+    }
+}
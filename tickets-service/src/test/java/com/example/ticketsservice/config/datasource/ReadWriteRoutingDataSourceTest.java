@@ -0,0 +1,68 @@
+package com.example.ticketsservice.config.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicBoolean replicaAvailable = new AtomicBoolean(true);
+    private final ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaAvailable::get);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    @DisplayName("Should route read-only transactions to the replica")
+    void readOnlyTransaction_UsesReplica() {
+        beginTransaction(true);
+
+        assertEquals(DataSourceRole.REPLICA, routing.currentRole());
+    }
+
+    @Test
+    @DisplayName("Should route read-write transactions and non-transactional work to the primary")
+    void writeTransaction_UsesPrimary() {
+        assertEquals(DataSourceRole.PRIMARY, routing.currentRole());
+
+        beginTransaction(false);
+        assertEquals(DataSourceRole.PRIMARY, routing.currentRole());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when the replica lags")
+    void laggingReplica_UsesPrimary() {
+        beginTransaction(true);
+        replicaAvailable.set(false);
+
+        assertEquals(DataSourceRole.PRIMARY, routing.currentRole());
+    }
+
+    @Test
+    @DisplayName("Should read from the primary right after a user's own write")
+    void readYourWrites_UsesPrimary() {
+        beginTransaction(true);
+        ReadYourWritesGuard guard = new ReadYourWritesGuard(Duration.ofSeconds(5));
+        guard.recordWrite(1L);
+
+        assertTrue(guard.mustReadPrimary(1L));
+        assertEquals(DataSourceRole.PRIMARY, guard.readFor(1L, routing::currentRole));
+        assertEquals(DataSourceRole.REPLICA, guard.readFor(2L, routing::currentRole));
+        assertEquals(DataSourceRole.REPLICA, routing.currentRole());
+    }
+
+    private static void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
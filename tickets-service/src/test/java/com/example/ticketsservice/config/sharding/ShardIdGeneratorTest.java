@@ -0,0 +1,105 @@
+package com.example.ticketsservice.config.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.example.ticketsservice.exception.TicketNotFoundException;
+
+class ShardIdGeneratorTest {
+
+    private static final long MAX_SAFE_JS_INTEGER = (1L << 53) - 1;
+
+    @Test
+    @DisplayName("Should encode the shard in every generated ID")
+    void nextId_EncodesShard() {
+        ShardIdGenerator generator = new ShardIdGenerator(7);
+
+        for (int shard = 0; shard < ShardIdGenerator.MAX_SHARDS; shard++) {
+            long id = generator.nextId(shard);
+            assertEquals(shard, ShardIdGenerator.shardOf(id));
+            assertTrue(id > ShardIdGenerator.LEGACY_ID_CEILING);
+            assertTrue(id <= MAX_SAFE_JS_INTEGER, "L'ID doit rester exact côté JavaScript");
+        }
+    }
+
+    @Test
+    @DisplayName("Should generate unique IDs under contention")
+    void nextId_UniqueAcrossThreads() {
+        ShardIdGenerator generator = new ShardIdGenerator(0);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 20_000).parallel().forEach(i -> ids.add(generator.nextId(i % 4)));
+
+        assertEquals(20_000, ids.size());
+    }
+
+    @Test
+    @DisplayName("Should keep pre-sharding auto-increment IDs on shard 0")
+    void shardOf_LegacyIds() {
+        assertEquals(0, ShardIdGenerator.shardOf(1L));
+        assertEquals(0, ShardIdGenerator.shardOf(9_876_543L));
+    }
+
+    @Test
+    @DisplayName("Should recover the creation time from a generated ID")
+    void createdAt_FromTimestampBits() {
+        long before = System.currentTimeMillis();
+        long id = new ShardIdGenerator(3).nextId(5);
+        long after = System.currentTimeMillis();
+
+        long created = ShardIdGenerator.createdAt(id).orElseThrow().toEpochMilli();
+        assertTrue(created >= before && created <= after);
+        assertTrue(ShardIdGenerator.createdAt(9_876_543L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should route a user and the tickets created for them to the same shard")
+    void router_UserAndTicketShareShard() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.getShards().addAll(IntStream.range(0, 4).mapToObj(i -> new ShardingProperties.Shard()).toList());
+        ShardRouter router = new ShardRouter(properties);
+
+        for (long userId = 1; userId <= 50; userId++) {
+            int shard = router.shardForUser(userId);
+            assertEquals(shard, router.shardForId(router.nextId(shard)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse to start on Kubernetes without a worker ID")
+    void router_KubernetesRequiresWorkerId() {
+        MockEnvironment kubernetes = new MockEnvironment().withProperty("spring.main.cloud-platform", "kubernetes");
+        ShardingProperties properties = new ShardingProperties();
+
+        assertThrows(IllegalStateException.class, () -> new ShardRouter(properties, kubernetes));
+
+        properties.setWorkerId(3);
+        new ShardRouter(properties, kubernetes);
+        new ShardRouter(new ShardingProperties(), new MockEnvironment());
+    }
+
+    @Test
+    @DisplayName("Should reject an ID that names an undeclared shard instead of routing it to the last one")
+    void router_RejectsUnknownShard() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.getShards().addAll(IntStream.range(0, 2).mapToObj(i -> new ShardingProperties.Shard()).toList());
+        ShardRouter router = new ShardRouter(properties);
+        long foreignId = new ShardIdGenerator(0).nextId(5);
+
+        assertFalse(router.routes(foreignId));
+        assertThrows(TicketNotFoundException.class, () -> router.shardForId(foreignId));
+        assertEquals(0, router.shardForId(42L));
+    }
+}
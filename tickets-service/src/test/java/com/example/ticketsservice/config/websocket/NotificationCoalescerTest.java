@@ -0,0 +1,98 @@
+package com.example.ticketsservice.config.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.example.ticketsservice.controller.NotificationController;
+import com.example.ticketsservice.dto.NotificationMessage;
+import com.example.ticketsservice.service.TicketMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationCoalescerTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final NotificationCoalescingProperties properties = new NotificationCoalescingProperties();
+
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new NotificationCoalescer(messagingTemplate, properties, new TicketMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    @DisplayName("Une rafale vers un utilisateur part en une seule trame, dans l'ordre des envois")
+    void burst_IsSentAsOneFrame() {
+        properties.setWindow(Duration.ZERO);
+        coalescer.submit(1L, notification("a"));
+        coalescer.submit(1L, notification("b"));
+        coalescer.submit(1L, notification("c"));
+        coalescer.submit(2L, notification("d"));
+        verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+
+        coalescer.flush();
+
+        NotificationMessage batch = sent("1").get(0);
+        assertEquals(NotificationCoalescer.BATCH_TYPE, batch.getType());
+        assertEquals(List.of("a", "b", "c"), ((List<?>) batch.getData()).stream()
+                .map(n -> ((NotificationMessage) n).getMessage())
+                .toList());
+        assertEquals("d", sent("2").get(0).getMessage());
+    }
+
+    @Test
+    @DisplayName("Le lot attend la fin de la fenêtre, puis une notification seule part telle quelle")
+    void singleNotification_WaitsForTheWindowAndIsSentUnchanged() {
+        properties.setWindow(Duration.ofMinutes(1));
+        NotificationMessage notification = notification("a");
+        coalescer.submit(1L, notification);
+
+        coalescer.flush();
+        verify(messagingTemplate, never()).convertAndSendToUser(any(), any(), any());
+
+        properties.setWindow(Duration.ZERO);
+        coalescer.flush();
+        assertSame(notification, sent("1").get(0));
+    }
+
+    @Test
+    @DisplayName("Un lot plein part sans attendre la fenêtre")
+    void fullBatch_IsSentImmediately() {
+        properties.setWindow(Duration.ofMinutes(1));
+        properties.setMaxBatchSize(2);
+        coalescer.submit(1L, notification("a"));
+        coalescer.submit(1L, notification("b"));
+        coalescer.submit(1L, notification("c"));
+
+        List<NotificationMessage> frames = sent("1");
+        assertEquals(1, frames.size());
+        assertEquals(2, ((List<?>) frames.get(0).getData()).size());
+    }
+
+    private static NotificationMessage notification(String message) {
+        return NotificationMessage.builder().type("TICKET_PURCHASED").message(message).build();
+    }
+
+    private List<NotificationMessage> sent(String user) {
+        ArgumentCaptor<NotificationMessage> captor = ArgumentCaptor.forClass(NotificationMessage.class);
+        verify(messagingTemplate, times(1))
+                .convertAndSendToUser(eq(user), eq(NotificationController.USER_QUEUE), captor.capture());
+        return captor.getAllValues();
+    }
+}
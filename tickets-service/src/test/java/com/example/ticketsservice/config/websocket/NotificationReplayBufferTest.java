@@ -0,0 +1,88 @@
+package com.example.ticketsservice.config.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.ticketsservice.config.WebSocketBrokerProperties;
+import com.example.ticketsservice.dto.NotificationMessage;
+import com.example.ticketsservice.dto.NotificationReplay;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class NotificationReplayBufferTest {
+
+    private final NotificationReplayProperties properties = new NotificationReplayProperties();
+    private final WebSocketBrokerProperties brokerProperties = new WebSocketBrokerProperties();
+
+    @Test
+    @DisplayName("Un client reconnecté ne reçoit que ses notifications postérieures au numéro demandé")
+    void replay_ReturnsOnlyMissedNotificationsOfTheUser() {
+        NotificationReplayBuffer buffer = buffer();
+        NotificationMessage seen = record(buffer, 1L, "a");
+        record(buffer, 2L, "autre utilisateur");
+        record(buffer, 1L, "b");
+        NotificationMessage last = record(buffer, 1L, "c");
+
+        NotificationReplay replay = buffer.since(1L, seen.getSeq());
+
+        assertEquals(List.of("b", "c"), messages(replay));
+        assertEquals(last.getSeq(), replay.lastSeq());
+        assertTrue(replay.complete());
+        assertTrue(buffer.since(1L, last.getSeq()).notifications().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Tampon dépassé ou numéro antérieur au démarrage : réponse incomplète")
+    void overwrittenOrUnknownSequence_IsIncomplete() {
+        properties.setPerUserCapacity(2);
+        NotificationReplayBuffer buffer = buffer();
+        NotificationMessage first = record(buffer, 1L, "a");
+        NotificationMessage second = record(buffer, 1L, "b");
+        record(buffer, 1L, "c");
+
+        NotificationReplay afterFirst = buffer.since(1L, first.getSeq());
+        assertEquals(List.of("b", "c"), messages(afterFirst));
+        assertTrue(afterFirst.complete());
+
+        NotificationReplay beforeFirst = buffer.since(1L, first.getSeq() - 1);
+        assertEquals(List.of("b", "c"), messages(beforeFirst));
+        assertFalse(beforeFirst.complete());
+
+        assertTrue(buffer.since(1L, second.getSeq()).complete());
+        assertFalse(buffer.since(3L, 0).complete());
+    }
+
+    @Test
+    @DisplayName("En mode relais, d'autres réplicas ont pu notifier l'utilisateur : jamais complet")
+    void relayMode_IsNeverComplete() {
+        brokerProperties.setMode(WebSocketBrokerProperties.Mode.RELAY);
+        NotificationReplayBuffer buffer = buffer();
+        NotificationMessage first = record(buffer, 1L, "a");
+        record(buffer, 1L, "b");
+
+        NotificationReplay replay = buffer.since(1L, first.getSeq());
+
+        assertEquals(List.of("b"), messages(replay));
+        assertFalse(replay.complete());
+    }
+
+    private NotificationReplayBuffer buffer() {
+        return new NotificationReplayBuffer(properties, brokerProperties, new SimpleMeterRegistry());
+    }
+
+    private static NotificationMessage record(NotificationReplayBuffer buffer, Long userId, String message) {
+        NotificationMessage notification = NotificationMessage.builder().type("TICKET_PURCHASED").message(message).build();
+        buffer.record(userId, notification);
+        return notification;
+    }
+
+    private static List<String> messages(NotificationReplay replay) {
+        return replay.notifications().stream().map(NotificationMessage::getMessage).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.ticketsservice.config.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SlowConsumerGuardTest {
+
+    private static final int MAX_QUEUED = 3;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final WebSocketSession session = mock(WebSocketSession.class);
+
+    private SlowConsumerGuard guard;
+    private WebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        guard = new SlowConsumerGuard(MAX_QUEUED, registry);
+        handler = guard.decorate(mock(WebSocketHandler.class));
+        when(session.getId()).thenReturn("s1");
+        handler.afterConnectionEstablished(session);
+    }
+
+    @Test
+    @DisplayName("Une session qui n'écoule plus ses trames est fermée et ses trames suivantes abandonnées")
+    void slowSession_IsClosedOnceItsQueueIsFull() throws Exception {
+        for (int i = 0; i < MAX_QUEUED; i++) {
+            assertNotNull(guard.preSend(frame("s1"), channel));
+        }
+        verify(session, never()).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(MAX_QUEUED, registry.get("tickets.websocket.outbound.queued").gauge().value());
+
+        assertNull(guard.preSend(frame("s1"), channel));
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, registry.get("tickets.websocket.outbound.dropped").counter().count());
+
+        handler.afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, registry.get("tickets.websocket.slow.consumer.disconnects").counter().count());
+        assertEquals(0, registry.get("tickets.websocket.outbound.queued").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Les trames écrites ou refusées par le pool libèrent leur place dans la file de la session")
+    void handledAndRejectedFrames_AreReleased() throws Exception {
+        for (int i = 0; i < MAX_QUEUED * 3; i++) {
+            Message<?> frame = guard.preSend(frame("s1"), channel);
+            assertNotNull(frame);
+            if (i % 2 == 0) {
+                guard.afterMessageHandled(frame, channel, null, null);
+            } else {
+                guard.afterSendCompletion(frame, channel, false, null);
+            }
+        }
+
+        verify(session, never()).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, registry.get("tickets.websocket.outbound.queued").gauge().value());
+        assertEquals(MAX_QUEUED * 3 / 2, registry.get("tickets.websocket.outbound.rejected").counter().count());
+    }
+
+    private static Message<byte[]> frame(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
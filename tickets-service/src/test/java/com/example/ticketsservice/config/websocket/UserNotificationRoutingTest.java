@@ -0,0 +1,221 @@
+package com.example.ticketsservice.config.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import com.example.ticketsservice.controller.NotificationController;
+
+/**
+ * Notifications personnelles sur le broker simple : livrées aux seules sessions du destinataire,
+ * et aucun client ne peut s'abonner à la file d'un autre.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserNotificationRoutingTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private NotificationController notificationController;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    @Autowired
+    private SimpleBrokerMessageHandler broker;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    private WebSocketStompClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = new WebSocketStompClient(new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.stop();
+    }
+
+    @Test
+    @DisplayName("Une notification n'atteint que les sessions de son destinataire")
+    void notificationReachesOnlyItsUser() throws Exception {
+        BlockingQueue<String> alice = new LinkedBlockingQueue<>();
+        BlockingQueue<String> bob = new LinkedBlockingQueue<>();
+        subscribe("1", alice);
+        subscribe("2", bob);
+
+        notificationController.notifyTicketValidated(1L, 42L);
+
+        String payload = alice.poll(5, TimeUnit.SECONDS);
+        assertNotNull(payload, "Notification non reçue par son destinataire");
+        assertTrue(payload.contains("TICKET_VALIDATED"));
+        assertNull(bob.poll(500, TimeUnit.MILLISECONDS), "Notification reçue par un autre utilisateur");
+    }
+
+    @Test
+    @DisplayName("Une session reconnectée récupère les notifications envoyées pendant son absence")
+    void reconnectedSessionReplaysMissedNotifications() throws Exception {
+        notificationController.notifyTicketValidated(3L, 77L);
+
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        StompSession session = subscribe("3", received);
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/app/notifications.replay");
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        session.send(headers, "{\"afterSeq\":0}".getBytes(StandardCharsets.UTF_8));
+
+        // La notification elle-même peut encore arriver en direct si la session s'est abonnée avant son envoi
+        String payload = received.poll(5, TimeUnit.SECONDS);
+        while (payload != null && !payload.contains("\"REPLAY\"")) {
+            payload = received.poll(5, TimeUnit.SECONDS);
+        }
+        assertNotNull(payload, "Rattrapage non reçu");
+        assertTrue(payload.contains("\"ticketId\":77"));
+    }
+
+    @Test
+    @DisplayName("S'abonner au topic ou à la file d'un autre utilisateur est refusé")
+    void foreignSubscriptionsAreRejected() throws Exception {
+        Rejection rejection = new Rejection();
+        StompSession session = connect("2", rejection);
+
+        session.subscribe("/topic/user.1", new PayloadQueue(new LinkedBlockingQueue<>()));
+
+        rejection.await();
+        assertTrue(broker.getSubscriptionRegistry().findSubscriptions(message("/topic/user.1")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Une session anonyme ne s'abonne pas aux notifications personnelles")
+    void anonymousSessionCannotSubscribeToUserQueue() throws Exception {
+        Rejection rejection = new Rejection();
+        StompSession session = connect(null, rejection);
+
+        session.subscribe(SubscriptionGuard.USER_NOTIFICATIONS, new PayloadQueue(new LinkedBlockingQueue<>()));
+
+        rejection.await();
+    }
+
+    private StompSession connect(String userId, StompSessionHandlerAdapter handler) throws Exception {
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        if (userId != null) {
+            headers.add("X-User-Id", userId);
+        }
+        return client.connectAsync("http://localhost:" + port + "/ws", headers, handler).get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Le broker simple n'accuse pas réception des SUBSCRIBE : on attend que la file de la session
+     * apparaisse dans son registre avant tout envoi.
+     */
+    private StompSession subscribe(String userId, BlockingQueue<String> received) throws Exception {
+        StompSession session = connect(userId, new StompSessionHandlerAdapter() {});
+        session.subscribe(SubscriptionGuard.USER_NOTIFICATIONS, new PayloadQueue(received));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!brokerHasQueueOf(userId)) {
+            assertTrue(System.nanoTime() < deadline, "Abonnement non enregistré pour l'utilisateur " + userId);
+            Thread.sleep(20);
+        }
+        return session;
+    }
+
+    private boolean brokerHasQueueOf(String userId) {
+        for (SimpSubscription subscription : userRegistry.findSubscriptions(
+                s -> s.getSession().getUser().getName().equals(userId))) {
+            String sessionQueue = NotificationController.USER_QUEUE + "-user" + subscription.getSession().getId();
+            if (!broker.getSubscriptionRegistry().findSubscriptions(message(sessionQueue)).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Message<byte[]> message(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private record PayloadQueue(BlockingQueue<String> received) implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            received.add(new String((byte[]) payload, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Refus de SubscriptionGuard : le serveur renvoie une trame ERROR puis ferme la session. Selon l'ordre
+     * d'arrivée côté client, on observe l'une ou l'autre ; les deux valent refus.
+     */
+    private static class Rejection extends StompSessionHandlerAdapter {
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            assertTrue(String.valueOf(headers.getFirst("message")).contains("Abonnement refusé"));
+            closed.countDown();
+        }
+
+        @Override
+        public void handleTransportError(StompSession session, Throwable exception) {
+            closed.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(closed.await(5, TimeUnit.SECONDS), "Abonnement accepté par le serveur");
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ticketsservice.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.ticketsservice.event.UserRegisteredEvent;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Lot user.registered écrit en un upsert multi-lignes (H2 en mode MySQL pour ON DUPLICATE KEY UPDATE).
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:usersync;MODE=MySQL;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class UserEventConsumerTest {
+
+    @Autowired
+    private UserEventConsumer userEventConsumer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.save(User.builder().id(1L).email("alice@example.com").firstName("Alice").lastName("Martin").build());
+    }
+
+    @Test
+    @DisplayName("Un lot insère les nouveaux utilisateurs, met à jour les existants et écarte les événements invalides")
+    void batchIsUpserted() {
+        userEventConsumer.handleUserRegistered(List.of(
+                event("2", "bob@example.com", "Bob"),
+                event("not-a-number", "eve@example.com", "Eve"),
+                event("4", null, "Dan"),
+                event("5", "frank@example.com", "F".repeat(256)),
+                event("1", "alice@example.com", "Alicia"),
+                event("3", "carol@example.com", "Carol")));
+
+        assertEquals(3, userRepository.count());
+        assertEquals("Alicia", userRepository.findById(1L).orElseThrow().getFirstName());
+        assertEquals("bob@example.com", userRepository.findById(2L).orElseThrow().getEmail());
+        assertEquals(6.0, meterRegistry.get("tickets.users.sync.batch.size").summary().totalAmount());
+        assertEquals(6, meterRegistry.get("tickets.users.sync.lag").timer().count());
+        assertEquals(3.0, meterRegistry.get("tickets.users.sync.rejected").tag("reason", "invalid").counter().count());
+    }
+
+    private static Message<UserRegisteredEvent> event(String userId, String email, String firstName) {
+        return MessageBuilder.withPayload(new UserRegisteredEvent(userId, email, firstName, "Martin"))
+                .setHeader(AmqpHeaders.TIMESTAMP, new Date())
+                .build();
+    }
+}
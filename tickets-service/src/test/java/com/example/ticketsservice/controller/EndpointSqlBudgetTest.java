@@ -0,0 +1,422 @@
+package com.example.ticketsservice.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.RefundRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+import com.example.ticketsservice.repository.TransferHistoryRepository;
+import com.example.ticketsservice.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Budget de requêtes SQL par endpoint : chaque appel est mesuré avec les statistiques Hibernate
+ * et comparé à src/test/resources/sql-budget.properties. Un N+1 ou une double sauvegarde fait
+ * échouer le build ; une baisse du nombre de requêtes doit être reportée dans le budget.
+ * Chaque mapping des contrôleurs du service doit avoir sa clé dans {@link #BUDGET_KEYS} : un nouvel
+ * endpoint sans budget fait lui aussi échouer le build.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointSqlBudgetTest {
+
+    private static final Properties BUDGETS = loadBudgets();
+    // Mapping (méthode et motif) vers sa clé dans sql-budget.properties
+    private static final Map<String, String> BUDGET_KEYS = Map.ofEntries(
+            Map.entry("POST /api/tickets/purchase", "tickets.purchase"),
+            Map.entry("GET /api/tickets/history/me", "tickets.history.me"),
+            Map.entry("GET /api/tickets/history/{userId}", "tickets.history.user"),
+            Map.entry("GET /api/tickets/{ticketId}", "tickets.details"),
+            Map.entry("POST /api/tickets/{ticketId}/validate", "tickets.validate"),
+            Map.entry("POST /api/tickets/{ticketId}/cancel", "tickets.cancel"),
+            Map.entry("GET /api/tickets/stats/me", "tickets.stats.me"),
+            Map.entry("GET /api/tickets/validate-qr/{qrCode}", "tickets.validate-qr"),
+            Map.entry("GET /api/scan/{qrCode}", "scan.ticket"),
+            Map.entry("GET /api/subscriptions/validate-qr/{qrCode}", "subscriptions.validate-qr"),
+            Map.entry("GET /api/tickets/validation-stats", "tickets.validation-stats"),
+            Map.entry("GET /api/tickets/validation-history", "tickets.validation-history"),
+            Map.entry("POST /api/tickets/{ticketId}/transfer", "tickets.transfer"),
+            Map.entry("GET /api/tickets/transfer-history", "tickets.transfer-history"),
+            Map.entry("GET /api/tickets/transfer-history/sent", "tickets.transfer-history.sent"),
+            Map.entry("GET /api/tickets/transfer-history/received", "tickets.transfer-history.received"),
+            Map.entry("POST /api/tickets/refund", "tickets.refund"),
+            Map.entry("GET /api/tickets/refunds", "tickets.refunds"),
+            Map.entry("GET /api/tickets/refunds/pending", "tickets.refunds.pending"),
+            Map.entry("POST /api/tickets/refunds/{refundId}/process", "tickets.refunds.process"),
+            Map.entry("POST /api/tickets/refunds/bulk-process", "tickets.refunds.bulk-process"),
+            Map.entry("GET /api/tickets/notifications/replay", "tickets.notifications.replay"),
+            Map.entry("GET /health", "health"),
+            // Masqué par l'endpoint health d'Actuator, même corps que /health
+            Map.entry("GET /actuator/health", "health"),
+            Map.entry("GET /", "root"),
+            Map.entry("GET /scanner", "scanner"));
+    private static final String ALICE = "alice@example.com";
+    private static final String BOB = "bob@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private TransferHistoryRepository transferHistoryRepository;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        refundRepository.deleteAll();
+        transferHistoryRepository.deleteAll();
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(User.builder().id(1L).email(ALICE).firstName("Alice").lastName("Martin").build());
+        userRepository.save(User.builder().id(2L).email(BOB).firstName("Bob").lastName("Durand").build());
+    }
+
+    @Test
+    @DisplayName("Chaque endpoint du service a un budget SQL")
+    void everyMappingHasABudget() {
+        List<String> missing = new ArrayList<>();
+        handlerMapping.getHandlerMethods().forEach((info, handler) -> {
+            if (!handler.getBeanType().getPackageName().startsWith("com.example.ticketsservice")) {
+                return;
+            }
+            for (String mapping : mappings(info)) {
+                String key = BUDGET_KEYS.get(mapping);
+                if (key == null || BUDGETS.getProperty(key) == null) {
+                    missing.add(mapping);
+                }
+            }
+        });
+        assertEquals(List.of(), missing, "Endpoints sans budget (BUDGET_KEYS et sql-budget.properties)");
+    }
+
+    @Test
+    @DisplayName("POST /api/tickets/purchase")
+    void purchase() throws Exception {
+        measure("tickets.purchase", post("/api/tickets/purchase")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userId\":1,\"ticketType\":\"SIMPLE\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/tickets/history/me et /history/{userId}")
+    void history() throws Exception {
+        purchaseTicket(1L);
+        purchaseTicket(1L);
+
+        measure("tickets.history.me", get("/api/tickets/history/me").header("X-User-Id", "1"))
+                .andExpect(status().isOk());
+        measure("tickets.history.user", get("/api/tickets/history/1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/tickets/{ticketId}")
+    void details() throws Exception {
+        long ticketId = purchaseTicket(1L);
+
+        measure("tickets.details", get("/api/tickets/{ticketId}", ticketId))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("POST /api/tickets/{ticketId}/validate et /cancel")
+    void validateAndCancel() throws Exception {
+        long validated = purchaseTicket(1L);
+        long cancelled = purchaseTicket(1L);
+
+        measure("tickets.validate", post("/api/tickets/{ticketId}/validate", validated))
+                .andExpect(status().isOk());
+        measure("tickets.cancel", post("/api/tickets/{ticketId}/cancel", cancelled))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/tickets/stats/me")
+    void stats() throws Exception {
+        purchaseTicket(1L);
+
+        measure("tickets.stats.me", get("/api/tickets/stats/me").header("X-User-Id", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/tickets/validate-qr/{qrCode}")
+    void validateQr() throws Exception {
+        long ticketId = purchaseTicket(1L);
+        String qrCode = ticketRepository.findById(ticketId).orElseThrow().getQrCodeData();
+        // L'identifiant inscrit dans le QR code avant l'insertion est bien celui de la ligne
+        assertEquals(String.valueOf(ticketId), JsonPath.read(qrCode, "$.ticketId"));
+
+        measure("tickets.validate-qr", get("/api/tickets/validate-qr/{qrCode}", qrCode))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/scan/{qrCode} : un QR code de ticket ne sort pas du service")
+    void scanTicket() throws Exception {
+        long ticketId = purchaseTicket(1L);
+        String qrCode = ticketRepository.findById(ticketId).orElseThrow().getQrCodeData();
+
+        measure("scan.ticket", get("/api/scan/{qrCode}", qrCode))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.kind").value("TICKET"))
+                .andExpect(jsonPath("$.result.ticketId").value(ticketId));
+    }
+
+    @Test
+    @DisplayName("GET /api/subscriptions/validate-qr/{qrCode} : aucune requête locale, même service arrêté")
+    void subscriptionValidation() throws Exception {
+        measure("subscriptions.validate-qr", get("/api/subscriptions/validate-qr/{qrCode}", "SUB-1"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @DisplayName("GET /api/tickets/notifications/replay")
+    void notificationReplay() throws Exception {
+        measure("tickets.notifications.replay", get("/api/tickets/notifications/replay").header("X-User-Id", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /health, / et /scanner")
+    void staticEndpoints() throws Exception {
+        measure("health", get("/health")).andExpect(status().isOk());
+        measure("root", get("/")).andExpect(status().isOk());
+        measure("scanner", get("/scanner")).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/tickets/validation-stats et /validation-history")
+    void validationDashboard() throws Exception {
+        long ticketId = purchaseTicket(1L);
+        mockMvc.perform(authenticated(post("/api/tickets/{ticketId}/validate", ticketId)));
+
+        measure("tickets.validation-stats", get("/api/tickets/validation-stats"))
+                .andExpect(status().isOk());
+        measure("tickets.validation-history", get("/api/tickets/validation-history"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("POST /api/tickets/{ticketId}/transfer et historique des transferts")
+    void transfer() throws Exception {
+        long ticketId = purchaseTicket(1L);
+
+        measure("tickets.transfer", post("/api/tickets/{ticketId}/transfer", ticketId)
+                .header("X-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"recipientEmail\":\"" + BOB + "\"}"))
+                .andExpect(status().isOk());
+        measure("tickets.transfer-history", get("/api/tickets/transfer-history").header("X-User-Id", "1"))
+                .andExpect(status().isOk());
+        measure("tickets.transfer-history.sent", get("/api/tickets/transfer-history/sent").header("X-User-Id", "1"))
+                .andExpect(status().isOk());
+        measure("tickets.transfer-history.received", get("/api/tickets/transfer-history/received").header("X-User-Id", "2"))
+                .andExpect(status().isOk());
+
+        // Page pleine : un curseur suivant, qui mène à une page vide et sans curseur
+        String cursor = mockMvc.perform(authenticated(get("/api/tickets/transfer-history").header("X-User-Id", "2").param("limit", "1")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andReturn().getResponse().getHeader("X-Next-Cursor");
+        assertNotNull(cursor);
+        mockMvc.perform(authenticated(get("/api/tickets/transfer-history").header("X-User-Id", "2").param("cursor", cursor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    @DisplayName("Remboursements : demande, consultation et traitement")
+    void refunds() throws Exception {
+        long ticketId = purchaseTicket(1L);
+
+        String refund = measure("tickets.refund", post("/api/tickets/refund")
+                .header("X-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ticketId\":" + ticketId + ",\"reason\":\"Voyage annulé\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long refundId = ((Number) JsonPath.read(refund, "$.id")).longValue();
+
+        measure("tickets.refunds", get("/api/tickets/refunds").header("X-User-Id", "1"))
+                .andExpect(status().isOk());
+        measure("tickets.refunds.pending", get("/api/tickets/refunds/pending"))
+                .andExpect(status().isOk());
+        measure("tickets.refunds.process", post("/api/tickets/refunds/{refundId}/process", refundId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"approved\":false,\"adminNotes\":\"Hors délai\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("POST /api/tickets/refunds/bulk-process : un lot, trois requêtes")
+    void bulkRefunds() throws Exception {
+        long first = requestRefund(purchaseTicket(1L));
+        long second = requestRefund(purchaseTicket(1L));
+        long third = requestRefund(purchaseTicket(2L));
+
+        measure("tickets.refunds.bulk-process", post("/api/tickets/refunds/bulk-process")
+                .header("X-User-Roles", "ROLE_USER,ROLE_ADMIN")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refundIds\":[" + first + "," + second + "," + third + ",999],"
+                        + "\"approved\":false,\"adminNotes\":\"Perturbation\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(3))
+                .andExpect(jsonPath("$.skipped").value(1))
+                .andExpect(jsonPath("$.chunks").value(1));
+
+        assertEquals("REJECTED", refundRepository.findById(first).orElseThrow().getStatus());
+        assertEquals(TicketStatus.VALIDE, ticketRepository.findById(
+                refundRepository.findById(third).orElseThrow().getTicketId()).orElseThrow().getStatus());
+        // Déjà traitées : un second passage n'y touche plus
+        mockMvc.perform(authenticated(post("/api/tickets/refunds/bulk-process")
+                        .header("X-User-Roles", "ROLE_ADMIN")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"approved\":true}")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.processed").value(0));
+    }
+
+    @Test
+    @DisplayName("POST /api/tickets/refunds/bulk-process : réservé au rôle administrateur")
+    void bulkRefundsRequireAdmin() throws Exception {
+        long refundId = requestRefund(purchaseTicket(1L));
+
+        mockMvc.perform(authenticated(post("/api/tickets/refunds/bulk-process")
+                        .header("X-User-Roles", "ROLE_USER")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"approved\":true}")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authenticated(post("/api/tickets/refunds/bulk-process")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"approved\":true}")))
+                .andExpect(status().isForbidden());
+
+        assertEquals("PENDING", refundRepository.findById(refundId).orElseThrow().getStatus());
+    }
+
+    private long requestRefund(long ticketId) throws Exception {
+        String userId = String.valueOf(ticketRepository.findById(ticketId).orElseThrow().getUserId());
+        String body = mockMvc.perform(authenticated(post("/api/tickets/refund")
+                        .header("X-User-Id", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ticketId\":" + ticketId + ",\"reason\":\"Grève\"}")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.id")).longValue();
+    }
+
+    private long purchaseTicket(Long userId) throws Exception {
+        String body = mockMvc.perform(authenticated(post("/api/tickets/purchase")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":" + userId + ",\"ticketType\":\"SIMPLE\"}")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return ((Number) JsonPath.read(body, "$.id")).longValue();
+    }
+
+    private ResultActions measure(String endpoint, MockHttpServletRequestBuilder request) throws Exception {
+        String budget = BUDGETS.getProperty(endpoint);
+        assertNotNull(budget, () -> "Pas de budget SQL pour " + endpoint + " dans sql-budget.properties");
+
+        statistics.clear();
+        ResultActions result = mockMvc.perform(authenticated(request));
+        long statements = statistics.getPrepareStatementCount();
+
+        var served = result.andReturn().getRequest();
+        String mapping = served.getMethod() + " " + served.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        assertEquals(endpoint, BUDGET_KEYS.get(mapping), () -> mapping + " mesuré sous la clé " + endpoint);
+
+        assertTrue(statements <= Long.parseLong(budget), () -> endpoint + " : " + statements
+                + " requêtes SQL pour un budget de " + budget);
+        return result;
+    }
+
+    private static List<String> mappings(RequestMappingInfo info) {
+        List<String> mappings = new ArrayList<>();
+        for (RequestMethod method : info.getMethodsCondition().getMethods()) {
+            for (String pattern : info.getPathPatternsCondition().getPatternValues()) {
+                mappings.add(method + " " + pattern);
+            }
+        }
+        return mappings;
+    }
+
+    private static MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header("X-User-Email", ALICE);
+    }
+
+    private static Properties loadBudgets() {
+        Properties budgets = new Properties();
+        try (InputStream in = EndpointSqlBudgetTest.class.getResourceAsStream("/sql-budget.properties")) {
+            budgets.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("sql-budget.properties illisible", e);
+        }
+        return budgets;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.ticketsservice.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ticketsservice.config.datasource.ReadYourWritesGuard;
+import com.example.ticketsservice.dto.TicketPurchaseRequest;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.RefundRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+import com.example.ticketsservice.repository.TransferHistoryRepository;
+import com.example.ticketsservice.repository.UserRepository;
+import com.example.ticketsservice.service.TicketService;
+
+/**
+ * Conflit de version sur les opérations à effets de bord (transfert, traitement d'un remboursement) :
+ * le client reçoit un 409, pas un 400, et rien n'est écrit.
+ * Une écriture concurrente est simulée juste avant le commit, depuis une transaction séparée.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TicketConflictResponseTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private TransferHistoryRepository transferHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    private ReadYourWritesGuard readYourWritesGuard;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        refundRepository.deleteAll();
+        transferHistoryRepository.deleteAll();
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(User.builder().id(1L).email("alice@example.com").firstName("Alice").lastName("Martin").build());
+        userRepository.save(User.builder().id(2L).email("bob@example.com").firstName("Bob").lastName("Durand").build());
+    }
+
+    @Test
+    @DisplayName("POST /api/tickets/{ticketId}/transfer : conflit de version en 409")
+    void transferConflict() throws Exception {
+        Long ticketId = ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "SIMPLE")).getId();
+        concurrentUpdateBeforeCommit("UPDATE tickets SET version = version + 1 WHERE id = ?", ticketId);
+
+        mockMvc.perform(post("/api/tickets/{ticketId}/transfer", ticketId)
+                        .header("X-User-Email", "alice@example.com")
+                        .header("X-User-Id", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"recipientEmail\":\"bob@example.com\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+
+        assertEquals(1L, ticketRepository.findById(ticketId).orElseThrow().getUserId());
+        assertEquals(0, transferHistoryRepository.count());
+    }
+
+    @Test
+    @DisplayName("POST /api/tickets/refunds/{refundId}/process : conflit de version en 409")
+    void processRefundConflict() throws Exception {
+        Long ticketId = ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "SIMPLE")).getId();
+        Long refundId = ticketService.requestRefund(ticketId, 1L, "Voyage annulé").getId();
+        concurrentUpdateBeforeCommit("UPDATE refunds SET version = version + 1 WHERE id = ?", refundId);
+
+        mockMvc.perform(post("/api/tickets/refunds/{refundId}/process", refundId)
+                        .header("X-User-Email", "alice@example.com")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"approved\":true}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").exists());
+
+        assertEquals("PENDING", refundRepository.findById(refundId).orElseThrow().getStatus());
+        assertEquals(TicketStatus.ANNULE, ticketRepository.findById(ticketId).orElseThrow().getStatus());
+    }
+
+    // recordWrite suit la sauvegarde de l'opération : la ligne change de version avant le commit
+    private void concurrentUpdateBeforeCommit(String sql, Long id) {
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicBoolean done = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (done.compareAndSet(false, true)) {
+                concurrent.executeWithoutResult(status -> jdbcTemplate.update(sql, id));
+            }
+            return invocation.callRealMethod();
+        }).when(readYourWritesGuard).recordWrite(any());
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.ticketsservice.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.ticketsservice.config.sharding.ShardIdGenerator;
+import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.TicketType;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Rejoue sous EXPLAIN (H2) le SQL de chaque requête des repositories et échoue sur un parcours
+ * complet de table. Le schéma H2 vient des @Index des entités et non des migrations, écrites pour MySQL
+ * (partitions, triggers) : {@link #entityIndexesMatchMigrations()} vérifie que ces @Index sont exactement
+ * les index idx_* laissés par db/migration puis db/contract.
+ * lockArchivableBatch (FOR UPDATE SKIP LOCKED) est propre à MySQL et n'est pas couverte ici ;
+ * H2 ne partitionne pas, {@link #ticketLookupsCarryThePartitionKey()} vérifie donc le SQL émis.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.ticketsservice.repository.CapturedStatements")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class RepositoryQueryPlanTest {
+
+    private static final Pattern VERSION = Pattern.compile("V(\\d+)__");
+    private static final Pattern TABLE = Pattern.compile("^(?:ALTER TABLE|CREATE TABLE(?: IF NOT EXISTS)?)\\s+(\\w+)");
+    private static final Pattern ADD_INDEX = Pattern.compile("(?:ADD\\s+(?:INDEX|KEY)|^\\s*(?:INDEX|KEY))\\s+(idx_\\w+)\\s*\\(([^)]*)\\)",
+            Pattern.MULTILINE | Pattern.CASE_INSENSITIVE);
+    private static final Pattern DROP_INDEX = Pattern.compile("DROP\\s+INDEX\\s+(idx_\\w+)", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private TransferHistoryRepository transferHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesUseAnIndex() {
+        LocalDateTime since = LocalDateTime.now().minusDays(30);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("TicketRepository.findById", () -> ticketRepository.findById(1L));
+        queries.put("TicketRepository.findByIdAndPurchaseDateBetween", () -> ticketRepository.findByIdAndPurchaseDateBetween(1L, since, LocalDateTime.now()));
+        queries.put("TicketRepository.findByQrRefAndPurchaseDateBetween", () -> ticketRepository.findByQrRefAndPurchaseDateBetween(new byte[16], since, LocalDateTime.now()));
+        queries.put("TicketRepository.findByUserId", () -> ticketRepository.findByUserId(1L));
+        queries.put("TicketRepository.findByUserIdAndPurchaseDateGreaterThanEqual", () -> ticketRepository.findByUserIdAndPurchaseDateGreaterThanEqual(1L, since));
+        queries.put("TicketRepository.findByUserIdAndTicketType", () -> ticketRepository.findByUserIdAndTicketType(1L, TicketType.SIMPLE));
+        queries.put("TicketRepository.findByQrCodeData", () -> ticketRepository.findByQrCodeData("qr"));
+        queries.put("TicketRepository.findByUserIdAndStatus", () -> ticketRepository.findByUserIdAndStatus(1L, TicketStatus.VALIDE));
+        queries.put("TicketRepository.countByUserId", () -> ticketRepository.countByUserId(1L));
+        queries.put("TicketRepository.countByUserIdAndStatus", () -> ticketRepository.countByUserIdAndStatus(1L, TicketStatus.VALIDE));
+        queries.put("TicketRepository.countByStatus", () -> ticketRepository.countByStatus(TicketStatus.VALIDE));
+        queries.put("TicketRepository.countByStatusIn", () -> ticketRepository.countByStatusIn(List.of(TicketStatus.ANNULE, TicketStatus.EXPIRE)));
+        queries.put("TicketRepository.countByValidationDateGreaterThanEqual", () -> ticketRepository.countByValidationDateGreaterThanEqual(since));
+        queries.put("TicketRepository.countByStatusAndValidationDateAfter", () -> ticketRepository.countByStatusAndValidationDateAfter(TicketStatus.VALIDE, since));
+        queries.put("TicketRepository.countByStatusAndValidationDateBetween", () -> ticketRepository.countByStatusAndValidationDateBetween(TicketStatus.VALIDE, since, LocalDateTime.now()));
+        queries.put("TicketRepository.findTop100ByValidationDateGreaterThanEqualOrderByValidationDateDesc", () -> ticketRepository.findTop100ByValidationDateGreaterThanEqualOrderByValidationDateDesc(since));
+        queries.put("TicketRepository.findByStatusOrderByValidationDateDesc", () -> ticketRepository.findByStatusOrderByValidationDateDesc(TicketStatus.VALIDE));
+        queries.put("TicketRepository.findValidatedTicketsOrderByDateDesc", () -> ticketRepository.findValidatedTicketsOrderByDateDesc(TicketStatus.VALIDE));
+
+        queries.put("RefundRepository.findByUserIdOrderByRequestDateDesc", () -> refundRepository.findByUserIdOrderByRequestDateDesc(1L));
+        queries.put("RefundRepository.findByStatusOrderByRequestDateDesc", () -> refundRepository.findByStatusOrderByRequestDateDesc("PENDING"));
+        queries.put("RefundRepository.findByTicketId", () -> refundRepository.findByTicketId(1L));
+        queries.put("RefundRepository.existsByTicketIdAndStatusIn", () -> refundRepository.existsByTicketIdAndStatusIn(1L, List.of("PENDING", "APPROVED")));
+        queries.put("RefundRepository.countByStatus", () -> refundRepository.countByStatus("PENDING"));
+        queries.put("RefundRepository.lockPendingBatch", () -> refundRepository.lockPendingBatch(Limit.of(500)));
+        queries.put("RefundRepository.lockPendingByIds", () -> refundRepository.lockPendingByIds(List.of(1L, 2L)));
+
+        queries.put("TransferHistoryRepository.findByTicketIdOrderByTransferDateDesc", () -> transferHistoryRepository.findByTicketIdOrderByTransferDateDesc(1L));
+        queries.put("TransferHistoryRepository.findSentPage", () -> transferHistoryRepository.findSentPage(1L, since, Long.MAX_VALUE, Limit.of(50)));
+        queries.put("TransferHistoryRepository.findReceivedPage", () -> transferHistoryRepository.findReceivedPage(1L, since, Long.MAX_VALUE, Limit.of(50)));
+        queries.put("TransferHistoryRepository.findPageByUserId", () -> transferHistoryRepository.findPageByUserId(1L, since, Long.MAX_VALUE, 50));
+        queries.put("TransferHistoryRepository.countByFromUserId", () -> transferHistoryRepository.countByFromUserId(1L));
+        queries.put("TransferHistoryRepository.countByToUserId", () -> transferHistoryRepository.countByToUserId(1L));
+
+        queries.put("UserRepository.findByIdGreaterThanOrderByIdAsc", () -> userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(5000)));
+
+        return queries.entrySet().stream()
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> assertUsesIndex(query.getValue())));
+    }
+
+    /**
+     * tickets est partitionnée sur purchase_date (V2) : les lectures par identifiant ou QR code et les
+     * UPDATE/DELETE versionnés doivent porter purchase_date pour que MySQL n'ouvre qu'une partition.
+     */
+    @Test
+    void ticketLookupsCarryThePartitionKey() {
+        long id = new ShardIdGenerator(0).nextId(0);
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setUserId(1L);
+        ticket.setTicketType(TicketType.SIMPLE);
+        ticket.setStatus(TicketStatus.VALIDE);
+        ticket.setPurchaseDate(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        ticket.setQrCodeData("{\"type\":\"TICKET\",\"ticketId\":" + id + "}");
+        ticketRepository.saveAndFlush(ticket);
+        entityManager.clear();
+
+        CapturedStatements.clear();
+        Ticket loaded = ticketRepository.findLiveById(id).orElseThrow();
+        assertPartitionKeyInWhere(CapturedStatements.drain(), 1);
+
+        assertTrue(ticketRepository.findByQrCodeData(ticket.getQrCodeData(), id).isPresent());
+        assertPartitionKeyInWhere(CapturedStatements.drain(), 1);
+
+        loaded.setStatus(TicketStatus.ANNULE);
+        ticketRepository.flush();
+        assertPartitionKeyInWhere(CapturedStatements.drain(), 1);
+
+        ticketRepository.delete(loaded);
+        ticketRepository.flush();
+        assertPartitionKeyInWhere(CapturedStatements.drain(), 1);
+    }
+
+    private static void assertPartitionKeyInWhere(List<String> statements, int expected) {
+        assertEquals(expected, statements.size(), () -> "Requêtes émises : " + statements);
+        for (String sql : statements) {
+            String lower = sql.toLowerCase(Locale.ROOT);
+            int where = lower.lastIndexOf(" where ");
+            assertTrue(where >= 0 && lower.indexOf("purchase_date", where) > 0,
+                    () -> "purchase_date absent du WHERE :\n" + sql);
+        }
+    }
+
+    @Test
+    void entityIndexesMatchMigrations() throws Exception {
+        Map<String, String> migrated = new TreeMap<>();
+        for (Resource script : migrationScripts()) {
+            String sql = script.getContentAsString(StandardCharsets.UTF_8).replaceAll("--[^\\n]*", "");
+            for (String statement : sql.split(";")) {
+                Matcher table = TABLE.matcher(statement.strip().toUpperCase(Locale.ROOT));
+                if (!table.find()) {
+                    continue;
+                }
+                String tableName = table.group(1).toLowerCase(Locale.ROOT);
+                Matcher added = ADD_INDEX.matcher(statement);
+                while (added.find()) {
+                    migrated.put(added.group(1), index(tableName, added.group(2)));
+                }
+                Matcher dropped = DROP_INDEX.matcher(statement);
+                while (dropped.find()) {
+                    migrated.remove(dropped.group(1));
+                }
+            }
+        }
+
+        Map<String, String> declared = new TreeMap<>();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition entity : scanner.findCandidateComponents("com.example.ticketsservice.model")) {
+            Table table = Class.forName(entity.getBeanClassName()).getAnnotation(Table.class);
+            if (table != null) {
+                for (Index index : table.indexes()) {
+                    declared.put(index.name(), index(table.name(), index.columnList()));
+                }
+            }
+        }
+
+        assertEquals(migrated, declared, "Les @Index des entités doivent refléter les migrations");
+    }
+
+    // Sinon une base déjà migrée au-delà refuserait l'étape contract sans spring.flyway.out-of-order
+    @Test
+    void contractMigrationsComeAfterEveryMigration() throws Exception {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        int lastMigration = Stream.of(resolver.getResources("classpath:db/migration/*.sql"),
+                        resolver.getResources("classpath*:db/migration/V*.class"))
+                .flatMap(Arrays::stream)
+                .mapToInt(RepositoryQueryPlanTest::version)
+                .max()
+                .orElse(0);
+        for (Resource contract : resolver.getResources("classpath:db/contract/*.sql")) {
+            assertTrue(version(contract) > lastMigration,
+                    () -> contract.getFilename() + " doit être numérotée au-dessus de V" + lastMigration);
+        }
+    }
+
+    private static int version(Resource script) {
+        Matcher version = VERSION.matcher(script.getFilename());
+        return version.find() ? Integer.parseInt(version.group(1)) : Integer.MAX_VALUE;
+    }
+
+    // db/migration puis db/contract, dans l'ordre des versions comme Flyway
+    private static List<Resource> migrationScripts() throws Exception {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        return Stream.of("classpath:db/migration/*.sql", "classpath:db/contract/*.sql")
+                .flatMap(pattern -> {
+                    try {
+                        return Arrays.stream(resolver.getResources(pattern));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .sorted(Comparator.comparingInt(RepositoryQueryPlanTest::version))
+                .toList();
+    }
+
+    private static String index(String table, String columns) {
+        return table + "(" + columns.replaceAll("\\s", "").toLowerCase(Locale.ROOT) + ")";
+    }
+
+    private void assertUsesIndex(Runnable query) throws Exception {
+        CapturedStatements.clear();
+        query.run();
+        List<String> selects = CapturedStatements.drain().stream()
+                // Une UNION commence par la parenthèse de sa première branche
+                .filter(sql -> sql.stripLeading().replaceFirst("^\\(+", "").regionMatches(true, 0, "select", 0, 6))
+                .toList();
+        assertFalse(selects.isEmpty(), "Aucune requête SELECT capturée");
+
+        for (String sql : selects) {
+            String plan = explain(sql);
+            assertFalse(plan.contains("tableScan"), () -> "Parcours complet de table :\n" + plan);
+        }
+    }
+
+    private String explain(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet plan = statement.executeQuery()) {
+                StringBuilder text = new StringBuilder();
+                while (plan.next()) {
+                    text.append(plan.getString(1)).append('\n');
+                }
+                return text.toString();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.ticketsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.example.ticketsservice.dto.QrCodePayload;
+import com.example.ticketsservice.dto.QrCodePayload.Kind;
+
+class BarcodeServiceTest {
+
+    private final BarcodeService barcodeService = new BarcodeService();
+
+    @Test
+    @DisplayName("Les payloads générés sont classés avec leur identifiant")
+    void generatedPayloads_ClassifiedWithId() {
+        LocalDateTime now = LocalDateTime.now();
+        String ticket = barcodeService.generateQrCodeData(42L, 7L, "SIMPLE", now, "abc");
+        String subscription = barcodeService.generateSubscriptionQrCodeData(9L, 7L, "Mensuel", now, "def");
+
+        assertEquals(new QrCodePayload(Kind.TICKET, 42L, true), barcodeService.classify(ticket));
+        assertEquals(new QrCodePayload(Kind.SUBSCRIPTION, 9L, true), barcodeService.classify(subscription));
+    }
+
+    @Test
+    @DisplayName("Payload de subscription-service : type en dernier, objets imbriqués ignorés")
+    void subscriptionServicePayload_TypeLast() {
+        String payload = "{\"subscriptionId\":\"12\",\"userId\":\"7\",\"meta\":{\"ticketId\":\"3\"},"
+                + "\"planName\":\"Annuel\",\"type\":\"SUBSCRIPTION\"}";
+
+        assertEquals(new QrCodePayload(Kind.SUBSCRIPTION, 12L, true), barcodeService.classify(payload));
+    }
+
+    @Test
+    @DisplayName("Formats de secours et codes inconnus")
+    void fallbackFormats() {
+        assertEquals(new QrCodePayload(Kind.TICKET, 15L, false), barcodeService.classify("TICKET-15-xyz"));
+        assertEquals(new QrCodePayload(Kind.SUBSCRIPTION, 4L, false), barcodeService.classify("SUB-4-xyz"));
+        assertEquals(QrCodePayload.UNKNOWN, barcodeService.classify("ABC123"));
+        assertEquals(QrCodePayload.UNKNOWN, barcodeService.classify("{\"ticketId\":"));
+    }
+}
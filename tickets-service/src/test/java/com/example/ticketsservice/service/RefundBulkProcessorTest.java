@@ -0,0 +1,84 @@
+package com.example.ticketsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.ticketsservice.config.datasource.ReadYourWritesGuard;
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.config.sharding.ShardingProperties;
+import com.example.ticketsservice.controller.NotificationController;
+import com.example.ticketsservice.dto.BulkRefundResult;
+import com.example.ticketsservice.model.Refund;
+import com.example.ticketsservice.repository.RefundRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RefundBulkProcessorTest {
+
+    private final RefundRepository refundRepository = mock(RefundRepository.class);
+    private RefundBulkProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new RefundBulkProcessor(refundRepository, mock(TicketRepository.class),
+                new ShardRouter(new ShardingProperties()), mock(NotificationController.class), mock(TicketCache.class),
+                new ReadYourWritesGuard(Duration.ofSeconds(5)), new TicketMetrics(new SimpleMeterRegistry()),
+                mock(PlatformTransactionManager.class), 2);
+    }
+
+    @Test
+    @DisplayName("Un lot en échec arrête le traitement et le résultat garde les lots validés")
+    void failedChunkReportsProgress() {
+        when(refundRepository.lockPendingByIds(List.of(1L, 2L))).thenReturn(List.of(refund(1L), refund(2L)));
+        when(refundRepository.lockPendingByIds(List.of(3L, 4L)))
+                .thenThrow(new DataAccessResourceFailureException("connexion perdue"));
+
+        BulkRefundResult result = processor.process(List.of(1L, 2L, 3L, 4L, 5L), true, "Grève");
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(1, result.getChunks());
+        assertEquals(0, result.getSkipped());
+        assertNotNull(result.getError());
+        assertTrue(result.getError().contains("connexion perdue"));
+        // Lot suivant jamais tenté
+        verify(refundRepository, times(2)).lockPendingByIds(anyCollection());
+        verify(refundRepository).processBatch(eq(List.of(1L, 2L)), eq("COMPLETED"), any(), eq("Grève"));
+    }
+
+    @Test
+    @DisplayName("Les demandes introuvables ou déjà traitées sont comptées comme ignorées")
+    void completedRunCountsSkipped() {
+        when(refundRepository.lockPendingByIds(List.of(1L, 2L))).thenReturn(List.of(refund(1L)));
+        when(refundRepository.lockPendingByIds(List.of(3L))).thenReturn(List.of(refund(3L)));
+
+        BulkRefundResult result = processor.process(List.of(1L, 2L, 3L), false, null);
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(1, result.getSkipped());
+        assertEquals(2, result.getChunks());
+        assertNull(result.getError());
+    }
+
+    private static Refund refund(Long id) {
+        return Refund.builder().id(id).ticketId(100L + id).userId(1L).status("PENDING").build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.ticketsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+
+import com.example.ticketsservice.config.SubscriptionClientProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SubscriptionValidationClientTest {
+
+    private static final String VALID = "{\"valid\":true,\"planName\":\"Mensuel\"}";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile String validBody = VALID;
+    private volatile long delayMillis;
+
+    private HttpServer subscriptionService;
+    private SubscriptionValidationClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        subscriptionService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        subscriptionService.createContext("/api/subscriptions/validate-qr/", exchange -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = (status == 200 ? validBody : "{\"error\":\"boom\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        subscriptionService.start();
+
+        SubscriptionClientProperties properties = new SubscriptionClientProperties();
+        properties.setUrl("http://localhost:" + subscriptionService.getAddress().getPort());
+        properties.setResponseTimeout(Duration.ofMillis(200));
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        client = new SubscriptionValidationClient(properties, RestClient.builder(), circuitBreakers,
+                new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        subscriptionService.stop(0);
+    }
+
+    @Test
+    @DisplayName("Un même QR code rescanné est servi par le cache")
+    void repeatedScan_ServedFromCache() {
+        ResponseEntity<String> first = client.validateQrCode("QR-1");
+        ResponseEntity<String> second = client.validateQrCode("QR-1");
+
+        assertEquals(200, second.getStatusCode().value());
+        assertEquals(VALID, first.getBody());
+        assertEquals(VALID, second.getBody());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Une erreur du service donne 503 et n'est pas mise en cache")
+    void serverError_NotCached() {
+        status = 500;
+        assertEquals(503, client.validateQrCode("QR-1").getStatusCode().value());
+
+        status = 200;
+        ResponseEntity<String> retried = client.validateQrCode("QR-1");
+
+        assertEquals(200, retried.getStatusCode().value());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Un refus n'est pas mis en cache : l'abonnement payé ensuite passe au scan suivant")
+    void invalidAnswer_NotCached() {
+        validBody = "{\"valid\":false,\"message\":\"Abonnement expiré\"}";
+        assertEquals(validBody, client.validateQrCode("QR-1").getBody());
+
+        validBody = VALID;
+        assertEquals(VALID, client.validateQrCode("QR-1").getBody());
+        assertEquals(VALID, client.validateQrCode("QR-1").getBody());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Un 2xx sans corps donne la réponse de repli et n'est pas mis en cache")
+    void emptyBody_MappedToUnavailable() {
+        validBody = "";
+        ResponseEntity<String> empty = client.validateQrCode("QR-1");
+
+        assertEquals(503, empty.getStatusCode().value());
+        assertEquals(SubscriptionValidationClient.UNAVAILABLE, empty.getBody());
+
+        validBody = VALID;
+        assertEquals(VALID, client.validateQrCode("QR-1").getBody());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Un service trop lent est coupé au délai de réponse, puis le circuit s'ouvre")
+    void slowService_TimesOutThenOpensCircuit() {
+        delayMillis = 1_000;
+        for (int i = 0; i < 4; i++) {
+            long start = System.nanoTime();
+            assertEquals(503, client.validateQrCode("QR-" + i).getStatusCode().value());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 900);
+        }
+        int callsBeforeOpen = calls.get();
+
+        ResponseEntity<String> rejected = client.validateQrCode("QR-open");
+
+        assertEquals(503, rejected.getStatusCode().value());
+        assertEquals(SubscriptionValidationClient.UNAVAILABLE, rejected.getBody());
+        assertEquals(callsBeforeOpen, calls.get());
+    }
+}
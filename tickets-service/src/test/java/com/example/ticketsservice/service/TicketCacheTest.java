@@ -0,0 +1,237 @@
+package com.example.ticketsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.ticketsservice.config.cache.TicketCacheProperties;
+import com.example.ticketsservice.config.cache.TwoTierCache;
+import com.example.ticketsservice.dto.TicketPurchaseRequest;
+import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.RefundRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+import com.example.ticketsservice.repository.TransferHistoryRepository;
+import com.example.ticketsservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Cache à deux niveaux sur un Redis en mémoire (jedis-mock) : lecture sans SQL après écriture,
+ * remplacement de l'entrée après une transition d'état, acheteur servi par l'annuaire en mémoire,
+ * et aucune version ancienne remise en cache par un chargement lent qui croise une écriture.
+ */
+@SpringBootTest(properties = {
+        "tickets.cache.enabled=true",
+        "tickets.user-directory.enabled=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+class TicketCacheTest {
+
+    private static final RedisServer REDIS = startRedis();
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", REDIS::getBindPort);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        REDIS.stop();
+    }
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private TransferHistoryRepository transferHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TicketCacheProperties cacheProperties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        refundRepository.deleteAll();
+        transferHistoryRepository.deleteAll();
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(User.builder().id(1L).email("alice@example.com").firstName("Alice").lastName("Martin").build());
+    }
+
+    @Test
+    @DisplayName("Un ticket tout juste acheté est lu depuis le cache, sans requête SQL")
+    void purchasedTicketIsServedFromCache() {
+        Ticket purchased = ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "SIMPLE"));
+
+        statistics.clear();
+        Ticket cached = ticketService.getTicketById(purchased.getId());
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(purchased.getId(), cached.getId());
+        assertEquals(purchased.getQrCodeData(), cached.getQrCodeData());
+        assertEquals(8.0, cached.getFinalPrice());
+        assertNotNull(redis.opsForValue().get("tickets:ticket:" + purchased.getId()));
+        assertTrue(meterRegistry.get("tickets.cache.gets")
+                .tags("cache", "ticket", "tier", "local", "result", "hit").counter().count() >= 1);
+    }
+
+    @Test
+    @DisplayName("Une transition d'état remplace l'entrée du cache après le commit")
+    void transitionWritesThrough() {
+        Ticket purchased = ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "HEBDO"));
+        ticketService.getTicketById(purchased.getId());
+
+        ticketService.cancelTicket(purchased.getId());
+
+        statistics.clear();
+        Ticket cached = ticketService.getTicketById(purchased.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(TicketStatus.ANNULE, cached.getStatus());
+        assertTrue(redis.opsForValue().get("tickets:ticket:" + purchased.getId()).contains("\"ANNULE\""));
+    }
+
+    @Test
+    @DisplayName("L'acheteur est lu une fois en base, puis depuis l'annuaire en mémoire")
+    void userLookupUsesDirectory() {
+        ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "SIMPLE"));
+
+        statistics.clear();
+        ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "SIMPLE"));
+
+        // Seul l'INSERT du ticket reste
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Un chargement lent parti avant une écriture ne remet pas l'ancienne version en cache")
+    void slowLoaderDoesNotOverwriteNewerWrite() throws Exception {
+        TwoTierCache<Ticket> cache = raceCache("race-write");
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+
+        // Le lecteur lit la ligne avant le commit de l'écrivain, puis la met en cache après lui
+        CompletableFuture<Optional<Ticket>> reader = CompletableFuture.supplyAsync(() -> cache.get("1", () -> {
+            loaded.countDown();
+            await(written);
+            return Optional.of(ticket(0L, TicketStatus.VALIDE));
+        }));
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        cache.put("1", ticket(1L, TicketStatus.ANNULE));
+        written.countDown();
+        assertEquals(TicketStatus.VALIDE, reader.get(5, TimeUnit.SECONDS).orElseThrow().getStatus());
+
+        assertTrue(redis.opsForValue().get("tickets:race-write:1").startsWith("1:"));
+        assertEquals(TicketStatus.ANNULE, cache.get("1", Optional::empty).orElseThrow().getStatus());
+        // Autre réplica : niveau local vide, lecture depuis Redis
+        assertEquals(TicketStatus.ANNULE, raceCache("race-write").get("1", Optional::empty).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Un chargement lent parti avant une purge ne remet pas l'entrée en cache")
+    void slowLoaderDoesNotRefillEvictedEntry() throws Exception {
+        TwoTierCache<Ticket> cache = raceCache("race-evict");
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+
+        CompletableFuture<Optional<Ticket>> reader = CompletableFuture.supplyAsync(() -> cache.get("1", () -> {
+            loaded.countDown();
+            await(evicted);
+            return Optional.of(ticket(3L, TicketStatus.ANNULE));
+        }));
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        cache.evict("1");
+        evicted.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+
+        // Le marqueur de purge est toujours là : la lecture suivante repart de la base
+        assertEquals(TicketStatus.VALIDE, cache.get("1", () -> Optional.of(ticket(4L, TicketStatus.VALIDE)))
+                .orElseThrow().getStatus());
+        assertEquals("-", redis.opsForValue().get("tickets:race-evict:1"));
+    }
+
+    private TwoTierCache<Ticket> raceCache(String name) {
+        return new TwoTierCache<>(name, Ticket.class, Ticket::getVersion, redis, objectMapper, cacheProperties, meterRegistry);
+    }
+
+    private static Ticket ticket(Long version, TicketStatus status) {
+        Ticket ticket = new Ticket();
+        ticket.setId(1L);
+        ticket.setUserId(1L);
+        ticket.setStatus(status);
+        ticket.setVersion(version);
+        return ticket;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RedisServer startRedis() {
+        try {
+            RedisServer server = RedisServer.newRedisServer();
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException("Redis en mémoire indisponible", e);
+        }
+    }
+}
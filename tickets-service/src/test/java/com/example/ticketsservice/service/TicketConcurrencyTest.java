@@ -0,0 +1,182 @@
+package com.example.ticketsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.example.ticketsservice.dto.TicketPurchaseRequest;
+import com.example.ticketsservice.exception.ConcurrentTicketUpdateException;
+import com.example.ticketsservice.exception.InvalidTicketException;
+import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.RefundRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+import com.example.ticketsservice.repository.TransferHistoryRepository;
+import com.example.ticketsservice.repository.UserRepository;
+
+/**
+ * Transitions concurrentes sur un même ticket : une seule l'emporte, les autres échouent proprement
+ * (règle métier après nouvelle tentative, ou conflit 409) sans écrasement silencieux.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TicketConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private TicketRepository ticketRepository;
+
+    @Autowired
+    private RefundRepository refundRepository;
+
+    @Autowired
+    private TransferHistoryRepository transferHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    private ExecutorService executor;
+    private Long ticketId;
+
+    @BeforeEach
+    void setUp() {
+        refundRepository.deleteAll();
+        transferHistoryRepository.deleteAll();
+        ticketRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(User.builder().id(1L).email("alice@example.com").firstName("Alice").lastName("Martin").build());
+        userRepository.save(User.builder().id(2L).email("bob@example.com").firstName("Bob").lastName("Durand").build());
+        ticketId = ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "HEBDO")).getId();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Annulations concurrentes : une seule réussit, les autres voient le ticket annulé")
+    void concurrentCancellations() throws Exception {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> ticketService.cancelTicket(ticketId));
+        }
+
+        Outcomes outcomes = hammer(tasks);
+
+        assertEquals(1, outcomes.successes);
+        // Transition rejouée : les perdants relisent l'état et échouent sur la règle métier, pas sur un conflit
+        assertEquals(THREADS - 1, outcomes.businessErrors);
+        Ticket ticket = ticketRepository.findById(ticketId).orElseThrow();
+        assertEquals(TicketStatus.ANNULE, ticket.getStatus());
+        assertEquals(1L, ticket.getVersion());
+    }
+
+    @Test
+    @DisplayName("Validations concurrentes : le ticket n'est validé qu'une fois")
+    void concurrentValidations() throws Exception {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> ticketService.validateTicket(ticketId));
+        }
+
+        Outcomes outcomes = hammer(tasks);
+
+        assertEquals(1, outcomes.successes);
+        assertEquals(THREADS - 1, outcomes.businessErrors);
+        assertEquals(1L, ticketRepository.findById(ticketId).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("Transferts et remboursements concurrents : une seule opération l'emporte")
+    void transferRacingRefund() throws Exception {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS / 2; i++) {
+            tasks.add(() -> ticketService.transferTicket(ticketId, 1L, "bob@example.com"));
+            tasks.add(() -> ticketService.requestRefund(ticketId, 1L, "Voyage annulé"));
+        }
+
+        Outcomes outcomes = hammer(tasks);
+
+        assertEquals(1, outcomes.successes);
+        assertEquals(THREADS - 1, outcomes.businessErrors + outcomes.conflicts);
+        Ticket ticket = ticketRepository.findById(ticketId).orElseThrow();
+        long refunds = refundRepository.count();
+        long transfers = transferHistoryRepository.count();
+        if (ticket.getUserId().equals(2L)) {
+            assertEquals(TicketStatus.VALIDE, ticket.getStatus());
+            assertEquals(0, refunds);
+            assertEquals(1, transfers);
+        } else {
+            assertEquals(TicketStatus.ANNULE, ticket.getStatus());
+            assertEquals(1, refunds);
+            assertEquals(0, transfers);
+        }
+    }
+
+    private Outcomes hammer(List<Callable<Object>> tasks) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (Callable<Object> task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        Outcomes outcomes = new Outcomes();
+        for (Future<Object> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                outcomes.successes++;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof InvalidTicketException) {
+                    outcomes.businessErrors++;
+                } else if (e.getCause() instanceof ConcurrentTicketUpdateException) {
+                    outcomes.conflicts++;
+                } else {
+                    throw new AssertionError("Échec inattendu", e.getCause());
+                }
+            } catch (Exception e) {
+                throw new AssertionError("Tâche bloquée", e);
+            }
+        }
+        assertTrue(outcomes.successes + outcomes.businessErrors + outcomes.conflicts == tasks.size());
+        return outcomes;
+    }
+
+    private static final class Outcomes {
+        int successes;
+        int businessErrors;
+        int conflicts;
+    }
+}
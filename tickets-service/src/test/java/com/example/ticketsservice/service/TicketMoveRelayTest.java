@@ -0,0 +1,118 @@
+package com.example.ticketsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.ticketsservice.config.sharding.ShardIdGenerator;
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.config.sharding.ShardedQueries;
+import com.example.ticketsservice.config.sharding.ShardingProperties;
+import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.TicketMove;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.TicketType;
+import com.example.ticketsservice.model.TransferHistory;
+import com.example.ticketsservice.repository.TicketMoveRepository;
+import com.example.ticketsservice.repository.TicketRepository;
+import com.example.ticketsservice.repository.TransferHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TicketMoveRelayTest {
+
+    private final TicketMoveRepository ticketMoveRepository = mock(TicketMoveRepository.class);
+    private final TicketRepository ticketRepository = mock(TicketRepository.class);
+    private final TransferHistoryRepository transferHistoryRepository = mock(TransferHistoryRepository.class);
+    private final ShardedQueries shardedQueries = mock(ShardedQueries.class);
+
+    private TicketMoveRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.getShards().add(new ShardingProperties.Shard());
+        properties.getShards().add(new ShardingProperties.Shard());
+        when(shardedQueries.inShard(anyInt(), any())).thenAnswer(invocation -> invocation.getArgument(1, Supplier.class).get());
+        when(ticketMoveRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        relay = new TicketMoveRelay(ticketMoveRepository, ticketRepository, transferHistoryRepository,
+                new ShardRouter(properties), shardedQueries, new ObjectMapper().findAndRegisterModules(),
+                Duration.ofSeconds(30), 100);
+    }
+
+    @Test
+    @DisplayName("Le ticket est recréé sur le shard cible avec l'historique du destinataire, puis le transfert effacé")
+    void stage_AppliesOnTargetShard() {
+        Ticket source = ticket(new ShardIdGenerator(0).nextId(0), 1L);
+        Ticket copy = ticket(new ShardIdGenerator(0).nextId(1), 2L);
+        TransferHistory history = TransferHistory.builder().ticketId(copy.getId()).fromUserId(1L).toUserId(2L)
+                .transferDate(LocalDateTime.now()).status("COMPLETED").build();
+
+        relay.stage(source, copy, history, 1);
+
+        ArgumentCaptor<Ticket> created = ArgumentCaptor.forClass(Ticket.class);
+        verify(ticketRepository).save(created.capture());
+        assertEquals(copy.getId(), created.getValue().getId());
+        assertEquals(2L, created.getValue().getUserId());
+        assertEquals(copy.getQrCodeData(), created.getValue().getQrCodeData());
+        ArgumentCaptor<TransferHistory> recipientHistory = ArgumentCaptor.forClass(TransferHistory.class);
+        verify(transferHistoryRepository).save(recipientHistory.capture());
+        assertEquals(copy.getId(), recipientHistory.getValue().getTicketId());
+        verify(shardedQueries).inShard(eq(1), any());
+        verify(ticketMoveRepository).deleteById(copy.getId());
+    }
+
+    @Test
+    @DisplayName("Un transfert déjà appliqué n'est pas recréé une seconde fois")
+    void apply_Idempotent() {
+        Ticket copy = ticket(new ShardIdGenerator(0).nextId(1), 2L);
+        when(ticketRepository.existsById(copy.getId())).thenReturn(true);
+
+        relay.stage(ticket(new ShardIdGenerator(0).nextId(0), 1L), copy, new TransferHistory(), 1);
+
+        verify(ticketRepository, never()).save(any());
+        verify(transferHistoryRepository, never()).save(any());
+        verify(ticketMoveRepository).deleteById(copy.getId());
+    }
+
+    @Test
+    @DisplayName("Un shard cible indisponible laisse le transfert en attente de reprise")
+    void apply_TargetDown_KeepsMove() {
+        Ticket copy = ticket(new ShardIdGenerator(0).nextId(1), 2L);
+        when(ticketRepository.existsById(copy.getId())).thenThrow(new IllegalStateException("shard 1 indisponible"));
+
+        relay.stage(ticket(new ShardIdGenerator(0).nextId(0), 1L), copy, new TransferHistory(), 1);
+
+        verify(ticketMoveRepository).save(any(TicketMove.class));
+        verify(ticketMoveRepository, never()).deleteById(any());
+    }
+
+    private static Ticket ticket(long id, long userId) {
+        Ticket ticket = new Ticket();
+        ticket.setId(id);
+        ticket.setUserId(userId);
+        ticket.setTicketType(TicketType.SIMPLE);
+        ticket.setStatus(TicketStatus.VALIDE);
+        ticket.setPurchaseDate(LocalDateTime.now());
+        ticket.setOriginalPriceCents(800);
+        ticket.setDiscountApplied(0);
+        ticket.setFinalPriceCents(800);
+        ticket.setQrCodeData("{\"ticketId\":\"" + id + "\",\"type\":\"TICKET\"}");
+        return ticket;
+    }
+}
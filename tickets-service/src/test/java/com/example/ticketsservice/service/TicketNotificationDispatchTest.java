@@ -0,0 +1,86 @@
+package com.example.ticketsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.ticketsservice.controller.NotificationController;
+import com.example.ticketsservice.dto.TicketPurchaseRequest;
+import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.UserRepository;
+
+/**
+ * Les notifications de TicketService partent après le commit, hors du thread de la requête,
+ * et jamais pour une transaction annulée.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TicketNotificationDispatchTest {
+
+    @Autowired
+    private TicketService ticketService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    private NotificationController notificationController;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(User.builder().id(1L).email("alice@example.com").firstName("Alice").lastName("Martin").build());
+    }
+
+    @Test
+    @DisplayName("Achat validé : la notification part après le commit, sur le pool d'envoi")
+    void committedPurchase_IsNotifiedAsynchronously() {
+        AtomicReference<Thread> sender = new AtomicReference<>();
+        doAnswer(invocation -> {
+            sender.set(Thread.currentThread());
+            return invocation.callRealMethod();
+        }).when(notificationController).notifyTicketPurchased(anyLong(), anyLong(), anyString());
+
+        Ticket ticket = ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "HEBDO"));
+
+        verify(notificationController, timeout(5000)).notifyTicketPurchased(eq(1L), eq(ticket.getId()), eq("HEBDO"));
+        assertNotEquals(Thread.currentThread(), sender.get());
+    }
+
+    @Test
+    @DisplayName("Achat annulé par la transaction englobante : aucune notification")
+    void rolledBackPurchase_IsNotNotified() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ticketService.purchaseTicket(new TicketPurchaseRequest(1L, "HEBDO"));
+            status.setRollbackOnly();
+        });
+
+        verify(notificationController, after(500).never()).notifyTicketPurchased(anyLong(), anyLong(), anyString());
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.ticketsservice.service;
 
+import com.example.ticketsservice.dto.QrCodePayload;
 import com.example.ticketsservice.dto.TicketPurchaseRequest;
 import com.example.ticketsservice.exception.InvalidTicketException;
 import com.example.ticketsservice.exception.TicketNotFoundException;
 import com.example.ticketsservice.model.Refund;
 import com.example.ticketsservice.model.Ticket;
+import com.example.ticketsservice.model.TicketStatus;
+import com.example.ticketsservice.model.TicketType;
 import com.example.ticketsservice.model.TransferHistory;
 import com.example.ticketsservice.model.User;
 import com.example.ticketsservice.repository.RefundRepository;
@@ -17,9 +20,22 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.example.ticketsservice.config.cache.TicketCacheProperties;
+import com.example.ticketsservice.config.datasource.ReadYourWritesGuard;
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.config.sharding.ShardedQueries;
+import com.example.ticketsservice.config.sharding.ShardingProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +43,8 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,12 +65,49 @@ class TicketServiceTest {
     @Mock
     private RabbitTemplate rabbitTemplate;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BarcodeService barcodeService;
+
+    @Spy
+    private TicketMetrics ticketMetrics = new TicketMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private ReadYourWritesGuard readYourWritesGuard = new ReadYourWritesGuard(Duration.ofSeconds(5));
+
+    @Mock
+    private TicketArchivalService ticketArchivalService;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+
+    @Spy
+    private ShardedQueries shardedQueries = new ShardedQueries(shardRouter, null, Duration.ofSeconds(5));
+
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(
+            mock(PlatformTransactionManager.class), 3, Duration.ZERO, ticketMetrics);
+
+    @Spy
+    private TicketCache ticketCache = new TicketCache(disabledCache(), null, null, new SimpleMeterRegistry(), null);
+
+    @Spy
+    private UserDirectory userDirectory = new UserDirectory(false, 5000, null, null, new SimpleMeterRegistry());
+
     @InjectMocks
     private TicketService ticketService;
 
     private User testUser;
     private Ticket testTicket;
 
+    private static TicketCacheProperties disabledCache() {
+        TicketCacheProperties properties = new TicketCacheProperties();
+        properties.setEnabled(false);
+        return properties;
+    }
+
     @BeforeEach
     void setUp() {
         testUser = new User();
@@ -64,10 +119,14 @@ class TicketServiceTest {
         testTicket = new Ticket();
         testTicket.setId(1L);
         testTicket.setUserId(1L);
-        testTicket.setTicketType("SIMPLE");
-        testTicket.setStatus("VALIDE");
+        testTicket.setTicketType(TicketType.SIMPLE);
+        testTicket.setStatus(TicketStatus.VALIDE);
         testTicket.setPurchaseDate(LocalDateTime.now());
         testTicket.setQrCodeData("TICKET-test-123");
+
+        // Recherches bornées sur la partition : un identifiant d'avant le sharding retombe sur findById
+        lenient().when(ticketRepository.findLiveById(anyLong())).thenCallRealMethod();
+        lenient().when(ticketRepository.findByQrCodeData(anyString(), any())).thenCallRealMethod();
     }
 
     @Test
@@ -79,22 +138,17 @@ class TicketServiceTest {
         request.setTicketType("SIMPLE");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(ticketRepository.findByUserIdAndTicketType(1L, "SIMPLE")).thenReturn(List.of());
-        when(ticketRepository.findByQrCodeData(any())).thenReturn(Optional.empty());
-        when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> {
-            Ticket t = i.getArgument(0);
-            t.setId(1L);
-            return t;
-        });
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(i -> i.getArgument(0));
 
         // When
         Ticket result = ticketService.purchaseTicket(request);
 
         // Then
         assertNotNull(result);
-        assertEquals("SIMPLE", result.getTicketType());
-        assertEquals("VALIDE", result.getStatus());
+        assertEquals(TicketType.SIMPLE, result.getTicketType());
+        assertEquals(TicketStatus.VALIDE, result.getStatus());
         assertEquals(1L, result.getUserId());
+        assertNotNull(result.getId());
         verify(ticketRepository).save(any(Ticket.class));
     }
 
@@ -116,7 +170,7 @@ class TicketServiceTest {
     @DisplayName("Should get ticket history for user")
     void getTicketHistory_Success() {
         // Given
-        when(ticketRepository.findByUserId(1L)).thenReturn(List.of(testTicket));
+        when(ticketRepository.findByUserIdAndPurchaseDateGreaterThanEqual(eq(1L), any())).thenReturn(List.of(testTicket));
 
         // When
         List<Ticket> result = ticketService.getTicketHistory(1L);
@@ -131,7 +185,7 @@ class TicketServiceTest {
     @DisplayName("Should throw exception when no tickets found")
     void getTicketHistory_NoTickets() {
         // Given
-        when(ticketRepository.findByUserId(1L)).thenReturn(List.of());
+        when(ticketRepository.findByUserIdAndPurchaseDateGreaterThanEqual(eq(1L), any())).thenReturn(List.of());
 
         // When & Then
         assertThrows(TicketNotFoundException.class, () ->
@@ -168,6 +222,20 @@ class TicketServiceTest {
         );
     }
 
+    @Test
+    @DisplayName("Should time a QR validation that fails with an error outcome")
+    void validateByQrCode_ErrorIsTimed() {
+        // Given
+        when(ticketRepository.findByQrCodeData("TICKET-test-123"))
+                .thenThrow(new DataAccessResourceFailureException("base injoignable"));
+
+        // When & Then
+        assertThrows(DataAccessResourceFailureException.class, () ->
+            ticketService.validateByQrCode("TICKET-test-123", QrCodePayload.UNKNOWN)
+        );
+        verify(ticketMetrics).stopValidation(any(), eq(TicketMetrics.ValidationOutcome.ERROR));
+    }
+
     @Test
     @DisplayName("Should transfer ticket successfully")
     void transferTicket_Success() {
@@ -236,7 +304,7 @@ class TicketServiceTest {
         // Then
         assertNotNull(result);
         assertEquals("PENDING", result.getStatus());
-        assertEquals(2.0, result.getRefundAmount()); // SIMPLE ticket price
+        assertEquals(8.0, result.getRefundAmount()); // SIMPLE ticket price
         verify(ticketRepository).save(any(Ticket.class)); // Ticket marked as cancelled
     }
 
@@ -305,10 +373,10 @@ class TicketServiceTest {
     void getTicketStats_Success() {
         // Given
         Ticket usedTicket = new Ticket();
-        usedTicket.setStatus("VALIDE");
+        usedTicket.setStatus(TicketStatus.VALIDE);
         usedTicket.setValidationDate(LocalDateTime.now());
 
-        when(ticketRepository.findByUserId(1L)).thenReturn(List.of(testTicket, usedTicket));
+        when(ticketRepository.findByUserIdAndPurchaseDateGreaterThanEqual(eq(1L), any())).thenReturn(List.of(testTicket, usedTicket));
 
         // When
         var result = ticketService.getTicketStats(1L);
@@ -0,0 +1,99 @@
+package com.example.ticketsservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import com.example.ticketsservice.config.UserSyncProperties;
+import com.example.ticketsservice.config.sharding.ShardRouter;
+import com.example.ticketsservice.config.sharding.ShardingProperties;
+import com.example.ticketsservice.model.User;
+import com.example.ticketsservice.repository.UserBulkRepository;
+import com.example.ticketsservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class UserSnapshotBootstrapTest {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserBulkRepository userBulkRepository = mock(UserBulkRepository.class);
+    private final List<List<Long>> writtenBatches = new ArrayList<>();
+
+    private MockRestServiceServer userService;
+    private UserSnapshotBootstrap bootstrap;
+
+    @BeforeEach
+    void setUp() {
+        UserSyncProperties properties = new UserSyncProperties();
+        properties.getBootstrap().setUserServiceUrl("http://user-service");
+        properties.getBootstrap().setToken("secret");
+        properties.getBootstrap().setPageSize(3);
+        properties.getBootstrap().setWriteBatchSize(2);
+
+        RestClient.Builder builder = RestClient.builder();
+        userService = MockRestServiceServer.bindTo(builder).build();
+        when(userBulkRepository.upsert(anyCollection())).thenAnswer(invocation -> {
+            List<Long> ids = new ArrayList<>();
+            for (Object user : invocation.getArgument(0, Collection.class)) {
+                ids.add(((User) user).getId());
+            }
+            writtenBatches.add(ids);
+            return ids.size();
+        });
+        bootstrap = new UserSnapshotBootstrap(properties, builder, new ObjectMapper(), userRepository,
+                userBulkRepository, new ShardRouter(new ShardingProperties()));
+    }
+
+    @Test
+    @DisplayName("L'export est lu page par page et écrit par lots sur une table vide")
+    void emptyTable_LoadsSnapshotInBatches() {
+        userService.expect(requestTo("http://user-service/internal/users/snapshot?afterId=0&limit=3"))
+                .andExpect(header("X-Internal-Token", "secret"))
+                .andRespond(withSuccess(lines(1, 2, 5), NDJSON));
+        userService.expect(requestTo("http://user-service/internal/users/snapshot?afterId=5&limit=3"))
+                .andRespond(withSuccess(lines(8), NDJSON));
+
+        bootstrap.start();
+
+        userService.verify();
+        assertEquals(List.of(List.of(1L, 2L), List.of(5L), List.of(8L)), writtenBatches);
+    }
+
+    @Test
+    @DisplayName("Une table déjà alimentée n'est pas rechargée en mode IF_EMPTY")
+    void populatedTable_SkipsBootstrap() {
+        when(userRepository.count()).thenReturn(42L);
+
+        bootstrap.start();
+
+        userService.verify();
+        verify(userBulkRepository, times(0)).upsert(anyCollection());
+    }
+
+    private static String lines(long... ids) {
+        StringBuilder ndjson = new StringBuilder();
+        for (long id : ids) {
+            ndjson.append("{\"id\":").append(id).append(",\"email\":\"user").append(id)
+                    .append("@example.com\",\"firstName\":\"Prénom\",\"lastName\":\"Nom\"}\n");
+        }
+        return ndjson.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package com.transport.urbain.userservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.transport.urbain.userservice.dto.UserSnapshotRecord;
+import com.transport.urbain.userservice.repository.UserRepository;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Export des utilisateurs pour l'amorçage des copies locales (tickets-service) : une page triée par ID,
+ * une ligne JSON compacte par utilisateur (NDJSON). L'appelant repart du dernier ID reçu tant que
+ * la page est pleine. Réservé aux services internes : jeton partagé USERS_SNAPSHOT_TOKEN.
+ */
+@Slf4j
+@RestController
+public class UserSnapshotController {
+
+    private static final int MAX_PAGE_SIZE = 50_000;
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final byte[] token;
+
+    public UserSnapshotController(UserRepository userRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${users.snapshot.token:}") String token) {
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @GetMapping(value = "/internal/users/snapshot", produces = "application/x-ndjson")
+    public void exportSnapshot(@RequestHeader(value = "X-Internal-Token", required = false) String providedToken,
+                               @RequestParam(defaultValue = "0") long afterId,
+                               @RequestParam(defaultValue = "10000") int limit,
+                               HttpServletResponse response) throws IOException {
+        if (token.length == 0 || providedToken == null
+                || !MessageDigest.isEqual(token, providedToken.getBytes(StandardCharsets.UTF_8))) {
+            response.sendError(HttpStatus.FORBIDDEN.value());
+            return;
+        }
+
+        List<UserSnapshotRecord> page = userRepository.findSnapshotPage(afterId,
+                Limit.of(Math.clamp(limit, 1, MAX_PAGE_SIZE)));
+        log.debug("Export de {} utilisateurs après l'ID {}", page.size(), afterId);
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            for (UserSnapshotRecord user : page) {
+                writer.write(user);
+            }
+        }
+    }
+}
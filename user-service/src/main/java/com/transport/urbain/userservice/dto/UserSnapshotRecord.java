@@ -0,0 +1,18 @@
+package com.transport.urbain.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ligne de l'export des utilisateurs : les seuls champs répliqués par les autres services.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSnapshotRecord {
+    private Long id;
+    private String email;
+    private String firstName;
+    private String lastName;
+}
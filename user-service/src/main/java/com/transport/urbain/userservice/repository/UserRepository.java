@@ -1,8 +1,12 @@
 package com.transport.urbain.userservice.repository;
 
+import com.transport.urbain.userservice.dto.UserSnapshotRecord;
 import com.transport.urbain.userservice.model.User;
 import com.transport.urbain.userservice.model.UserRole;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +15,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRole(UserRole role);
     List<User> findAllByOrderByIdDesc();
     long countByRole(UserRole role);
+
+    // Export par plages de clé primaire, sans charger d'entités
+    @Query("SELECT new com.transport.urbain.userservice.dto.UserSnapshotRecord(u.id, u.email, u.firstName, u.lastName) "
+            + "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSnapshotRecord> findSnapshotPage(@Param("afterId") Long afterId, Limit limit);
 }
\ No newline at end of file
@@ -17,7 +17,9 @@ import com.transport.urbain.userservice.model.UserRole;
 import com.transport.urbain.userservice.repository.UserRepository; 
 
 import lombok.RequiredArgsConstructor; 
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -57,7 +59,7 @@ public class AuthService {
                 savedUser.getLastName()
         );
         rabbitTemplate.convertAndSend(EXCHANGE_NAME, ROUTING_KEY_USER_REGISTERED, event);
-        System.out.println("UserRegisteredEvent publié pour: " + savedUser.getEmail());
+        log.info("UserRegisteredEvent publié pour: {}", savedUser.getEmail());
 
         return AuthResponse.builder()
                 .token(jwtToken)
@@ -0,0 +1,196 @@
+package com.transport.urbain.userservice.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.transport.urbain.userservice.model.User;
+import com.transport.urbain.userservice.model.UserRole;
+import com.transport.urbain.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Budget de requêtes SQL par endpoint, mesuré avec les statistiques Hibernate et comparé à
+ * src/test/resources/sql-budget.properties. Un N+1 ou une lecture redondante fait échouer le build.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointSqlBudgetTest {
+
+    private static final Properties BUDGETS = loadBudgets();
+    private static final String ALICE = "alice@example.com";
+    private static final String PASSWORD = "motdepasse123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    private Statistics statistics;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userRepository.deleteAll();
+        alice = userRepository.save(user(ALICE, "Alice", UserRole.ADMIN));
+        bob = userRepository.save(user("bob@example.com", "Bob", UserRole.PASSENGER));
+    }
+
+    @Test
+    @DisplayName("POST /api/auth/register et /login")
+    void auth() throws Exception {
+        measure("auth.register", post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Chloé\",\"lastName\":\"Petit\",\"email\":\"chloe@example.com\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+        measure("auth.login", post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"" + ALICE + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Profil courant : lecture, mise à jour, mot de passe, suppression")
+    void profile() throws Exception {
+        measure("users.me", get("/api/users/me"))
+                .andExpect(status().isOk());
+        measure("users.me.update", put("/api/users/me")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Alicia\",\"lastName\":\"Martin\",\"phoneNumber\":\"0612345678\"}"))
+                .andExpect(status().isOk());
+        measure("users.me.password", put("/api/users/me/password")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"currentPassword\":\"" + PASSWORD + "\",\"newPassword\":\"nouveau-secret\"}"))
+                .andExpect(status().isNoContent());
+        measure("users.me.delete", delete("/api/users/me"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Endpoints d'administration des utilisateurs")
+    void admin() throws Exception {
+        measure("users.list", get("/api/users"))
+                .andExpect(status().isOk());
+        measure("users.list.role", get("/api/users").param("role", "passenger"))
+                .andExpect(status().isOk());
+        measure("users.stats", get("/api/users/stats"))
+                .andExpect(status().isOk());
+        measure("users.details", get("/api/users/{id}", bob.getId()))
+                .andExpect(status().isOk());
+        measure("users.role", put("/api/users/{id}/role", bob.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"role\":\"CONTROLLER\"}"))
+                .andExpect(status().isOk());
+        measure("users.delete", delete("/api/users/{id}", bob.getId()))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    @DisplayName("Programme de fidélité")
+    void loyalty() throws Exception {
+        String award = measure("users.loyalty.award", post("/api/users/{userId}/loyalty/award", alice.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"points\":150}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(JsonPath.<Integer>read(award, "$.newBalance") >= 150);
+
+        measure("users.me.loyalty", get("/api/users/me/loyalty"))
+                .andExpect(status().isOk());
+        measure("users.me.loyalty.redeem", post("/api/users/me/loyalty/redeem")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"points\":100}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Export interne des utilisateurs (NDJSON)")
+    void snapshot() throws Exception {
+        String ndjson = measure("users.snapshot", get("/internal/users/snapshot")
+                .header("X-Internal-Token", "test-snapshot-token")
+                .param("afterId", "0")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, ndjson.lines().count());
+        assertEquals(alice.getId().intValue(), JsonPath.<Integer>read(ndjson, "$.id"));
+
+        mockMvc.perform(get("/internal/users/snapshot").header("X-Internal-Token", "mauvais-jeton"))
+                .andExpect(status().isForbidden());
+    }
+
+    private User user(String email, String firstName, UserRole role) {
+        return User.builder()
+                .email(email)
+                .password(passwordEncoder.encode(PASSWORD))
+                .firstName(firstName)
+                .lastName("Martin")
+                .role(role)
+                .build();
+    }
+
+    private ResultActions measure(String endpoint, MockHttpServletRequestBuilder request) throws Exception {
+        String budget = BUDGETS.getProperty(endpoint);
+        assertNotNull(budget, () -> "Pas de budget SQL pour " + endpoint + " dans sql-budget.properties");
+
+        statistics.clear();
+        ResultActions result = mockMvc.perform(request.header("X-User-Email", ALICE));
+        long statements = statistics.getPrepareStatementCount();
+
+        assertTrue(statements <= Long.parseLong(budget), () -> endpoint + " : " + statements
+                + " requêtes SQL pour un budget de " + budget);
+        return result;
+    }
+
+    private static Properties loadBudgets() {
+        Properties budgets = new Properties();
+        try (InputStream in = EndpointSqlBudgetTest.class.getResourceAsStream("/sql-budget.properties")) {
+            budgets.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("sql-budget.properties illisible", e);
+        }
+        return budgets;
+    }
+}